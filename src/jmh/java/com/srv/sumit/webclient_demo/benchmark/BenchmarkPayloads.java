@@ -0,0 +1,78 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srv.sumit.webclient_demo.configuration.HttpClientConfig;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import com.srv.sumit.webclient_demo.dto.ProductData;
+import com.srv.sumit.webclient_demo.dto.ProductRequestDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic payloads shaped like the {@code /objects} API responses, shared by the benchmarks.
+ */
+final class BenchmarkPayloads {
+
+    private static final String[] COLORS = {"Silver", "Space Gray", "Midnight", "Starlight", "Blue"};
+    private static final String[] CAPACITIES = {"128 GB", "256 GB", "512 GB", "1 TB"};
+    private static final String[] CPU_MODELS = {"Intel Core i7", "Intel Core i9", "Apple M1", "Apple M2 Pro"};
+    private static final String[] DISK_SIZES = {"256 GB", "512 GB", "1 TB", "2 TB"};
+
+    private BenchmarkPayloads() {
+    }
+
+    /**
+     * @return The ObjectMapper exactly as the application configures it.
+     */
+    static ObjectMapper objectMapper() {
+        return new HttpClientConfig().objectMapper(false, false, 0);
+    }
+
+    static ProductDTO product(int index) {
+        ProductData data = new ProductData();
+        data.setColor(COLORS[index % COLORS.length]);
+        data.setCapacity(CAPACITIES[index % CAPACITIES.length]);
+        data.setYear(2015 + index % 10);
+        data.setPrice(499.99 + (index % 50) * 25);
+        data.setCpuModel(CPU_MODELS[index % CPU_MODELS.length]);
+        data.setHardDiskSize(DISK_SIZES[index % DISK_SIZES.length]);
+
+        ProductDTO product = new ProductDTO();
+        product.setId(String.valueOf(index + 1));
+        product.setName("Apple MacBook Pro " + (index % 3 == 0 ? "14" : "16"));
+        product.setData(data);
+        return product;
+    }
+
+    static List<ProductDTO> products(int size) {
+        List<ProductDTO> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    static String productListJson(ObjectMapper objectMapper, int size) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(products(size));
+    }
+
+    static String productResponseJson() {
+        return "{\"id\":\"ff808181932badb60193d1dd2fdf0b9a\",\"name\":\"Apple MacBook Pro 16\","
+                + "\"data\":{\"year\":2019,\"price\":1849.99,\"CPU model\":\"Intel Core i9\",\"Hard disk size\":\"1 TB\"},"
+                + "\"createdAt\":\"2024-12-16T10:15:30.123\"}";
+    }
+
+    static ProductRequestDTO productRequest() {
+        ProductRequestDTO.ProductDataDTO productDataDTO = new ProductRequestDTO.ProductDataDTO();
+        productDataDTO.setCpuModel("Intel Core i9");
+        productDataDTO.setPrice(1849.99);
+        productDataDTO.setYear(2019);
+        productDataDTO.setHardDiskSize("1 TB");
+        ProductRequestDTO requestDTO = new ProductRequestDTO();
+        requestDTO.setData(productDataDTO);
+        requestDTO.setName("Apple MacBook Pro 16");
+        return requestDTO;
+    }
+}
@@ -0,0 +1,86 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.configuration.HttpClientConfig;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import com.srv.sumit.webclient_demo.dto.ProductRequestDTO;
+import com.srv.sumit.webclient_demo.util.ResponseHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call ObjectMapper lookups against the cached readers and writers of the {@link CodecRegistry}, with and
+ * without the Blackbird module, for product lists of growing size and a single request body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecRegistryBenchmark {
+
+    @Param({"false", "true"})
+    private boolean blackbird;
+
+    @Param({"1", "100", "10000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader listReader;
+    private ObjectWriter requestWriter;
+    private byte[] listBytes;
+    private ProductRequestDTO productRequest;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new HttpClientConfig().objectMapper(blackbird, false, 0);
+        CodecRegistry codecRegistry = new CodecRegistry(objectMapper);
+        listReader = codecRegistry.listReader(PayloadFormat.JSON, ProductDTO.class);
+        requestWriter = codecRegistry.writer(PayloadFormat.JSON, ProductRequestDTO.class);
+        listBytes = objectMapper.writeValueAsBytes(BenchmarkPayloads.products(listSize));
+        productRequest = BenchmarkPayloads.productRequest();
+    }
+
+    private static DataBuffer wrap(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    @Benchmark
+    public List<ProductDTO> productListWithMapper() {
+        return ResponseHandler.handleListResponse(wrap(listBytes), ProductDTO.class, objectMapper).block();
+    }
+
+    @Benchmark
+    public List<ProductDTO> productListWithCachedReader() {
+        return ResponseHandler.<ProductDTO>handleListResponse(wrap(listBytes), listReader).block();
+    }
+
+    @Benchmark
+    public byte[] productRequestWithMapper() throws Exception {
+        return objectMapper.writeValueAsBytes(productRequest);
+    }
+
+    @Benchmark
+    public byte[] productRequestWithCachedWriter() throws Exception {
+        return requestWriter.writeValueAsBytes(productRequest);
+    }
+}
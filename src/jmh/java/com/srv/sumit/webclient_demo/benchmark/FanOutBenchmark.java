@@ -0,0 +1,116 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srv.sumit.webclient_demo.configuration.ExecutionConfig;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import com.srv.sumit.webclient_demo.util.CallResult;
+import com.srv.sumit.webclient_demo.util.FanOutExecutor;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of blocking fan-out ({@code getAll}) on the client call executor built by {@link ExecutionConfig},
+ * virtual threads against the default platform pool. One operation is {@code fanOut} blocking GETs through a
+ * pooled Apache client, the stack behind {@code HttpClientHelper}, against a local server answering each one
+ * after {@code latencyMillis}; the connection pool is large enough that threads, not connections, bound the
+ * concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutBenchmark {
+
+    private static final int PLATFORM_POOL_SIZE = 64;
+
+    @Param({"true", "false"})
+    private boolean virtualThreads;
+
+    @Param({"64", "512"})
+    private int fanOut;
+
+    @Param({"20"})
+    private int latencyMillis;
+
+    private DisposableServer server;
+    private ExecutorService executor;
+    private FanOutExecutor fanOutExecutor;
+    private CloseableHttpClient httpClient;
+    private ObjectMapper objectMapper;
+    private String baseUrl;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = BenchmarkPayloads.objectMapper();
+        byte[] productBytes = objectMapper.writeValueAsBytes(BenchmarkPayloads.product(1));
+        Duration latency = Duration.ofMillis(latencyMillis);
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/objects/{id}", (request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendByteArray(Mono.delay(latency).thenReturn(productBytes))))
+                .bindNow();
+        baseUrl = "http://127.0.0.1:" + server.port();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(1024)
+                .setMaxConnPerRoute(1024)
+                .build();
+        httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+        executor = new ExecutionConfig().clientCallExecutor(virtualThreads, PLATFORM_POOL_SIZE);
+        fanOutExecutor = new FanOutExecutor(executor);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        executor.close();
+        httpClient.close();
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public int getAll() {
+        List<Callable<ProductDTO>> calls = new ArrayList<>(fanOut);
+        for (int i = 0; i < fanOut; i++) {
+            HttpGet request = new HttpGet(baseUrl + "/objects/" + i);
+            calls.add(() -> httpClient.execute(request,
+                    response -> objectMapper.readValue(EntityUtils.toByteArray(response.getEntity()), ProductDTO.class)));
+        }
+        int succeeded = 0;
+        for (CallResult<ProductDTO> result : fanOutExecutor.invokeAll(calls)) {
+            if (result.isSuccess()) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+}
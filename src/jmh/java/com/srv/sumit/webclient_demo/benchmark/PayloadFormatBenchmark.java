@@ -0,0 +1,92 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import com.srv.sumit.webclient_demo.dto.ProductRequestDTO;
+import com.srv.sumit.webclient_demo.dto.ProductResponseDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload size and codec cost of JSON against Smile and CBOR for the product DTOs, each format through the
+ * mapper {@link PayloadFormat#createMapper} derives from the application's ObjectMapper. The {@code payloadBytes}
+ * counter of {@code decodeProductList} reports the encoded size of the list in the format. It is an EVENTS
+ * counter, which JMH sums over the measurement iterations: each iteration line shows the size, and the score is
+ * the size times the 5 iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private PayloadFormat format;
+
+    @Param({"1", "100", "10000"})
+    private int listSize;
+
+    private ObjectMapper mapper;
+    private List<ProductDTO> products;
+    private JavaType listType;
+    private byte[] listBytes;
+    private byte[] productResponseBytes;
+    private ProductRequestDTO productRequest;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long payloadBytes;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper jsonMapper = BenchmarkPayloads.objectMapper();
+        mapper = format.createMapper(jsonMapper);
+        listType = mapper.getTypeFactory().constructCollectionType(List.class, ProductDTO.class);
+        products = BenchmarkPayloads.products(listSize);
+        listBytes = mapper.writeValueAsBytes(products);
+        // Transcode the fixed JSON sample so every format carries exactly the same response
+        productResponseBytes = mapper.writeValueAsBytes(
+                jsonMapper.readValue(BenchmarkPayloads.productResponseJson(), ProductResponseDTO.class));
+        productRequest = BenchmarkPayloads.productRequest();
+    }
+
+    @Benchmark
+    public List<ProductDTO> decodeProductList(PayloadSize size) throws Exception {
+        size.payloadBytes = listBytes.length;
+        return mapper.readValue(listBytes, listType);
+    }
+
+    @Benchmark
+    public byte[] encodeProductList() throws Exception {
+        return mapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public ProductResponseDTO decodeProductResponse() throws Exception {
+        return mapper.readValue(productResponseBytes, ProductResponseDTO.class);
+    }
+
+    @Benchmark
+    public byte[] encodeProductRequest() throws Exception {
+        return mapper.writeValueAsBytes(productRequest);
+    }
+}
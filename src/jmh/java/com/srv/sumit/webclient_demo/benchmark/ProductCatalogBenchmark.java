@@ -0,0 +1,78 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.srv.sumit.webclient_demo.catalog.ProductCatalogSnapshot;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and filters on a {@link ProductCatalogSnapshot} against scanning the decoded product list, which is
+ * what callers of {@code getList("/objects")} do today.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductCatalogBenchmark {
+
+    @Param({"1000", "100000"})
+    private int listSize;
+
+    private List<ProductDTO> products;
+    private ProductCatalogSnapshot snapshot;
+    private String id;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkPayloads.products(listSize);
+        snapshot = ProductCatalogSnapshot.build(products, Instant.now());
+        id = String.valueOf(listSize / 2);
+    }
+
+    @Benchmark
+    public Optional<ProductDTO> findByIdScan() {
+        return products.stream().filter(product -> Objects.equals(product.getId(), id)).findFirst();
+    }
+
+    @Benchmark
+    public Optional<ProductDTO> findByIdSnapshot() {
+        return snapshot.findById(id);
+    }
+
+    @Benchmark
+    public List<ProductDTO> byYearScan() {
+        return products.stream().filter(product -> product.getData().getYear() == 2019).toList();
+    }
+
+    @Benchmark
+    public List<ProductDTO> byYearSnapshot() {
+        return snapshot.byYear(2019, 2019);
+    }
+
+    @Benchmark
+    public List<ProductDTO> cheaperThanScan() {
+        return products.stream().filter(product -> product.getData().getPrice() < 600).toList();
+    }
+
+    @Benchmark
+    public List<ProductDTO> cheaperThanSnapshot() {
+        return snapshot.cheaperThan(600);
+    }
+}
@@ -0,0 +1,117 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srv.sumit.webclient_demo.configuration.WebClientConfig;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and connection usage of the Reactor Netty client built by {@link WebClientConfig}, HTTP/1.1 against
+ * h2c prior knowledge, on a local server speaking both. One operation is a burst of {@code concurrency} GETs;
+ * the {@code connections} counter is the number of TCP connections the server accepted in an iteration, each
+ * iteration starting from an empty pool. JMH reports that counter summed over the measurement iterations, so
+ * divide it by their count for the connections per iteration. h2 over TLS is not measured: it needs a
+ * certificate, and the ALPN handshake only adds per-connection cost on top of the multiplexing measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtocolThroughputBenchmark {
+
+    @Param({"HTTP11", "H2C"})
+    private HttpProtocol protocol;
+
+    @Param({"16", "256"})
+    private int concurrency;
+
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    private DisposableServer server;
+    private WebClient webClient;
+    private HttpClient httpClient;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Connections {
+        public long connections;
+    }
+
+    @Setup(Level.Trial)
+    public void startServer() throws Exception {
+        ObjectMapper objectMapper = BenchmarkPayloads.objectMapper();
+        byte[] productBytes = objectMapper.writeValueAsBytes(BenchmarkPayloads.product(1));
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                // Accepts h2c prior knowledge as well as HTTP/1.1 on the same port
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                // Called once per accepted TCP connection, not per HTTP/2 stream
+                .doOnChannelInit((observer, channel, remoteAddress) -> acceptedConnections.incrementAndGet())
+                .route(routes -> routes.get("/objects/{id}", (request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendByteArray(Mono.just(productBytes))))
+                .bindNow();
+    }
+
+    @Setup(Level.Iteration)
+    public void createClient() {
+        ObjectMapper objectMapper = BenchmarkPayloads.objectMapper();
+        httpClient = new WebClientConfig().httpClient(new HttpProtocol[]{protocol}, 100, 4);
+        webClient = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.port())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper)))
+                .build();
+        acceptedConnections.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void disposeClient() {
+        httpClient.configuration().connectionProvider().disposeLater().block();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public long concurrentGets(Connections counters) {
+        Long received = Flux.range(0, concurrency)
+                .flatMap(i -> webClient.get()
+                        .uri("/objects/{id}", i)
+                        .retrieve()
+                        .bodyToMono(ProductDTO.class), concurrency)
+                .count()
+                .block();
+        counters.connections = acceptedConnections.get();
+        return received;
+    }
+}
@@ -0,0 +1,61 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.srv.sumit.webclient_demo.dto.ProductRequestDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of {@link ProductRequestDTO}: the buffered String and byte[] paths versus
+ * streaming straight into an output stream as HttpClientHelper does in streaming mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter streamingWriter;
+    private ProductRequestDTO request;
+    private OutputStream sink;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkPayloads.objectMapper();
+        streamingWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        request = BenchmarkPayloads.productRequest();
+        sink = OutputStream.nullOutputStream();
+    }
+
+    @Benchmark
+    public String writeValueAsString() throws IOException {
+        return objectMapper.writeValueAsString(request);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public void writeToStream() throws IOException {
+        streamingWriter.writeValue(sink, request);
+    }
+}
@@ -0,0 +1,105 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import com.srv.sumit.webclient_demo.dto.ProductResponseDTO;
+import com.srv.sumit.webclient_demo.util.ResponseHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding cost of {@link ResponseHandler} for single products and product lists of growing size,
+ * comparing the String path with the byte-level DataBuffer path. The {@code ...ViaString} methods decode the
+ * body bytes to a String first, as the helpers did before reading {@code DataBuffer}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseHandlerBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private String listJson;
+    private byte[] listBytes;
+    private String productJson;
+    private byte[] productBytes;
+    private String productResponseJson;
+    private byte[] productResponseBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = BenchmarkPayloads.objectMapper();
+        listJson = BenchmarkPayloads.productListJson(objectMapper, listSize);
+        listBytes = listJson.getBytes(StandardCharsets.UTF_8);
+        productJson = objectMapper.writeValueAsString(BenchmarkPayloads.product(listSize));
+        productBytes = productJson.getBytes(StandardCharsets.UTF_8);
+        productResponseJson = BenchmarkPayloads.productResponseJson();
+        productResponseBytes = productResponseJson.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static DataBuffer wrap(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    @Benchmark
+    public ProductDTO productFromString() {
+        return ResponseHandler.handleResponse(productJson, ProductDTO.class, objectMapper).block();
+    }
+
+    @Benchmark
+    public ProductDTO productViaString() {
+        return ResponseHandler.handleResponse(new String(productBytes, StandardCharsets.UTF_8), ProductDTO.class,
+                objectMapper).block();
+    }
+
+    @Benchmark
+    public ProductDTO productFromDataBuffer() {
+        return ResponseHandler.handleResponse(wrap(productBytes), ProductDTO.class, objectMapper).block();
+    }
+
+    @Benchmark
+    public ProductResponseDTO productResponseFromString() {
+        return ResponseHandler.handleResponse(productResponseJson, ProductResponseDTO.class, objectMapper).block();
+    }
+
+    @Benchmark
+    public ProductResponseDTO productResponseFromDataBuffer() {
+        return ResponseHandler.handleResponse(wrap(productResponseBytes), ProductResponseDTO.class, objectMapper).block();
+    }
+
+    @Benchmark
+    public List<ProductDTO> productListFromString() {
+        return ResponseHandler.handleListResponse(listJson, ProductDTO.class, objectMapper).block();
+    }
+
+    @Benchmark
+    public List<ProductDTO> productListViaString() {
+        return ResponseHandler.handleListResponse(new String(listBytes, StandardCharsets.UTF_8), ProductDTO.class,
+                objectMapper).block();
+    }
+
+    @Benchmark
+    public List<ProductDTO> productListFromDataBuffer() {
+        return ResponseHandler.handleListResponse(wrap(listBytes), ProductDTO.class, objectMapper).block();
+    }
+}
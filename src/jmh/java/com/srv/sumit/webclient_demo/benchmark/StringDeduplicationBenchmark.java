@@ -0,0 +1,72 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.srv.sumit.webclient_demo.configuration.HttpClientConfig;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained by a decoded 1M-item product list with and without string deduplication of the
+ * {@code @Deduplicated} properties. The {@code retainedBytes} counter is the used heap after a full GC with the
+ * list alive minus the used heap before decoding; run with {@code -prof gc} for the allocation side. It is an
+ * EVENTS counter, which JMH sums over the measurement iterations: read the retained heap of one decode from the
+ * iteration lines, or divide the score by the 5 iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class StringDeduplicationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean stringDedup;
+
+    @Param({"1000000"})
+    private int listSize;
+
+    private ObjectReader listReader;
+    private byte[] listBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedHeap {
+        public long retainedBytes;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new HttpClientConfig().objectMapper(false, stringDedup, 4096);
+        listReader = objectMapper.readerForListOf(ProductDTO.class);
+        listBytes = objectMapper.writeValueAsBytes(BenchmarkPayloads.products(listSize));
+    }
+
+    @Benchmark
+    public List<ProductDTO> decodeProductList(RetainedHeap heap) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        List<ProductDTO> products = listReader.readValue(listBytes);
+        memory.gc();
+        heap.retainedBytes = memory.getHeapMemoryUsage().getUsed() - before;
+        return products;
+    }
+}
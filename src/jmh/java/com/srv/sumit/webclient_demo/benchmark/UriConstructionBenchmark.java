@@ -0,0 +1,103 @@
+package com.srv.sumit.webclient_demo.benchmark;
+
+import com.srv.sumit.webclient_demo.util.UriTemplateEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * URI construction as done by each helper through the shared {@link UriTemplateEngine}, against the
+ * per-call string replacement and UriComponentsBuilder approaches the helpers used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriConstructionBenchmark {
+
+    private static final String BASE_URL = "https://api.restful-api.dev";
+    private static final String URI_PATH = "/objects/{id}/variants/{variant}";
+
+    private UriTemplateEngine engine;
+    private Map<String, String> pathVariables;
+    private MultiValueMap<String, String> queryParams;
+    private Map<String, String> singleQueryParams;
+
+    @Setup
+    public void setUp() {
+        engine = new UriTemplateEngine();
+        pathVariables = Map.of("id", "ff808181932badb6", "variant", "16 inch");
+        queryParams = new LinkedMultiValueMap<>();
+        queryParams.add("id", "1");
+        queryParams.add("id", "7");
+        queryParams.add("sort", "price desc");
+        singleQueryParams = Map.of("sort", "price desc");
+    }
+
+    /** WebClientHelper.constructUri: scheme check, template expansion and URI parsing. */
+    @Benchmark
+    public URI webClientHelper() throws URISyntaxException {
+        if (!BASE_URL.startsWith("http://") && !BASE_URL.startsWith("https://")) {
+            throw new IllegalArgumentException();
+        }
+        return new URI(engine.expand(BASE_URL, URI_PATH, pathVariables, queryParams));
+    }
+
+    /** HttpClientHelper/AsyncHttpClientHelper.constructUri: expansion to a String. */
+    @Benchmark
+    public String httpClientHelper() {
+        return engine.expand(BASE_URL, URI_PATH, pathVariables, null);
+    }
+
+    /** RestClientHelper.constructUri: expansion and URI.create. */
+    @Benchmark
+    public URI restClientHelper() {
+        return URI.create(engine.expand(BASE_URL, URI_PATH, pathVariables, null));
+    }
+
+    /** NonBlockingWebClientHelper.buildUri: single-valued query map conversion and expansion. */
+    @Benchmark
+    public URI nonBlockingWebClientHelper() {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>(singleQueryParams.size());
+        singleQueryParams.forEach(params::add);
+        return URI.create(engine.expand(BASE_URL, "/objects", null, params));
+    }
+
+    /** Baseline: the per-call String.replace loop the helpers used before (without encoding). */
+    @Benchmark
+    public String legacyStringReplace() {
+        String fullUri = BASE_URL + URI_PATH;
+        for (Map.Entry<String, String> entry : pathVariables.entrySet()) {
+            fullUri = fullUri.replace("{" + entry.getKey() + "}", entry.getValue());
+        }
+        StringBuilder uriBuilder = new StringBuilder(fullUri).append("?");
+        queryParams.forEach((key, values) -> values.forEach(value -> uriBuilder.append(key).append("=").append(value).append("&")));
+        uriBuilder.deleteCharAt(uriBuilder.length() - 1);
+        return uriBuilder.toString();
+    }
+
+    /** Baseline: the UriComponentsBuilder route NonBlockingWebClientHelper used before. */
+    @Benchmark
+    public URI legacyUriComponentsBuilder() {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(BASE_URL).path("/objects");
+        singleQueryParams.forEach(builder::queryParam);
+        return builder.build().encode().toUri();
+    }
+}
@@ -3,6 +3,7 @@ package com.srv.sumit.webclient_demo;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.srv.sumit.webclient_demo.dto.ProductDTO;
 import com.srv.sumit.webclient_demo.dto.ProductRequestDTO;
+import com.srv.sumit.webclient_demo.loadgen.LoadGenerator;
 import com.srv.sumit.webclient_demo.util.HttpClientHelper;
 import com.srv.sumit.webclient_demo.util.RestClientHelper;
 import com.srv.sumit.webclient_demo.util.WebClientHelper;
@@ -26,6 +27,8 @@ public class WebclientDemoApplication implements CommandLineRunner {
     private HttpClientHelper httpClientHelper;
     @Autowired
     private RestClientHelper restClientHelper;
+    @Autowired
+    private LoadGenerator loadGenerator;
 
     public static void main(String[] args) {
         SpringApplication.run(WebclientDemoApplication.class, args);
@@ -33,6 +36,10 @@ public class WebclientDemoApplication implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
+        if (loadGenerator.isEnabled()) {
+            loadGenerator.run(); // Replay the recorded traffic instead of making the demo calls
+            return;
+        }
         MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
         queryParams.add("id", "1");
         queryParams.add("id", "7");
@@ -0,0 +1,110 @@
+package com.srv.sumit.webclient_demo.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Derives cache freshness from {@code Cache-Control}, {@code Age}, {@code Expires} and {@code Date} response headers,
+ * and whether a response may be stored at all given its {@code Cache-Control} and {@code Vary} headers.
+ */
+public final class CacheControlPolicy {
+
+    private CacheControlPolicy() {
+    }
+
+    /**
+     * Freshness lifetime of a response.
+     *
+     * @param storable       Whether the response may be stored at all ({@code no-store} forbids it).
+     * @param expiresAt      Epoch millis until which the response is fresh.
+     * @param mustRevalidate Whether every use requires revalidation ({@code no-cache}).
+     * @param privateOnly    Whether the response is meant for a single user ({@code private}).
+     * @param noStale        Whether the response may never be used once stale, not even while it is being
+     *                       revalidated ({@code must-revalidate}, {@code proxy-revalidate}).
+     */
+    public record Freshness(boolean storable, long expiresAt, boolean mustRevalidate, boolean privateOnly,
+                            boolean noStale) {
+    }
+
+    /**
+     * Computes the freshness of a response received at {@code now}.
+     * Without explicit freshness information the response is stale immediately and only useful for revalidation.
+     *
+     * @param headers The response headers.
+     * @param now     The receive time in epoch millis.
+     * @return The freshness of the response.
+     */
+    public static Freshness freshness(HttpHeaders headers, long now) {
+        boolean mustRevalidate = false;
+        boolean privateOnly = false;
+        boolean noStale = false;
+        long maxAgeSeconds = -1;
+
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                String token = directive.trim().toLowerCase(Locale.ROOT);
+                if (token.equals("no-store")) {
+                    return new Freshness(false, now, true, false, true);
+                } else if (token.equals("no-cache")) {
+                    mustRevalidate = true;
+                } else if (token.equals("must-revalidate") || token.equals("proxy-revalidate")) {
+                    noStale = true;
+                } else if (token.equals("private") || token.startsWith("private=")) {
+                    privateOnly = true;
+                } else if (token.startsWith("max-age=")) {
+                    maxAgeSeconds = parseSeconds(token.substring("max-age=".length()));
+                }
+            }
+        }
+
+        if (maxAgeSeconds >= 0) {
+            long ageSeconds = Math.max(0, parseSeconds(headers.getFirst("Age")));
+            return new Freshness(true, now + Math.max(0, maxAgeSeconds - ageSeconds) * 1000, mustRevalidate,
+                    privateOnly, noStale);
+        }
+
+        long expires = headers.getExpires();
+        if (expires > 0) {
+            // Expires is relative to the server's clock, so apply it as a lifetime from the Date header
+            long date = headers.getDate();
+            long lifetime = expires - (date > 0 ? date : now);
+            return new Freshness(true, now + Math.max(0, lifetime), mustRevalidate, privateOnly, noStale);
+        }
+        return new Freshness(true, now, mustRevalidate, privateOnly, noStale);
+    }
+
+    /**
+     * Whether the variants named by a response's {@code Vary} header are all told apart by the cache key.
+     * {@code Vary: *} never is; {@code Accept-Encoding} always is, as entries hold decoded bodies.
+     *
+     * @param headers    The response headers.
+     * @param keyHeaders The lower-case names of the request headers that take part in the cache key.
+     * @return Whether the response can be stored under its cache key.
+     */
+    public static boolean varyCovered(HttpHeaders headers, Set<String> keyHeaders) {
+        for (String vary : headers.getVary()) {
+            String name = vary.trim().toLowerCase(Locale.ROOT);
+            if (name.equals("*")) {
+                return false;
+            }
+            if (!name.isEmpty() && !name.equals("accept-encoding") && !keyHeaders.contains(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim().replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.srv.sumit.webclient_demo.cache;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Identifies a cached response by its expanded request URI, the values of the key request headers it was
+ * fetched with, and the type it was decoded to. Requests differing in a key header (e.g. {@code Authorization}
+ * or {@code Accept}) never share an entry.
+ *
+ * @param uri     The fully expanded request URI.
+ * @param headers The key headers sent with the request, by lower-case name; empty if none were sent.
+ * @param type    The decoded response type.
+ */
+public record CacheKey(URI uri, Map<String, String> headers, Class<?> type) {
+
+    /**
+     * @param uri        The fully expanded request URI.
+     * @param headers    The request headers, or {@code null}.
+     * @param keyHeaders The lower-case names of the headers that take part in the key.
+     * @param type       The decoded response type.
+     * @return The key of the request.
+     */
+    public static CacheKey of(URI uri, Map<String, String> headers, Set<String> keyHeaders, Class<?> type) {
+        if (headers == null || headers.isEmpty()) {
+            return new CacheKey(uri, Collections.emptyMap(), type);
+        }
+        Map<String, String> values = new TreeMap<>();
+        headers.forEach((name, value) -> {
+            String normalized = name.toLowerCase(Locale.ROOT);
+            if (keyHeaders.contains(normalized)) {
+                values.put(normalized, value);
+            }
+        });
+        return new CacheKey(uri, values.isEmpty() ? Collections.emptyMap() : values, type);
+    }
+
+    /**
+     * Key of the raw response in the {@link PersistentResponseStore}: the URI, followed by a SHA-256 digest of the
+     * key headers when there are any, so credentials are never written to disk.
+     */
+    public String storeKey() {
+        if (headers.isEmpty()) {
+            return uri.toString();
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(headers.toString().getBytes(StandardCharsets.UTF_8));
+            return uri + "#" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
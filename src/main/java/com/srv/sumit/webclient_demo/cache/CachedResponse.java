@@ -0,0 +1,37 @@
+package com.srv.sumit.webclient_demo.cache;
+
+/**
+ * A decoded response together with the HTTP metadata needed to judge and revalidate it.
+ *
+ * @param value          The decoded body, or {@code null} for a negative (404) entry.
+ * @param statusCode     The HTTP status the entry was stored for.
+ * @param eTag           The entity tag, if any.
+ * @param lastModified   The raw Last-Modified header value, if any.
+ * @param expiresAt      Epoch millis until which the entry is fresh.
+ * @param mustRevalidate Whether the entry must be revalidated before every use ({@code no-cache}).
+ * @param noStale        Whether the entry may never be served stale ({@code must-revalidate}).
+ * @param weight         The approximate size in bytes used for eviction.
+ */
+public record CachedResponse(Object value, int statusCode, String eTag, String lastModified,
+                             long expiresAt, boolean mustRevalidate, boolean noStale, int weight) {
+
+    public boolean isFresh(long now) {
+        return !mustRevalidate && now < expiresAt;
+    }
+
+    public boolean isNegative() {
+        return statusCode == 404;
+    }
+
+    public boolean hasValidators() {
+        return eTag != null || lastModified != null;
+    }
+
+    /**
+     * @return A copy carrying the freshness from a 304 revalidation, keeping the stored body.
+     */
+    public CachedResponse revalidated(CacheControlPolicy.Freshness freshness, String newETag) {
+        return new CachedResponse(value, statusCode, newETag != null ? newETag : eTag, lastModified,
+                freshness.expiresAt(), freshness.mustRevalidate(), freshness.noStale(), weight);
+    }
+}
@@ -0,0 +1,321 @@
+package com.srv.sumit.webclient_demo.cache;
+
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.ContentNegotiation;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.util.ResponseHandler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Executes GET requests through the {@link HttpResponseCache}, applying HTTP caching semantics.
+ * <ul>
+ *     <li>Fresh entries are served without touching the network or the parser.</li>
+ *     <li>Stale entries with an ETag or Last-Modified are revalidated with a conditional request;
+ *     a {@code 304} refreshes the entry and returns the stored object.</li>
+ *     <li>{@code 404} responses are cached negatively for a configurable time unless the server forbids storing.</li>
+ *     <li>Entries are keyed by the {@code webclient.coalescing.key-headers} sent with the request as well as the
+ *     URI, so callers with different credentials or {@code Accept} never share one. Responses that vary on other
+ *     request headers ({@code Vary}), and {@code private} responses to a request carrying {@code Authorization},
+ *     are not stored.</li>
+ *     <li>With the {@link PersistentResponseStore} enabled, stored responses are also written to disk as raw bytes
+ *     and decoded from there on a memory miss, so a restart does not empty the cache. When {@code serve-stale}
+ *     is on, a stale entry coming from disk is served at once while its conditional request runs in the
+ *     background (as are further requests for it until that completes), unless it is {@code no-cache},
+ *     {@code must-revalidate} or {@code proxy-revalidate}, or stale for longer than {@code max-stale}.</li>
+ * </ul>
+ * Hits hand out the instance held by the cache rather than a copy, so every caller of the same entry gets the
+ * same object: results must be treated as immutable.
+ */
+@Component
+public class CachingGetExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingGetExecutor.class);
+    private static final int NEGATIVE_ENTRY_WEIGHT = 64;
+
+    private final HttpResponseCache cache;
+    private final ContentNegotiation contentNegotiation;
+    private final CodecRegistry codecRegistry;
+    private final PersistentResponseStore persistentStore;
+    private final boolean enabled;
+    private final Set<String> keyHeaders;
+    private final Duration negativeTtl;
+    private final boolean serveStale;
+    private final long maxStaleMillis;
+    private final Clock clock = Clock.systemUTC();
+    private final Set<CacheKey> backgroundRevalidations = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder persistentLoads = new LongAdder();
+
+    public CachingGetExecutor(MeterRegistry meterRegistry, HttpResponseCache cache,
+                              ContentNegotiation contentNegotiation, CodecRegistry codecRegistry,
+                              PersistentResponseStore persistentStore,
+                              @Value("${webclient.cache.enabled:false}") boolean enabled,
+                              @Value("${webclient.coalescing.key-headers:Authorization,Accept}") Set<String> keyHeaders,
+                              @Value("${webclient.cache.negative-ttl:30s}") Duration negativeTtl,
+                              @Value("${webclient.cache.persistent.serve-stale:true}") boolean serveStale,
+                              @Value("${webclient.cache.persistent.max-stale:1d}") Duration maxStale) {
+        this.cache = cache;
+        this.contentNegotiation = contentNegotiation;
+        this.codecRegistry = codecRegistry;
+        this.persistentStore = persistentStore;
+        this.enabled = enabled;
+        this.keyHeaders = keyHeaders.stream()
+                .map(header -> header.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.negativeTtl = negativeTtl;
+        this.serveStale = serveStale;
+        this.maxStaleMillis = maxStale.toMillis();
+
+        registerCounter(meterRegistry, hits, "hit", "Fresh entries served from memory or disk");
+        registerCounter(meterRegistry, misses, "miss", "Responses fetched from the network");
+        registerCounter(meterRegistry, revalidations, "revalidated", "Stale entries revalidated by a 304");
+        registerCounter(meterRegistry, staleHits, "stale", "Stale entries served while revalidating in the background");
+        registerCounter(meterRegistry, persistentLoads, "persistent_load", "Entries loaded from the disk tier");
+    }
+
+    private static void registerCounter(MeterRegistry meterRegistry, LongAdder counter, String result,
+                                        String description) {
+        FunctionCounter.builder("http.client.cache.requests", counter, LongAdder::sum)
+                .description("Cached GET outcomes: " + description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Performs a cached GET.
+     *
+     * @param webClient The client to use on a miss or revalidation.
+     * @param uri       The fully expanded request URI.
+     * @param headers   Any headers to send with the request.
+     * @param clazz     The class type to map the response to.
+     * @param upstream  Decorates the network exchange only (e.g. retries), so cache hits never pay for it.
+     * @param <T>       The response type.
+     * @return The cached or freshly decoded response, shared with other callers and not to be modified;
+     * HTTP errors surface as {@link WebClientResponseException}.
+     */
+    public <T> Mono<T> get(WebClient webClient, URI uri, Map<String, String> headers, Class<T> clazz,
+                           UnaryOperator<Mono<T>> upstream) {
+        CacheKey key = CacheKey.of(uri, headers, keyHeaders, clazz);
+        boolean authorized = headers != null && headers.keySet().stream()
+                .anyMatch(name -> name.equalsIgnoreCase(HttpHeaders.AUTHORIZATION));
+        return Mono.defer(() -> {
+            long now = clock.millis();
+            CachedResponse cached = cache.get(key);
+            boolean persisted = false;
+            if (cached == null && persistentStore.isEnabled()) {
+                cached = loadPersisted(key, clazz);
+                persisted = cached != null;
+            }
+            if (cached != null && cached.isFresh(now)) {
+                hits.increment();
+                return fromCache(cached, clazz);
+            }
+            if (cached != null && !cached.hasValidators()) {
+                cache.invalidate(key);
+                persistentStore.invalidate(key.storeKey());
+                cached = null;
+            }
+
+            CachedResponse stale = cached;
+            Mono<T> exchange = webClient.get()
+                    .uri(uri)
+                    .headers(httpHeaders -> {
+                        if (headers != null) {
+                            httpHeaders.setAll(headers);
+                        }
+                        contentNegotiation.negotiate(uri, httpHeaders);
+                        if (stale != null && stale.eTag() != null) {
+                            httpHeaders.setIfNoneMatch(stale.eTag());
+                        } else if (stale != null && stale.lastModified() != null) {
+                            httpHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, stale.lastModified());
+                        }
+                    })
+                    .exchangeToMono(response -> handleResponse(key, stale, response, clazz, authorized));
+            if (stale != null && servesStale(key, stale, persisted, now)) {
+                staleHits.increment();
+                revalidateInBackground(key, upstream.apply(exchange));
+                return fromCache(stale, clazz);
+            }
+            return upstream.apply(exchange);
+        });
+    }
+
+    private boolean servesStale(CacheKey key, CachedResponse stale, boolean persisted, long now) {
+        return serveStale && !stale.mustRevalidate() && !stale.noStale() && !stale.isNegative()
+                && now - stale.expiresAt() <= maxStaleMillis
+                && (persisted || backgroundRevalidations.contains(key));
+    }
+
+    private <T> void revalidateInBackground(CacheKey key, Mono<T> exchange) {
+        if (!backgroundRevalidations.add(key)) {
+            return;
+        }
+        exchange.doFinally(signal -> backgroundRevalidations.remove(key))
+                .subscribe(value -> {
+                }, error -> LOGGER.debug("Background revalidation of {} failed: {}", key.uri(), error.getMessage()));
+    }
+
+    /**
+     * Decodes the disk entry for the key, if any, and promotes it to the in-memory cache.
+     */
+    private CachedResponse loadPersisted(CacheKey key, Class<?> clazz) {
+        StoredResponse stored = persistentStore.get(key.storeKey());
+        if (stored == null) {
+            return null;
+        }
+        try {
+            PayloadFormat format = PayloadFormat.fromContentType(stored.contentType());
+            Object value = ResponseHandler.readValue(stored.body(), codecRegistry.reader(format, clazz));
+            CachedResponse cached = new CachedResponse(value, stored.statusCode(), stored.eTag(),
+                    stored.lastModified(), stored.expiresAt(), stored.mustRevalidate(), stored.noStale(),
+                    stored.body().length);
+            cache.put(key, cached);
+            persistentLoads.increment();
+            return cached;
+        } catch (IOException ex) {
+            LOGGER.warn("Dropping undecodable persisted response for {}: {}", key.uri(), ex.getMessage());
+            persistentStore.invalidate(key.storeKey());
+            return null;
+        }
+    }
+
+    private <T> Mono<T> handleResponse(CacheKey key, CachedResponse stale, ClientResponse response, Class<T> clazz,
+                                       boolean authorized) {
+        HttpStatusCode status = response.statusCode();
+        HttpHeaders responseHeaders = response.headers().asHttpHeaders();
+        long now = clock.millis();
+        CacheControlPolicy.Freshness freshness = CacheControlPolicy.freshness(responseHeaders, now);
+
+        if (status.value() == HttpStatus.NOT_MODIFIED.value() && stale != null) {
+            revalidations.increment();
+            CachedResponse refreshed = stale.revalidated(freshness, responseHeaders.getETag());
+            cache.put(key, refreshed);
+            persistentStore.updateFreshness(key.storeKey(), refreshed.expiresAt(), refreshed.mustRevalidate(),
+                    refreshed.noStale(), responseHeaders.getETag());
+            return response.releaseBody().then(fromCache(refreshed, clazz));
+        }
+
+        misses.increment();
+        boolean storable = storable(freshness, responseHeaders, authorized);
+        if (status.is2xxSuccessful()) {
+            return response.bodyToMono(DataBuffer.class).flatMap(buffer -> {
+                int size = buffer.readableByteCount();
+                // Decoded by the response's format, so the entry holds the same object whatever the wire format
+                PayloadFormat format = PayloadFormat.fromContentType(responseHeaders.getContentType());
+                // The disk tier keeps the raw bytes, so copy them out before the parser consumes the buffer
+                byte[] raw = persistentStore.isEnabled() ? copy(buffer) : null;
+                DataBuffer body = raw != null ? DefaultDataBufferFactory.sharedInstance.wrap(raw) : buffer;
+                return ResponseHandler.<T>handleResponse(body, codecRegistry.reader(format, clazz))
+                        .doOnNext(value -> {
+                            if (storable) {
+                                store(key, value, status.value(), responseHeaders, freshness, size, raw);
+                            }
+                        });
+            });
+        }
+        if (status.value() == HttpStatus.NOT_FOUND.value() && !negativeTtl.isZero() && storable) {
+            long expiresAt = Math.max(freshness.expiresAt(), now + negativeTtl.toMillis());
+            cache.put(key, new CachedResponse(null, status.value(), null, null, expiresAt, false, false,
+                    NEGATIVE_ENTRY_WEIGHT));
+        }
+        return response.createError();
+    }
+
+    /**
+     * A response is not stored when the server forbids it ({@code no-store}), when it varies on request headers the
+     * cache key does not hold, or when it is {@code private} to the user whose credentials were sent.
+     */
+    private boolean storable(CacheControlPolicy.Freshness freshness, HttpHeaders headers, boolean authorized) {
+        return freshness.storable()
+                && CacheControlPolicy.varyCovered(headers, keyHeaders)
+                && !(freshness.privateOnly() && authorized);
+    }
+
+    private static byte[] copy(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    private void store(CacheKey key, Object value, int statusCode, HttpHeaders headers,
+                       CacheControlPolicy.Freshness freshness, int size, byte[] raw) {
+        String eTag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        if (freshness.expiresAt() <= clock.millis() && eTag == null && lastModified == null) {
+            // Nothing to gain from an entry that is neither fresh nor revalidatable
+            return;
+        }
+        cache.put(key, new CachedResponse(value, statusCode, eTag, lastModified,
+                freshness.expiresAt(), freshness.mustRevalidate(), freshness.noStale(), size));
+        if (raw != null) {
+            String contentType = headers.getContentType() != null ? headers.getContentType().toString() : null;
+            persistentStore.put(key.storeKey(), new StoredResponse(raw, contentType, statusCode, eTag, lastModified,
+                    freshness.expiresAt(), freshness.mustRevalidate(), freshness.noStale()));
+        }
+        LOGGER.debug("Cached response for {} ({} bytes)", key.uri(), size);
+    }
+
+    private static <T> Mono<T> fromCache(CachedResponse cached, Class<T> clazz) {
+        if (cached.isNegative()) {
+            return Mono.error(WebClientResponseException.create(HttpStatus.NOT_FOUND, "Not Found",
+                    HttpHeaders.EMPTY, new byte[0], null, null));
+        }
+        return Mono.justOrEmpty(clazz.cast(cached.value()));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    public long getPersistentLoadCount() {
+        return persistentLoads.sum();
+    }
+}
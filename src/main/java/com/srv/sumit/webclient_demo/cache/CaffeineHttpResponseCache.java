@@ -0,0 +1,39 @@
+package com.srv.sumit.webclient_demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Default {@link HttpResponseCache} bounded by the total size in bytes of the cached responses.
+ * Caffeine's W-TinyLFU policy evicts by a combination of access frequency and recency.
+ */
+public class CaffeineHttpResponseCache implements HttpResponseCache {
+
+    private final Cache<CacheKey, CachedResponse> cache;
+
+    public CaffeineHttpResponseCache(long maxSizeBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSizeBytes)
+                .weigher((CacheKey key, CachedResponse response) -> response.weight())
+                .build();
+    }
+
+    @Override
+    public CachedResponse get(CacheKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(CacheKey key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    @Override
+    public void invalidate(CacheKey key) {
+        cache.invalidate(key);
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
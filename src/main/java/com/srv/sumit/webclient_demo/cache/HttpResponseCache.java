@@ -0,0 +1,20 @@
+package com.srv.sumit.webclient_demo.cache;
+
+/**
+ * Pluggable client-side store for decoded GET responses.
+ * <p>
+ * Implementations only store and evict; HTTP freshness and revalidation rules are applied by
+ * {@link CachingGetExecutor}. Replace the default implementation by declaring a {@code @Primary} bean.
+ */
+public interface HttpResponseCache {
+
+    /**
+     * @param key The cache key.
+     * @return The stored entry, fresh or stale, or {@code null} if absent.
+     */
+    CachedResponse get(CacheKey key);
+
+    void put(CacheKey key, CachedResponse response);
+
+    void invalidate(CacheKey key);
+}
@@ -0,0 +1,724 @@
+package com.srv.sumit.webclient_demo.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Disk tier of the response cache: raw response bodies with their validators and expiry, kept across restarts.
+ * <p>
+ * Records are appended to memory-mapped segment files of {@code segment-size} bytes; a segment header holds the
+ * committed write position and every record carries a CRC32, so a torn tail after a crash is detected and cut
+ * off. The in-memory index maps each {@link CacheKey#storeKey() store key} to its latest record and is
+ * checkpointed to {@code index.dat} after every compaction and on shutdown. Reopening maps the segments, loads
+ * that index and scans only the records appended after the checkpoint, reading their headers but no bodies;
+ * bodies are read (and decoded by the caller) on first use.
+ * <p>
+ * All writes, compaction and checkpoints run on one writer thread, so callers on event loops never wait for the
+ * disk and the segments need no locking; reads copy the record out of the mapping without locking. Compaction
+ * drops entries that are expired and either carry no validators or have been stale for longer than
+ * {@code stale-retention}, copies the live records out of segments that have fallen below
+ * {@code compaction-threshold} live bytes and deletes those files. Their tombstones are copied too while an
+ * older segment still holds a record for the key, which a rebuild of the index would otherwise bring back. When
+ * the segments outgrow {@code max-size} the oldest segment is dropped as a whole. Data reaches the page cache
+ * immediately and the disk at checkpoints, so a process crash loses nothing and an OS crash at most the writes
+ * since the last checkpoint.
+ */
+@Component
+public class PersistentResponseStore implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentResponseStore.class);
+
+    private static final int SEGMENT_MAGIC = 0x57435347;
+    private static final int INDEX_MAGIC = 0x57434958;
+    private static final int FORMAT_VERSION = 1;
+    // Segment header: magic, format version, committed write position
+    private static final int SEGMENT_HEADER_SIZE = 12;
+    private static final int COMMITTED_POSITION_OFFSET = 8;
+    // Record header: length, CRC32 of everything after it, expiresAt, status, flags
+    private static final int RECORD_HEADER_SIZE = 21;
+    private static final int CRC_START = 8;
+    private static final byte FLAG_MUST_REVALIDATE = 1;
+    private static final byte FLAG_TOMBSTONE = 2;
+    private static final byte FLAG_NO_STALE = 4;
+    private static final String INDEX_FILE = "index.dat";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d{8})\\.dat");
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSize;
+    private final long staleRetentionMillis;
+    private final double compactionThreshold;
+    private final Clock clock = Clock.systemUTC();
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+
+    // Owned by the writer thread once the store is open
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private Segment active;
+    private boolean compacting;
+
+    public PersistentResponseStore(
+            @Value("${webclient.cache.persistent.enabled:false}") boolean enabled,
+            @Value("${webclient.cache.persistent.directory:${java.io.tmpdir}/webclient-cache}") Path directory,
+            @Value("${webclient.cache.persistent.segment-size:16MB}") DataSize segmentSize,
+            @Value("${webclient.cache.persistent.max-size:512MB}") DataSize maxSize,
+            @Value("${webclient.cache.persistent.stale-retention:7d}") Duration staleRetention,
+            @Value("${webclient.cache.persistent.compaction-interval:10m}") Duration compactionInterval,
+            @Value("${webclient.cache.persistent.compaction-threshold:0.5}") double compactionThreshold) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, segmentSize.toBytes());
+        this.maxSize = maxSize.toBytes();
+        this.staleRetentionMillis = staleRetention.toMillis();
+        this.compactionThreshold = compactionThreshold;
+        if (!enabled) {
+            this.writer = null;
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("response-store-");
+        threadFactory.setDaemon(true);
+        this.writer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+        long start = System.nanoTime();
+        try {
+            open();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open the persistent response cache in " + directory, ex);
+        }
+        LOGGER.info("Opened persistent response cache in {} with {} entries in {} segments in {} ms", directory,
+                index.size(), segments.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        // The first run reclaims what expired while the application was down, without delaying startup
+        long intervalMillis = compactionInterval.toMillis();
+        writer.scheduleWithFixedDelay(this::compactQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @param key The {@link CacheKey#storeKey() store key} of the request.
+     * @return The stored response for the key, fresh or stale, or {@code null} if absent or disabled.
+     */
+    public StoredResponse get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        try {
+            // A segment compacted away meanwhile stays mapped, and readable, while its Segment is referenced
+            Record record = decode(location.segment().read(location.offset(), location.length()));
+            return key.equals(record.key()) ? record.response() : null;
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Unreadable persistent cache entry for {}: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the response for the key in the background, replacing any previous entry.
+     */
+    public void put(String key, StoredResponse response) {
+        if (!enabled) {
+            return;
+        }
+        submit(() -> append(key, encode(key, response, flags(response.mustRevalidate(), response.noStale())),
+                response.expiresAt(), response.hasValidators()));
+    }
+
+    /**
+     * Records the freshness from a {@code 304} revalidation in the background, keeping the stored body.
+     */
+    public void updateFreshness(String key, long expiresAt, boolean mustRevalidate, boolean noStale,
+                                String newETag) {
+        if (!enabled) {
+            return;
+        }
+        submit(() -> {
+            Location location = index.get(key);
+            if (location == null) {
+                return;
+            }
+            StoredResponse stored = decode(location.segment().read(location.offset(), location.length())).response();
+            StoredResponse refreshed = new StoredResponse(stored.body(), stored.contentType(), stored.statusCode(),
+                    newETag != null ? newETag : stored.eTag(), stored.lastModified(), expiresAt, mustRevalidate,
+                    noStale);
+            append(key, encode(key, refreshed, flags(mustRevalidate, noStale)), expiresAt,
+                    refreshed.hasValidators());
+        });
+    }
+
+    /**
+     * Removes the entry for the key in the background; a tombstone keeps it removed across restarts.
+     */
+    public void invalidate(String key) {
+        if (!enabled) {
+            return;
+        }
+        submit(() -> {
+            if (index.containsKey(key)) {
+                StoredResponse empty = new StoredResponse(new byte[0], null, 0, null, null, 0, false, false);
+                append(key, encode(key, empty, FLAG_TOMBSTONE), 0, false);
+            }
+        });
+    }
+
+    /**
+     * Waits until the writes submitted so far, and a compaction already due, have run.
+     */
+    void flush() throws InterruptedException, ExecutionException {
+        writer.submit(() -> { }).get();
+    }
+
+    private void submit(Runnable task) {
+        writer.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Persistent response cache write failed: {}", ex.getMessage());
+            }
+        });
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    Segment segment = Segment.open(file, Integer.parseInt(matcher.group(1)));
+                    if (segment != null) {
+                        segments.put(segment.id, segment);
+                    } else {
+                        LOGGER.warn("Ignoring persistent cache segment {} with an unknown format", file);
+                    }
+                }
+            }
+        }
+        Map<Integer, Integer> checkpointed = loadIndex();
+        for (Segment segment : segments.values()) {
+            scan(segment, checkpointed.getOrDefault(segment.id, SEGMENT_HEADER_SIZE));
+        }
+        index.values().forEach(location -> location.segment().liveBytes += location.length());
+        active = segments.isEmpty() ? newSegment() : segments.lastEntry().getValue();
+    }
+
+    /**
+     * Loads the checkpointed index, keeping entries whose segment still exists.
+     *
+     * @return The checkpointed write position per segment, from where the segments are scanned.
+     */
+    private Map<Integer, Integer> loadIndex() {
+        Map<Integer, Integer> positions = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(directory.resolve(INDEX_FILE)), 1 << 16))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != FORMAT_VERSION) {
+                LOGGER.warn("Ignoring persistent cache index with an unknown format; rebuilding it from the segments");
+                return Map.of();
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                int id = in.readInt();
+                int position = in.readInt();
+                Segment segment = segments.get(id);
+                if (segment != null) {
+                    positions.put(id, Math.min(position, segment.writePosition));
+                }
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                String key = in.readUTF();
+                Segment segment = segments.get(in.readInt());
+                int offset = in.readInt();
+                int length = in.readInt();
+                long expiresAt = in.readLong();
+                boolean revalidatable = in.readBoolean();
+                if (segment != null && offset + length <= positions.getOrDefault(segment.id, SEGMENT_HEADER_SIZE)) {
+                    index.put(key, new Location(segment, offset, length, expiresAt, revalidatable));
+                }
+            }
+            return positions;
+        } catch (NoSuchFileException ex) {
+            return Map.of();
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Unreadable persistent cache index, rebuilding it from the segments: {}", ex.getMessage());
+            index.clear();
+            return Map.of();
+        }
+    }
+
+    /**
+     * Replays the records of a segment from the position, stopping at (and cutting off) a torn or corrupt record.
+     */
+    private void scan(Segment segment, int from) {
+        int offset = from;
+        while (offset < segment.writePosition) {
+            int length = segment.remainingAt(offset) >= RECORD_HEADER_SIZE ? segment.buffer.getInt(offset) : -1;
+            if (length < RECORD_HEADER_SIZE || length > segment.remainingAt(offset)
+                    || !segment.crcMatches(offset, length)) {
+                LOGGER.warn("Truncating persistent cache segment {} at {} of {} bytes: corrupt record",
+                        segment.id, offset, segment.writePosition);
+                segment.truncate(offset);
+                break;
+            }
+            Record record = decodeHeader(segment, offset);
+            if (record.tombstone()) {
+                index.remove(record.key());
+            } else {
+                index.put(record.key(), new Location(segment, offset, length, record.response().expiresAt(),
+                        record.response().hasValidators()));
+            }
+            offset += length;
+        }
+    }
+
+    private void append(String key, byte[] record, long expiresAt, boolean revalidatable) {
+        if (record.length > segmentSize - SEGMENT_HEADER_SIZE) {
+            LOGGER.debug("Not persisting {}: {} bytes exceed the segment size", key, record.length);
+            return;
+        }
+        if (active.remaining() < record.length) {
+            roll();
+        }
+        boolean tombstone = (record[RECORD_HEADER_SIZE - 1] & FLAG_TOMBSTONE) != 0;
+        int offset = active.append(record);
+        Location previous;
+        if (tombstone) {
+            previous = index.remove(key);
+        } else {
+            previous = index.put(key, new Location(active, offset, record.length, expiresAt, revalidatable));
+            active.liveBytes += record.length;
+        }
+        if (previous != null) {
+            previous.segment().liveBytes -= previous.length();
+        }
+    }
+
+    private void roll() {
+        active = newSegment();
+        if (!compacting) {
+            trimToMaxSize();
+        }
+    }
+
+    private void trimToMaxSize() {
+        while ((long) segments.size() * segmentSize > maxSize && segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            int dropped = dropEntries(oldest);
+            segments.remove(oldest.id);
+            checkpoint();
+            delete(oldest);
+            LOGGER.info("Persistent response cache over {} bytes: dropped segment {} with {} entries",
+                    maxSize, oldest.id, dropped);
+        }
+    }
+
+    private Segment newSegment() {
+        int id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        try {
+            Segment segment = Segment.create(directory.resolve(String.format("segment-%08d.dat", id)), id, segmentSize);
+            segments.put(id, segment);
+            return segment;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private int dropEntries(Segment segment) {
+        int dropped = 0;
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segment() == segment && index.remove(entry.getKey(), entry.getValue())) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Persistent response cache compaction failed: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private void compact() {
+        long now = clock.millis();
+        int expired = 0;
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            Location location = entry.getValue();
+            if (isDead(location, now) && index.remove(entry.getKey(), location)) {
+                location.segment().liveBytes -= location.length();
+                expired++;
+            }
+        }
+
+        Map<Segment, List<Map.Entry<String, Location>>> survivors = new IdentityHashMap<>();
+        for (Segment segment : segments.values()) {
+            long used = segment.writePosition - SEGMENT_HEADER_SIZE;
+            if (segment != active && segment.liveBytes <= used * compactionThreshold) {
+                survivors.put(segment, new ArrayList<>());
+            }
+        }
+        if (!survivors.isEmpty()) {
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                List<Map.Entry<String, Location>> moved = survivors.get(entry.getValue().segment());
+                if (moved != null) {
+                    moved.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+            List<Tombstone> tombstones = liveTombstones(survivors.keySet());
+            // Rolling must not drop a segment, compacted or not, before the compacted ones are out of the count
+            compacting = true;
+            try {
+                for (Map.Entry<Segment, List<Map.Entry<String, Location>>> compacted : survivors.entrySet()) {
+                    Segment segment = compacted.getKey();
+                    for (Map.Entry<String, Location> entry : compacted.getValue()) {
+                        Location location = entry.getValue();
+                        // Records do not depend on their position, so they are copied verbatim, CRC included
+                        append(entry.getKey(), segment.read(location.offset(), location.length()),
+                                location.expiresAt(), location.revalidatable());
+                    }
+                    segments.remove(segment.id);
+                }
+                for (Tombstone tombstone : tombstones) {
+                    append(tombstone.key(), tombstone.record(), 0, false);
+                }
+            } finally {
+                compacting = false;
+            }
+            trimToMaxSize();
+        }
+        // The checkpoint must no longer reference the compacted segments before their files go
+        checkpoint();
+        survivors.keySet().forEach(this::delete);
+        if (expired > 0 || !survivors.isEmpty()) {
+            LOGGER.info("Compacted persistent response cache: {} expired entries dropped, {} segments reclaimed, "
+                    + "{} entries in {} segments", expired, survivors.size(), index.size(), segments.size());
+        }
+    }
+
+    /**
+     * Finds the tombstones in the segments about to be compacted that still hide a record in an older segment
+     * that stays. Keys back in the index were put again after their tombstone, which is then no longer needed.
+     */
+    private List<Tombstone> liveTombstones(Set<Segment> compacted) {
+        Map<String, Tombstone> tombstones = new HashMap<>();
+        for (Segment segment : compacted) {
+            for (int offset = SEGMENT_HEADER_SIZE; offset < segment.writePosition; ) {
+                int length = segment.buffer.getInt(offset);
+                Record record = decodeHeader(segment, offset);
+                if (record.tombstone() && !index.containsKey(record.key())) {
+                    Tombstone tombstone = new Tombstone(record.key(), segment.id, segment.read(offset, length));
+                    tombstones.merge(record.key(), tombstone,
+                            (first, second) -> first.segmentId() >= second.segmentId() ? first : second);
+                }
+                offset += length;
+            }
+        }
+        List<Tombstone> live = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (tombstones.isEmpty()) {
+                break;
+            }
+            if (compacted.contains(segment)) {
+                continue;
+            }
+            for (int offset = SEGMENT_HEADER_SIZE; offset < segment.writePosition; ) {
+                int length = segment.buffer.getInt(offset);
+                Record record = decodeHeader(segment, offset);
+                Tombstone tombstone = tombstones.get(record.key());
+                if (!record.tombstone() && tombstone != null && tombstone.segmentId() > segment.id) {
+                    live.add(tombstones.remove(record.key()));
+                }
+                offset += length;
+            }
+        }
+        return live;
+    }
+
+    private boolean isDead(Location location, long now) {
+        return location.expiresAt() <= now
+                && (!location.revalidatable() || now - location.expiresAt() > staleRetentionMillis);
+    }
+
+    private void checkpoint() {
+        Path temporary = directory.resolve(INDEX_FILE + ".tmp");
+        try {
+            segments.values().forEach(segment -> segment.buffer.force());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporary), 1 << 16))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(segments.size());
+                for (Segment segment : segments.values()) {
+                    out.writeInt(segment.id);
+                    out.writeInt(segment.writePosition);
+                }
+                List<Map.Entry<String, Location>> entries = new ArrayList<>(index.entrySet());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Location> entry : entries) {
+                    Location location = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(location.segment().id);
+                    out.writeInt(location.offset());
+                    out.writeInt(location.length());
+                    out.writeLong(location.expiresAt());
+                    out.writeBoolean(location.revalidatable());
+                }
+            }
+            Files.move(temporary, directory.resolve(INDEX_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            LOGGER.warn("Cannot checkpoint the persistent response cache index: {}", ex.getMessage());
+        }
+    }
+
+    private void delete(Segment segment) {
+        try {
+            // Readers still holding the segment keep its mapping; the space is freed once they are done
+            Files.deleteIfExists(segment.path);
+        } catch (IOException ex) {
+            LOGGER.warn("Cannot delete persistent cache segment {}: {}", segment.path, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        // Pending writes still run; the periodic compaction is cancelled
+        writer.shutdown();
+        if (writer.awaitTermination(5, TimeUnit.SECONDS)) {
+            checkpoint();
+        } else {
+            LOGGER.warn("Persistent response cache writer did not finish; records after the last checkpoint "
+                    + "are recovered by the next scan");
+        }
+    }
+
+    private static byte flags(boolean mustRevalidate, boolean noStale) {
+        return (byte) ((mustRevalidate ? FLAG_MUST_REVALIDATE : 0) | (noStale ? FLAG_NO_STALE : 0));
+    }
+
+    private static byte[] encode(String key, StoredResponse response, byte flags) {
+        byte[] keyBytes = utf8(key);
+        byte[] eTag = utf8(response.eTag());
+        byte[] lastModified = utf8(response.lastModified());
+        byte[] contentType = utf8(response.contentType());
+        byte[] body = response.body() != null ? response.body() : new byte[0];
+        int length = RECORD_HEADER_SIZE + 4 * 5 + keyBytes.length + length(eTag) + length(lastModified)
+                + length(contentType) + body.length;
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(length).putInt(0).putLong(response.expiresAt()).putInt(response.statusCode()).put(flags);
+        putBytes(buffer, keyBytes);
+        putBytes(buffer, eTag);
+        putBytes(buffer, lastModified);
+        putBytes(buffer, contentType);
+        putBytes(buffer, body);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), CRC_START, length - CRC_START);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    private static Record decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.position(8);
+        long expiresAt = buffer.getLong();
+        int statusCode = buffer.getInt();
+        byte flags = buffer.get();
+        String key = getString(buffer);
+        String eTag = getString(buffer);
+        String lastModified = getString(buffer);
+        String contentType = getString(buffer);
+        byte[] body = new byte[buffer.getInt()];
+        buffer.get(body);
+        return new Record(key, (flags & FLAG_TOMBSTONE) != 0, new StoredResponse(body, contentType, statusCode,
+                eTag, lastModified, expiresAt, (flags & FLAG_MUST_REVALIDATE) != 0, (flags & FLAG_NO_STALE) != 0));
+    }
+
+    /**
+     * Decodes a record in place without copying its body, which is left empty.
+     */
+    private static Record decodeHeader(Segment segment, int offset) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(offset + 8);
+        long expiresAt = buffer.getLong();
+        int statusCode = buffer.getInt();
+        byte flags = buffer.get();
+        String key = getString(buffer);
+        String eTag = getString(buffer);
+        String lastModified = getString(buffer);
+        return new Record(key, (flags & FLAG_TOMBSTONE) != 0, new StoredResponse(new byte[0], null, statusCode,
+                eTag, lastModified, expiresAt, (flags & FLAG_MUST_REVALIDATE) != 0, (flags & FLAG_NO_STALE) != 0));
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Location(Segment segment, int offset, int length, long expiresAt, boolean revalidatable) {
+    }
+
+    private record Record(String key, boolean tombstone, StoredResponse response) {
+    }
+
+    private record Tombstone(String key, int segmentId, byte[] record) {
+    }
+
+    /**
+     * A memory-mapped segment file. Written by the writer thread only; {@link #read} is safe from any thread
+     * for records the index points to, since those were written before the index entry was published.
+     */
+    private static final class Segment {
+
+        private final int id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private long liveBytes;
+
+        private Segment(int id, Path path, MappedByteBuffer buffer, int writePosition) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+            this.writePosition = writePosition;
+        }
+
+        static Segment create(Path path, int id, int size) throws IOException {
+            MappedByteBuffer buffer = map(path, size);
+            buffer.putInt(0, SEGMENT_MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putInt(COMMITTED_POSITION_OFFSET, SEGMENT_HEADER_SIZE);
+            return new Segment(id, path, buffer, SEGMENT_HEADER_SIZE);
+        }
+
+        /**
+         * @return The segment, or {@code null} if the file is not a segment of this format.
+         */
+        static Segment open(Path path, int id) throws IOException {
+            long size = Files.size(path);
+            if (size < SEGMENT_HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = map(path, (int) size);
+            int position = buffer.getInt(COMMITTED_POSITION_OFFSET);
+            if (buffer.getInt(0) != SEGMENT_MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                    || position < SEGMENT_HEADER_SIZE || position > size) {
+                return null;
+            }
+            return new Segment(id, path, buffer, position);
+        }
+
+        private static MappedByteBuffer map(Path path, int size) throws IOException {
+            // The mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        int remainingAt(int offset) {
+            return writePosition - offset;
+        }
+
+        int append(byte[] record) {
+            int offset = writePosition;
+            buffer.put(offset, record);
+            writePosition += record.length;
+            // Committed only once the record is complete, so a crash mid-write leaves it past the position
+            buffer.putInt(COMMITTED_POSITION_OFFSET, writePosition);
+            return offset;
+        }
+
+        byte[] read(int offset, int length) {
+            byte[] record = new byte[length];
+            buffer.get(offset, record);
+            return record;
+        }
+
+        boolean crcMatches(int offset, int length) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset + CRC_START, length - CRC_START));
+            return (int) crc.getValue() == buffer.getInt(offset + 4);
+        }
+
+        void truncate(int position) {
+            writePosition = position;
+            buffer.putInt(COMMITTED_POSITION_OFFSET, position);
+        }
+    }
+}
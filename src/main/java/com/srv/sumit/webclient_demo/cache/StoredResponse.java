@@ -0,0 +1,22 @@
+package com.srv.sumit.webclient_demo.cache;
+
+/**
+ * A raw response body with its HTTP metadata as kept by the {@link PersistentResponseStore}; decoded into a
+ * {@link CachedResponse} on first use after a restart.
+ *
+ * @param body           The raw (content-decoded) response body.
+ * @param contentType    The {@code Content-Type} the body was sent with, if any.
+ * @param statusCode     The HTTP status the entry was stored for.
+ * @param eTag           The entity tag, if any.
+ * @param lastModified   The raw Last-Modified header value, if any.
+ * @param expiresAt      Epoch millis until which the entry is fresh.
+ * @param mustRevalidate Whether the entry must be revalidated before every use ({@code no-cache}).
+ * @param noStale        Whether the entry may never be served stale ({@code must-revalidate}).
+ */
+public record StoredResponse(byte[] body, String contentType, int statusCode, String eTag, String lastModified,
+                             long expiresAt, boolean mustRevalidate, boolean noStale) {
+
+    public boolean hasValidators() {
+        return eTag != null || lastModified != null;
+    }
+}
@@ -0,0 +1,122 @@
+package com.srv.sumit.webclient_demo.catalog;
+
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import com.srv.sumit.webclient_demo.util.WebClientHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local product catalog answering lookups and filters from a {@link ProductCatalogSnapshot} instead of calling
+ * {@code /objects} for each of them.
+ * <p>
+ * When enabled, the catalog is loaded at startup and refreshed every {@code refresh-interval} on its own thread
+ * through {@link WebClientHelper#getList}. A refresh builds a complete new snapshot off to the side and publishes
+ * it with a single volatile write, so readers never block and never see a half-built catalog; a listing equal to
+ * the current snapshot is not rebuilt at all. A failed refresh keeps serving the previous snapshot. Callers that
+ * run several queries should take one {@link #snapshot()} and query it, so all answers come from the same data.
+ */
+@Component
+public class ProductCatalog implements ApplicationRunner, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final WebClientHelper webClientHelper;
+    private final boolean enabled;
+    private final String baseUrl;
+    private final String path;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService scheduler;
+    private volatile ProductCatalogSnapshot snapshot = ProductCatalogSnapshot.EMPTY;
+
+    public ProductCatalog(WebClientHelper webClientHelper,
+                          @Value("${client.catalog.enabled:false}") boolean enabled,
+                          @Value("${client.catalog.base-url:https://api.restful-api.dev}") String baseUrl,
+                          @Value("${client.catalog.path:/objects}") String path,
+                          @Value("${client.catalog.refresh-interval:5m}") Duration refreshInterval) {
+        this.webClientHelper = webClientHelper;
+        this.enabled = enabled;
+        this.baseUrl = baseUrl;
+        this.path = path;
+        this.refreshInterval = refreshInterval;
+        this.scheduler = enabled
+                ? Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("product-catalog-"))
+                : null;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        refresh();
+        long intervalMillis = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The current snapshot; empty until the first load has completed.
+     */
+    public ProductCatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public Optional<ProductDTO> findById(String id) {
+        return snapshot.findById(id);
+    }
+
+    public List<ProductDTO> byYear(int from, int to) {
+        return snapshot.byYear(from, to);
+    }
+
+    public List<ProductDTO> cheaperThan(double price) {
+        return snapshot.cheaperThan(price);
+    }
+
+    /**
+     * Loads the catalog and swaps the snapshot if it changed. Never throws: a failure is logged and the current
+     * snapshot stays in place, which also keeps the scheduled refreshes running.
+     */
+    public void refresh() {
+        long start = System.nanoTime();
+        try {
+            List<ProductDTO> products = webClientHelper.getList(baseUrl, path, ProductDTO.class, null, null, null);
+            if (products == null) {
+                LOGGER.warn("Product catalog refresh from {}{} returned no body", baseUrl, path);
+                return;
+            }
+            ProductCatalogSnapshot current = snapshot;
+            if (current != ProductCatalogSnapshot.EMPTY && current.contentEquals(products)) {
+                LOGGER.debug("Product catalog unchanged ({} products)", current.size());
+                return;
+            }
+            ProductCatalogSnapshot next = ProductCatalogSnapshot.build(products, Instant.now());
+            snapshot = next;
+            LOGGER.info("Product catalog loaded {} products in {} ms", next.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception ex) {
+            LOGGER.warn("Product catalog refresh from {}{} failed, keeping {} products: {}",
+                    baseUrl, path, snapshot.size(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.srv.sumit.webclient_demo.catalog;
+
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import com.srv.sumit.webclient_demo.dto.ProductData;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, columnar copy of the product catalog.
+ * <p>
+ * Each product is a row: the id and the dictionary codes of the string attributes are held in arrays, as are
+ * {@code year} and {@code price} as primitives, so a million products cost a handful of arrays instead of three
+ * objects and their strings each. String attributes are dictionary-encoded per column ({@code -1} for
+ * {@code null}); an attribute filter compares int codes and never touches a String. Lookups by id go through an
+ * open-addressing hash index, year and price ranges through row indexes sorted by value and searched by
+ * bisection. Rows without {@code data} are in neither range index.
+ * <p>
+ * Queries return fresh DTOs, so callers may modify them without affecting the snapshot.
+ */
+public final class ProductCatalogSnapshot {
+
+    static final ProductCatalogSnapshot EMPTY = build(List.of(), Instant.EPOCH);
+
+    private static final int NO_VALUE = -1;
+
+    /**
+     * The dictionary-encoded string attributes of a product.
+     */
+    public enum Attribute {
+        NAME, COLOR, CAPACITY, CPU_MODEL, HARD_DISK_SIZE
+    }
+
+    private final int size;
+    private final Instant loadedAt;
+    private final String[] ids;
+    private final int[][] attributeCodes;
+    private final Dictionary[] dictionaries;
+    private final BitSet hasData;
+    private final int[] years;
+    private final double[] prices;
+    private final int[] idIndex;
+    private final int[] rowsByYear;
+    private final int[] sortedYears;
+    private final int[] rowsByPrice;
+    private final double[] sortedPrices;
+
+    private ProductCatalogSnapshot(int size, Instant loadedAt, String[] ids, int[][] attributeCodes,
+                                   Dictionary[] dictionaries, BitSet hasData, int[] years, double[] prices) {
+        this.size = size;
+        this.loadedAt = loadedAt;
+        this.ids = ids;
+        this.attributeCodes = attributeCodes;
+        this.dictionaries = dictionaries;
+        this.hasData = hasData;
+        this.years = years;
+        this.prices = prices;
+        this.idIndex = buildIdIndex(ids, size);
+
+        int[] dataRows = hasData.stream().toArray();
+        this.rowsByYear = sortRows(dataRows, Comparator.comparingInt(row -> years[row]));
+        this.sortedYears = Arrays.stream(rowsByYear).map(row -> years[row]).toArray();
+        this.rowsByPrice = sortRows(dataRows, Comparator.comparingDouble(row -> prices[row]));
+        this.sortedPrices = Arrays.stream(rowsByPrice).mapToDouble(row -> prices[row]).toArray();
+    }
+
+    /**
+     * Builds a snapshot of the products. Products without an id are skipped; of products sharing an id, the
+     * first is kept.
+     *
+     * @param products The products, e.g. a full {@code /objects} listing.
+     * @param loadedAt When the products were fetched.
+     */
+    public static ProductCatalogSnapshot build(List<ProductDTO> products, Instant loadedAt) {
+        int capacity = products.size();
+        String[] ids = new String[capacity];
+        Attribute[] attributes = Attribute.values();
+        int[][] attributeCodes = new int[attributes.length][capacity];
+        Dictionary.Builder[] dictionaries = new Dictionary.Builder[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            dictionaries[i] = new Dictionary.Builder();
+        }
+        BitSet hasData = new BitSet(capacity);
+        int[] years = new int[capacity];
+        double[] prices = new double[capacity];
+
+        Set<String> seen = new HashSet<>(Math.max(16, capacity * 2));
+        int row = 0;
+        for (ProductDTO product : products) {
+            if (product == null || product.getId() == null || !seen.add(product.getId())) {
+                continue;
+            }
+            ids[row] = product.getId();
+            for (Attribute attribute : attributes) {
+                attributeCodes[attribute.ordinal()][row] =
+                        dictionaries[attribute.ordinal()].encode(attributeValue(product, attribute));
+            }
+            ProductData data = product.getData();
+            if (data != null) {
+                hasData.set(row);
+                years[row] = data.getYear();
+                prices[row] = data.getPrice();
+            }
+            row++;
+        }
+
+        int size = row;
+        Dictionary[] built = new Dictionary[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            built[i] = dictionaries[i].build();
+            attributeCodes[i] = Arrays.copyOf(attributeCodes[i], size);
+        }
+        return new ProductCatalogSnapshot(size, loadedAt, Arrays.copyOf(ids, size), attributeCodes, built,
+                hasData, Arrays.copyOf(years, size), Arrays.copyOf(prices, size));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return The product with the id, if present.
+     */
+    public Optional<ProductDTO> findById(String id) {
+        int row = rowOf(id);
+        return row < 0 ? Optional.empty() : Optional.of(product(row));
+    }
+
+    /**
+     * @return The products with {@code from <= year <= to}, ordered by year.
+     */
+    public List<ProductDTO> byYear(int from, int to) {
+        if (from > to) {
+            return List.of();
+        }
+        return products(rowsByYear, lowerBound(sortedYears, from), lowerBound(sortedYears, to + 1L));
+    }
+
+    /**
+     * @return The products with {@code min <= price <= max}, ordered by price.
+     */
+    public List<ProductDTO> byPrice(double min, double max) {
+        if (!(min <= max)) {
+            return List.of();
+        }
+        return products(rowsByPrice, lowerBound(sortedPrices, min), upperBound(sortedPrices, max));
+    }
+
+    /**
+     * @return The products with {@code price < max}, ordered by price.
+     */
+    public List<ProductDTO> cheaperThan(double max) {
+        return products(rowsByPrice, 0, lowerBound(sortedPrices, max));
+    }
+
+    /**
+     * @return The products whose attribute equals the value ({@code null} matches missing values), in load order.
+     */
+    public List<ProductDTO> withAttribute(Attribute attribute, String value) {
+        int code = value == null ? NO_VALUE : dictionaries[attribute.ordinal()].code(value);
+        if (value != null && code == NO_VALUE) {
+            return List.of();
+        }
+        int[] codes = attributeCodes[attribute.ordinal()];
+        List<ProductDTO> matches = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (codes[row] == code) {
+                matches.add(product(row));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return The distinct non-null values of the attribute.
+     */
+    public List<String> distinctValues(Attribute attribute) {
+        return dictionaries[attribute.ordinal()].values();
+    }
+
+    /**
+     * @return Whether the products hold exactly the data of this snapshot, regardless of order.
+     */
+    public boolean contentEquals(List<ProductDTO> products) {
+        BitSet matched = new BitSet(size);
+        for (ProductDTO product : products) {
+            if (product == null || product.getId() == null) {
+                continue;
+            }
+            int row = rowOf(product.getId());
+            if (row < 0) {
+                return false;
+            }
+            // Like build(), only the first product with an id counts
+            if (!matched.get(row)) {
+                if (!sameAs(row, product)) {
+                    return false;
+                }
+                matched.set(row);
+            }
+        }
+        return matched.cardinality() == size;
+    }
+
+    private boolean sameAs(int row, ProductDTO product) {
+        for (Attribute attribute : Attribute.values()) {
+            if (!Objects.equals(attribute(row, attribute), attributeValue(product, attribute))) {
+                return false;
+            }
+        }
+        ProductData data = product.getData();
+        if (data == null) {
+            return !hasData.get(row);
+        }
+        return hasData.get(row) && years[row] == data.getYear()
+                && Double.compare(prices[row], data.getPrice()) == 0;
+    }
+
+    private String attribute(int row, Attribute attribute) {
+        return dictionaries[attribute.ordinal()].value(attributeCodes[attribute.ordinal()][row]);
+    }
+
+    private static String attributeValue(ProductDTO product, Attribute attribute) {
+        if (attribute == Attribute.NAME) {
+            return product.getName();
+        }
+        ProductData data = product.getData();
+        if (data == null) {
+            return null;
+        }
+        return switch (attribute) {
+            case COLOR -> data.getColor();
+            case CAPACITY -> data.getCapacity();
+            case CPU_MODEL -> data.getCpuModel();
+            case HARD_DISK_SIZE -> data.getHardDiskSize();
+            case NAME -> throw new IllegalStateException();
+        };
+    }
+
+    private ProductDTO product(int row) {
+        ProductDTO product = new ProductDTO();
+        product.setId(ids[row]);
+        product.setName(attribute(row, Attribute.NAME));
+        if (hasData.get(row)) {
+            ProductData data = new ProductData();
+            data.setColor(attribute(row, Attribute.COLOR));
+            data.setCapacity(attribute(row, Attribute.CAPACITY));
+            data.setCpuModel(attribute(row, Attribute.CPU_MODEL));
+            data.setHardDiskSize(attribute(row, Attribute.HARD_DISK_SIZE));
+            data.setYear(years[row]);
+            data.setPrice(prices[row]);
+            product.setData(data);
+        }
+        return product;
+    }
+
+    private List<ProductDTO> products(int[] rows, int from, int to) {
+        List<ProductDTO> products = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            products.add(product(rows[i]));
+        }
+        return products;
+    }
+
+    private int rowOf(String id) {
+        if (id == null || size == 0) {
+            return -1;
+        }
+        int mask = idIndex.length - 1;
+        for (int slot = spread(id.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int entry = idIndex[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (ids[entry - 1].equals(id)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Open addressing with linear probing at a load factor of at most 0.5; slots hold {@code row + 1}, 0 is free.
+     */
+    private static int[] buildIdIndex(String[] ids, int size) {
+        int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1);
+        int[] index = new int[capacity];
+        int mask = capacity - 1;
+        for (int row = 0; row < size; row++) {
+            int slot = spread(ids[row].hashCode()) & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = row + 1;
+        }
+        return index;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] sortRows(int[] rows, Comparator<Integer> order) {
+        // Stable, so rows with equal values keep their load order
+        return IntStream.of(rows).boxed().sorted(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return The first index whose value is {@code >= key}.
+     */
+    private static int lowerBound(int[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The first index whose value is {@code > key}.
+     */
+    private static int upperBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Per-column string dictionary: code {@code i} is {@code values[i]}, {@code -1} is {@code null}.
+     */
+    private static final class Dictionary {
+
+        private final String[] values;
+        private final Map<String, Integer> codes;
+
+        private Dictionary(String[] values, Map<String, Integer> codes) {
+            this.values = values;
+            this.codes = codes;
+        }
+
+        String value(int code) {
+            return code == NO_VALUE ? null : values[code];
+        }
+
+        int code(String value) {
+            return codes.getOrDefault(value, NO_VALUE);
+        }
+
+        List<String> values() {
+            return List.of(values);
+        }
+
+        static final class Builder {
+
+            private final List<String> values = new ArrayList<>();
+            private final Map<String, Integer> codes = new HashMap<>();
+
+            int encode(String value) {
+                if (value == null) {
+                    return NO_VALUE;
+                }
+                return codes.computeIfAbsent(value, v -> {
+                    values.add(v);
+                    return values.size() - 1;
+                });
+            }
+
+            Dictionary build() {
+                return new Dictionary(values.toArray(String[]::new), Map.copyOf(codes));
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.srv.sumit.webclient_demo.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Immutable Jackson readers and writers per payload format and target type, built once and shared by all helpers.
+ * <p>
+ * {@code ObjectMapper.readValue(bytes, Class)} resolves the type and looks its deserializer up on every call,
+ * and list reads additionally construct a fresh collection {@link JavaType}. The readers and writers handed out
+ * here are resolved once per type ({@link ClassValue} for plain classes, a map for other generic types) and are
+ * thread-safe, so the per-call cost is just the parse or the write. The mappers of all formats derive from the
+ * application's ObjectMapper bean, which must not be reconfigured after startup.
+ */
+@Component
+public class CodecRegistry {
+
+    private final EnumMap<PayloadFormat, FormatCodecs> codecs = new EnumMap<>(PayloadFormat.class);
+
+    public CodecRegistry(ObjectMapper objectMapper) {
+        for (PayloadFormat format : PayloadFormat.values()) {
+            codecs.put(format, new FormatCodecs(format.createMapper(objectMapper)));
+        }
+    }
+
+    /**
+     * @return The ObjectMapper of the format, for codecs and converters that take a mapper.
+     */
+    public ObjectMapper mapper(PayloadFormat format) {
+        return codecs.get(format).mapper;
+    }
+
+    /**
+     * @return The reader for values of the type.
+     */
+    public ObjectReader reader(PayloadFormat format, Class<?> type) {
+        return codecs.get(format).readers.get(type);
+    }
+
+    /**
+     * @return The reader for {@code List<elementType>}.
+     */
+    public ObjectReader listReader(PayloadFormat format, Class<?> elementType) {
+        return codecs.get(format).listReaders.get(elementType);
+    }
+
+    /**
+     * @return The reader for {@code Map<String, valueType>}.
+     */
+    public ObjectReader mapReader(PayloadFormat format, Class<?> valueType) {
+        return codecs.get(format).mapReaders.get(valueType);
+    }
+
+    /**
+     * @return The reader for any other, possibly generic, type.
+     */
+    public ObjectReader reader(PayloadFormat format, JavaType type) {
+        FormatCodecs formatCodecs = codecs.get(format);
+        return formatCodecs.typeReaders.computeIfAbsent(type, formatCodecs.mapper::readerFor);
+    }
+
+    /**
+     * @return The writer for values of the type, e.g. {@code body.getClass()}.
+     */
+    public ObjectWriter writer(PayloadFormat format, Class<?> type) {
+        return codecs.get(format).writers.get(type);
+    }
+
+    /**
+     * @return The writer for values of the type that leaves the target stream open, for streamed request bodies.
+     */
+    public ObjectWriter streamingWriter(PayloadFormat format, Class<?> type) {
+        return codecs.get(format).streamingWriters.get(type);
+    }
+
+    private static final class FormatCodecs {
+
+        private final ObjectMapper mapper;
+        private final ConcurrentMap<JavaType, ObjectReader> typeReaders = new ConcurrentHashMap<>();
+        private final ClassValue<ObjectReader> readers;
+        private final ClassValue<ObjectReader> listReaders;
+        private final ClassValue<ObjectReader> mapReaders;
+        private final ClassValue<ObjectWriter> writers;
+        private final ClassValue<ObjectWriter> streamingWriters;
+
+        FormatCodecs(ObjectMapper mapper) {
+            this.mapper = mapper;
+            TypeFactory typeFactory = mapper.getTypeFactory();
+            this.readers = classValue(type -> mapper.readerFor(type));
+            this.listReaders = classValue(type -> mapper.readerFor(
+                    typeFactory.constructCollectionType(List.class, type)));
+            this.mapReaders = classValue(type -> mapper.readerFor(
+                    typeFactory.constructMapType(Map.class, String.class, type)));
+            // Writers for the declared type skip the per-call root type lookup of ObjectMapper.writeValue
+            this.writers = classValue(type -> mapper.writerFor(type));
+            // The connection owns the entity output stream, so Jackson must not close it
+            this.streamingWriters = classValue(type -> mapper.writerFor(type)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+        }
+
+        private static <V> ClassValue<V> classValue(Function<Class<?>, V> factory) {
+            return new ClassValue<>() {
+                @Override
+                protected V computeValue(Class<?> type) {
+                    return factory.apply(type);
+                }
+            };
+        }
+    }
+}
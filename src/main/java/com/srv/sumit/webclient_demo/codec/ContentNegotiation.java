@@ -0,0 +1,143 @@
+package com.srv.sumit.webclient_demo.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.srv.sumit.webclient_demo.compression.HttpCompression;
+import com.srv.sumit.webclient_demo.resilience.HostKeys;
+import org.apache.hc.core5.http.HttpMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserter;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-host content negotiation between JSON and the binary Jackson formats (Smile, CBOR), shared by all helpers.
+ * <p>
+ * For a host listed in {@code client.content-negotiation.hosts} ({@code host:port} to format) requests send
+ * {@code Accept: <binary>, application/json;q=0.9} and, when {@code binary-requests} is on, bodies in that
+ * format. Responses are always decoded by their {@code Content-Type}, so a server answering in JSON is read
+ * as JSON. Other hosts are left exactly as before: JSON both ways, without an explicit {@code Accept} from
+ * the blocking clients. An {@code Accept} header passed by the caller always wins.
+ * <p>
+ * CBOR cannot be decoded as a stream by the WebFlux codecs, so streamed lists from a CBOR host ask for JSON.
+ */
+@Component
+public class ContentNegotiation {
+
+    private final Map<String, PayloadFormat> hostFormats;
+    private final boolean binaryRequests;
+    private final HttpCompression httpCompression;
+    private final CodecRegistry codecRegistry;
+    private final EnumMap<PayloadFormat, String> acceptHeaders = new EnumMap<>(PayloadFormat.class);
+
+    public ContentNegotiation(CodecRegistry codecRegistry, HttpCompression httpCompression, Environment environment,
+                              @Value("${client.content-negotiation.binary-requests:true}") boolean binaryRequests) {
+        this.codecRegistry = codecRegistry;
+        this.httpCompression = httpCompression;
+        this.binaryRequests = binaryRequests;
+        this.hostFormats = Binder.get(environment)
+                .bind("client.content-negotiation.hosts", Bindable.mapOf(String.class, PayloadFormat.class))
+                .orElse(Map.of());
+        for (PayloadFormat format : PayloadFormat.values()) {
+            acceptHeaders.put(format, format == PayloadFormat.JSON
+                    ? MediaType.APPLICATION_JSON_VALUE
+                    : format.mediaType() + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9");
+        }
+    }
+
+    /**
+     * @return The format preferred for the host of the URI; JSON unless the host is configured.
+     */
+    public PayloadFormat formatFor(URI uri) {
+        if (hostFormats.isEmpty()) {
+            return PayloadFormat.JSON;
+        }
+        return hostFormats.getOrDefault(HostKeys.of(uri), PayloadFormat.JSON);
+    }
+
+    public PayloadFormat formatFor(String url) {
+        return hostFormats.isEmpty() ? PayloadFormat.JSON : formatFor(URI.create(url));
+    }
+
+    /**
+     * @return The format request bodies to the URI are written in.
+     */
+    public PayloadFormat requestFormat(URI uri) {
+        return binaryRequests ? formatFor(uri) : PayloadFormat.JSON;
+    }
+
+    public PayloadFormat requestFormat(String url) {
+        return binaryRequests ? formatFor(url) : PayloadFormat.JSON;
+    }
+
+    /**
+     * Sets the {@code Accept} header of a WebClient or RestClient request to a binary host, unless already set.
+     */
+    public void negotiate(URI uri, HttpHeaders headers) {
+        negotiate(formatFor(uri), headers);
+    }
+
+    /**
+     * Like {@link #negotiate(URI, HttpHeaders)} for a response decoded as a stream of elements.
+     */
+    public void negotiateStreaming(URI uri, HttpHeaders headers) {
+        PayloadFormat format = formatFor(uri);
+        negotiate(format == PayloadFormat.CBOR ? PayloadFormat.JSON : format, headers);
+    }
+
+    private void negotiate(PayloadFormat format, HttpHeaders headers) {
+        if (format != PayloadFormat.JSON && !headers.containsKey(HttpHeaders.ACCEPT)) {
+            headers.set(HttpHeaders.ACCEPT, acceptHeaders.get(format));
+        }
+    }
+
+    /**
+     * Sets the {@code Accept} header of an httpclient5 request to a binary host, unless already set.
+     */
+    public void negotiate(String url, HttpMessage request) {
+        PayloadFormat format = formatFor(url);
+        if (format != PayloadFormat.JSON && !request.containsHeader(HttpHeaders.ACCEPT)) {
+            request.setHeader(HttpHeaders.ACCEPT, acceptHeaders.get(format));
+        }
+    }
+
+    /**
+     * Creates the WebClient body for a request to the URI: JSON as before, or the host's binary format with its
+     * {@code Content-Type}; content-coded as configured in {@link HttpCompression} either way.
+     *
+     * @param client The client tag for the metrics.
+     * @param uri    The request URI.
+     * @param body   The request body.
+     */
+    public BodyInserter<?, ? super ReactiveHttpOutputMessage> body(String client, URI uri, Object body) {
+        PayloadFormat format = requestFormat(uri);
+        if (format == PayloadFormat.JSON) {
+            return httpCompression.jsonBody(client, body);
+        }
+        ObjectWriter writer = codecRegistry.writer(format, body.getClass());
+        return (message, context) -> {
+            HttpCompression.EncodedBody encoded;
+            try {
+                encoded = httpCompression.encode(client, writer.writeValueAsBytes(body));
+            } catch (JsonProcessingException ex) {
+                return Mono.error(ex);
+            }
+            message.getHeaders().setContentType(format.mediaType());
+            if (encoded.encoding() != null) {
+                message.getHeaders().set(HttpHeaders.CONTENT_ENCODING, encoded.encoding());
+            }
+            message.getHeaders().setContentLength(encoded.body().length);
+            return message.writeWith(Mono.fromSupplier(() -> message.bufferFactory().wrap(encoded.body())));
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.srv.sumit.webclient_demo.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a low-cardinality {@code String} property (colors, capacities, model names, ...) whose decoded values
+ * are canonicalized through the shared {@link StringInternTable}, so a large list holds one instance per
+ * distinct value. Only has an effect when {@code client.codec.string-dedup.enabled} is on; see
+ * {@link StringDeduplicationModule}.
+ */
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Deduplicated {
+}
@@ -0,0 +1,66 @@
+package com.srv.sumit.webclient_demo.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Wire formats the helpers can exchange payloads in. Smile and CBOR are binary encodings of the JSON data
+ * model, so the same DTOs and Jackson annotations apply to all three.
+ */
+public enum PayloadFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(new MediaType("application", "x-jackson-smile")),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    PayloadFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Creates the mapper for this format with the modules and settings of the JSON mapper.
+     *
+     * @param jsonMapper The application's JSON ObjectMapper, returned as is for {@link #JSON}.
+     */
+    public ObjectMapper createMapper(ObjectMapper jsonMapper) {
+        return switch (this) {
+            case JSON -> jsonMapper;
+            case SMILE -> jsonMapper.copyWith(new SmileFactory());
+            case CBOR -> jsonMapper.copyWith(new CBORFactory());
+        };
+    }
+
+    /**
+     * Maps a response {@code Content-Type} to its format; anything that is not Smile or CBOR, including a
+     * missing header, is read as JSON.
+     *
+     * @param contentType The {@code Content-Type} header value, or {@code null}.
+     */
+    public static PayloadFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return JSON;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("application/x-jackson-smile")) {
+            return SMILE;
+        }
+        if (type.startsWith("application/cbor")) {
+            return CBOR;
+        }
+        return JSON;
+    }
+
+    public static PayloadFormat fromContentType(MediaType contentType) {
+        return contentType == null ? JSON : fromContentType(contentType.toString());
+    }
+}
@@ -0,0 +1,131 @@
+package com.srv.sumit.webclient_demo.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Jackson module that decodes {@link Deduplicated} String properties through a {@link StringInternTable}.
+ * <p>
+ * Registered on the application's ObjectMapper (and so on the Smile and CBOR mappers derived from it) when
+ * {@code client.codec.string-dedup.enabled} is on. Values are interned from the parser's character buffer, so a
+ * repeated value allocates nothing; values of other token types (numbers coerced to text, ...) are decoded as
+ * usual and not interned. Properties without the annotation are untouched.
+ */
+public class StringDeduplicationModule extends SimpleModule {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final DeduplicatingDeserializerModifier deserializerModifier;
+
+    public StringDeduplicationModule(StringInternTable internTable) {
+        super("StringDeduplicationModule");
+        this.deserializerModifier =
+                new DeduplicatingDeserializerModifier(new DeduplicatingStringDeserializer(internTable));
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        // Registered here rather than from the constructor, which must not call the overridable setters
+        context.addBeanDeserializerModifier(deserializerModifier);
+    }
+
+    private static Set<String> deduplicatedProperties(BeanDescription beanDesc) {
+        Set<String> names = new HashSet<>();
+        for (BeanPropertyDefinition definition : beanDesc.findProperties()) {
+            if (annotated(definition.getField()) || annotated(definition.getSetter())
+                    || annotated(definition.getConstructorParameter())) {
+                names.add(definition.getName());
+            }
+        }
+        return names;
+    }
+
+    private static boolean annotated(Annotated member) {
+        return member != null && member.hasAnnotation(Deduplicated.class);
+    }
+
+    /**
+     * Swaps the value deserializer of each {@link Deduplicated} String property.
+     */
+    static final class DeduplicatingDeserializerModifier extends BeanDeserializerModifier {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final DeduplicatingStringDeserializer deserializer;
+
+        DeduplicatingDeserializerModifier(DeduplicatingStringDeserializer deserializer) {
+            this.deserializer = deserializer;
+        }
+
+        @Override
+        public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                                                     BeanDeserializerBuilder builder) {
+            Set<String> deduplicated = deduplicatedProperties(beanDesc);
+            if (deduplicated.isEmpty()) {
+                return builder;
+            }
+            List<SettableBeanProperty> replacements = new ArrayList<>();
+            for (Iterator<SettableBeanProperty> it = builder.getProperties(); it.hasNext(); ) {
+                SettableBeanProperty property = it.next();
+                if (deduplicated.contains(property.getName()) && property.getType().hasRawClass(String.class)) {
+                    replacements.add(property.withValueDeserializer(deserializer));
+                }
+            }
+            // Replaced outside the iteration, which walks the builder's live property map
+            replacements.forEach(property -> builder.addOrReplaceProperty(property, true));
+            return builder;
+        }
+    }
+
+    static final class DeduplicatingStringDeserializer extends StdScalarDeserializer<String> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient StringInternTable internTable;
+
+        DeduplicatingStringDeserializer(StringInternTable internTable) {
+            super(String.class);
+            this.internTable = internTable;
+        }
+
+        @Override
+        public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                if (parser.hasTextCharacters()) {
+                    return internTable.intern(parser.getTextCharacters(), parser.getTextOffset(),
+                            parser.getTextLength());
+                }
+                return internTable.intern(parser.getText());
+            }
+            return StringDeserializer.instance.deserialize(parser, context);
+        }
+
+        @Override
+        public boolean isCachable() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.srv.sumit.webclient_demo.codec;
+
+/**
+ * Bounded, lock-free table of canonical {@code String} instances, looked up straight from the parser's character
+ * buffer so a repeated value costs neither a new String nor its {@code char}/{@code byte} array.
+ * <p>
+ * The table is direct-mapped and lossy: each value hashes to one slot, and a value that collides with a
+ * different one simply replaces it. A thrashing slot therefore degrades to the allocation that would have
+ * happened anyway, never to unbounded growth. Slots are read and written without synchronization; Strings are
+ * immutable and safely published through their final fields, so the worst a race can do is lose an entry.
+ * Values longer than {@link #MAX_LENGTH} characters are never interned.
+ */
+public final class StringInternTable {
+
+    static final int MAX_LENGTH = 64;
+
+    private final String[] slots;
+    private final int mask;
+
+    /**
+     * @param size The number of slots, rounded up to a power of two; a few times the expected distinct values.
+     */
+    public StringInternTable(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Intern table size must be positive: " + size);
+        }
+        int capacity = Math.max(2, Integer.highestOneBit(size - 1) << 1);
+        this.slots = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return The canonical instance equal to {@code chars[offset, offset + length)}.
+     */
+    public String intern(char[] chars, int offset, int length) {
+        if (length > MAX_LENGTH) {
+            return new String(chars, offset, length);
+        }
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int slot = spread(hash) & mask;
+        String candidate = slots[slot];
+        if (candidate != null && matches(candidate, chars, offset, length)) {
+            return candidate;
+        }
+        String value = new String(chars, offset, length);
+        slots[slot] = value;
+        return value;
+    }
+
+    /**
+     * @return The canonical instance equal to {@code value}, for parsers that only expose a String.
+     */
+    public String intern(String value) {
+        if (value.length() > MAX_LENGTH) {
+            return value;
+        }
+        // Same as the char[] hash above, so both paths share slots
+        int slot = spread(value.hashCode()) & mask;
+        String candidate = slots[slot];
+        if (value.equals(candidate)) {
+            return candidate;
+        }
+        slots[slot] = value;
+        return value;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String candidate, char[] chars, int offset, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
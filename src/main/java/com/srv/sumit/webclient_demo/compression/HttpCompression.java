@@ -0,0 +1,387 @@
+package com.srv.sumit.webclient_demo.compression;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import org.apache.hc.client5.http.entity.DeflateInputStreamFactory;
+import org.apache.hc.client5.http.entity.GZIPInputStreamFactory;
+import org.apache.hc.client5.http.entity.InputStreamFactory;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.io.IOCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Transparent content coding shared by all client helpers.
+ * <p>
+ * Responses: every stack advertises the configured {@code Accept-Encoding} and decodes compressed bodies while
+ * they are read (Reactor Netty through its decompressor, httpclient5 through the decoders built here), so a
+ * large response is never held compressed and decompressed at the same time. Requests: bodies of at least
+ * {@code request.threshold} bytes are sent with the configured {@code Content-Encoding}; smaller bodies are not
+ * worth the CPU and the coding header. Streamed request bodies have no known size and are always encoded when
+ * request compression is enabled. Only enable request compression for upstreams known to accept it.
+ * <p>
+ * Ratios, saved bytes and codec time are recorded per client and direction by {@link ClientMetrics}.
+ * {@code gzip} and {@code deflate} are supported; {@code br} and {@code zstd} are ignored with a warning since
+ * no decoder for them is on the classpath.
+ */
+@Component
+public class HttpCompression {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpCompression.class);
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String DEFLATE = "deflate";
+
+    private final CodecRegistry codecRegistry;
+    private final ClientMetrics clientMetrics;
+    private final boolean responseEnabled;
+    private final List<String> acceptEncodings;
+    private final boolean requestEnabled;
+    private final String requestEncoding;
+    private final long requestThreshold;
+
+    public HttpCompression(CodecRegistry codecRegistry, ClientMetrics clientMetrics,
+                           @Value("${http-client.compression.response.enabled:true}") boolean responseEnabled,
+                           @Value("${http-client.compression.accept-encoding:gzip,deflate}") List<String> acceptEncodings,
+                           @Value("${http-client.compression.request.enabled:false}") boolean requestEnabled,
+                           @Value("${http-client.compression.request.encoding:gzip}") String requestEncoding,
+                           @Value("${http-client.compression.request.threshold:2KB}") DataSize requestThreshold) {
+        this.codecRegistry = codecRegistry;
+        this.clientMetrics = clientMetrics;
+        this.responseEnabled = responseEnabled;
+        this.acceptEncodings = acceptEncodings.stream()
+                .map(encoding -> encoding.trim().toLowerCase(Locale.ROOT))
+                .filter(HttpCompression::isSupported)
+                .distinct()
+                .toList();
+        this.requestEnabled = requestEnabled;
+        this.requestEncoding = requestEncoding.trim().toLowerCase(Locale.ROOT);
+        if (requestEnabled && !isSupported(this.requestEncoding)) {
+            throw new IllegalArgumentException("Unsupported request content coding: " + requestEncoding);
+        }
+        this.requestThreshold = requestThreshold.toBytes();
+    }
+
+    private static boolean isSupported(String encoding) {
+        if (GZIP.equals(encoding) || X_GZIP.equals(encoding) || DEFLATE.equals(encoding)) {
+            return true;
+        }
+        LOGGER.warn("Ignoring content coding '{}': no decoder available", encoding);
+        return false;
+    }
+
+    /**
+     * @return Whether compressed responses are requested and decoded.
+     */
+    public boolean isResponseEnabled() {
+        return responseEnabled && !acceptEncodings.isEmpty();
+    }
+
+    /**
+     * @return Whether request bodies reaching the threshold are compressed.
+     */
+    public boolean isRequestEnabled() {
+        return requestEnabled;
+    }
+
+    /**
+     * @return The {@code Accept-Encoding} header value, e.g. {@code gzip, deflate}.
+     */
+    public String acceptEncoding() {
+        return String.join(", ", acceptEncodings);
+    }
+
+    /**
+     * Builds the httpclient5 content decoders for {@code setContentDecoderRegistry}. The client advertises
+     * their keys, in order, as {@code Accept-Encoding} and decodes the body lazily as it is read.
+     *
+     * @param client The client tag for the metrics.
+     */
+    public LinkedHashMap<String, InputStreamFactory> decoders(String client) {
+        LinkedHashMap<String, InputStreamFactory> decoders = new LinkedHashMap<>();
+        for (String encoding : acceptEncodings) {
+            if (GZIP.equals(encoding) || X_GZIP.equals(encoding)) {
+                InputStreamFactory gzip = new MeteredDecoder(client, GZIP, GZIPInputStreamFactory.getInstance());
+                decoders.putIfAbsent(GZIP, gzip);
+                decoders.putIfAbsent(X_GZIP, gzip);
+            } else if (DEFLATE.equals(encoding)) {
+                decoders.putIfAbsent(DEFLATE, new MeteredDecoder(client, DEFLATE,
+                        DeflateInputStreamFactory.getInstance()));
+            }
+        }
+        return decoders;
+    }
+
+    /**
+     * Decodes a fully buffered response body, for clients without a streaming decoder.
+     *
+     * @param decoders        The decoders from {@link #decoders(String)}.
+     * @param contentEncoding The response's {@code Content-Encoding}, or {@code null}.
+     * @param body            The body as received.
+     * @return The decoded body; the body itself if it is not encoded or the coding is unknown.
+     */
+    public static byte[] decode(LinkedHashMap<String, InputStreamFactory> decoders, String contentEncoding,
+                                byte[] body) throws IOException {
+        if (contentEncoding == null || body == null || body.length == 0) {
+            return body;
+        }
+        InputStreamFactory decoder = decoders.get(contentEncoding.trim().toLowerCase(Locale.ROOT));
+        if (decoder == null) {
+            return body;
+        }
+        try (InputStream decoded = decoder.create(new ByteArrayInputStream(body))) {
+            return decoded.readAllBytes();
+        }
+    }
+
+    /**
+     * Encodes a serialized request body if it reaches the threshold.
+     *
+     * @param client The client tag for the metrics.
+     * @param body   The plain body.
+     * @return The body to send and its coding ({@code null} if sent as is).
+     */
+    public EncodedBody encode(String client, byte[] body) {
+        if (!requestEnabled || body.length < requestThreshold) {
+            return new EncodedBody(body, null);
+        }
+        long start = System.nanoTime();
+        // Compressed JSON is typically well under a quarter of its plain size
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (DeflaterOutputStream encoder = encoder(encoded)) {
+            encoder.write(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        byte[] bytes = encoded.toByteArray();
+        clientMetrics.compressed(client, "request", requestEncoding, bytes.length, body.length,
+                System.nanoTime() - start);
+        return new EncodedBody(bytes, requestEncoding);
+    }
+
+    /**
+     * @return The coding of streamed request bodies, or {@code null} if they are sent as is.
+     */
+    public String streamingEncoding() {
+        return requestEnabled ? requestEncoding : null;
+    }
+
+    /**
+     * Wraps a streaming body writer so that it writes through the request encoder.
+     *
+     * @param client The client tag for the metrics.
+     * @param writer Writes the plain body; must not close the stream.
+     */
+    public IOCallback<OutputStream> encoding(String client, IOCallback<OutputStream> writer) {
+        return outputStream -> {
+            MeteredOutputStream wire = new MeteredOutputStream(outputStream);
+            DeflaterOutputStream encoder = encoder(wire);
+            MeteredOutputStream plain = new MeteredOutputStream(encoder);
+            writer.execute(plain);
+            long start = System.nanoTime();
+            encoder.finish();
+            long finishNanos = System.nanoTime() - start;
+            clientMetrics.compressed(client, "request", requestEncoding, wire.bytes, plain.bytes,
+                    Math.max(0, plain.nanos + finishNanos - wire.nanos));
+        };
+    }
+
+    /**
+     * Creates the WebClient body for a request: JSON, encoded if it reaches the threshold.
+     *
+     * @param client The client tag for the metrics.
+     * @param body   The request body.
+     */
+    public BodyInserter<?, ? super ReactiveHttpOutputMessage> jsonBody(String client, Object body) {
+        if (!requestEnabled) {
+            return BodyInserters.fromValue(body);
+        }
+        return (message, context) -> {
+            EncodedBody encoded;
+            try {
+                encoded = encode(client, codecRegistry.writer(PayloadFormat.JSON, body.getClass()).writeValueAsBytes(body));
+            } catch (JsonProcessingException ex) {
+                return Mono.error(ex);
+            }
+            if (encoded.encoding() != null) {
+                message.getHeaders().set(HttpHeaders.CONTENT_ENCODING, encoded.encoding());
+            }
+            message.getHeaders().setContentLength(encoded.body().length);
+            return message.writeWith(Mono.fromSupplier(() -> message.bufferFactory().wrap(encoded.body())));
+        };
+    }
+
+    /**
+     * Creates a RestClient interceptor that encodes request bodies reaching the threshold.
+     *
+     * @param client The client tag for the metrics.
+     */
+    public ClientHttpRequestInterceptor requestInterceptor(String client) {
+        return (request, body, execution) -> {
+            if (request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                return execution.execute(request, body);
+            }
+            EncodedBody encoded = encode(client, body);
+            if (encoded.encoding() != null) {
+                request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, encoded.encoding());
+                request.getHeaders().setContentLength(encoded.body().length);
+            }
+            return execution.execute(request, encoded.body());
+        };
+    }
+
+    private DeflaterOutputStream encoder(OutputStream outputStream) throws IOException {
+        return DEFLATE.equals(requestEncoding)
+                ? new DeflaterOutputStream(outputStream)
+                : new GZIPOutputStream(outputStream, 8192);
+    }
+
+    /**
+     * A request body after content coding.
+     *
+     * @param body     The bytes to send.
+     * @param encoding The {@code Content-Encoding}, or {@code null} if not encoded.
+     */
+    public record EncodedBody(byte[] body, String encoding) {
+    }
+
+    /**
+     * Decoder that counts the bytes on both sides of the codec and the time spent in it. The codec time is
+     * the time spent reading decoded bytes minus the time the codec spent reading from the connection.
+     */
+    private final class MeteredDecoder implements InputStreamFactory {
+
+        private final String client;
+        private final String encoding;
+        private final InputStreamFactory delegate;
+
+        MeteredDecoder(String client, String encoding, InputStreamFactory delegate) {
+            this.client = client;
+            this.encoding = encoding;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InputStream create(InputStream inputStream) throws IOException {
+            MeteredInputStream wire = new MeteredInputStream(inputStream, null);
+            long start = System.nanoTime();
+            InputStream decoder = delegate.create(wire);
+            long setupNanos = System.nanoTime() - start;
+            return new MeteredInputStream(decoder, plain -> clientMetrics.compressed(client, "response", encoding,
+                    wire.bytes, plain.bytes, Math.max(0, setupNanos + plain.nanos - wire.nanos)));
+        }
+    }
+
+    /**
+     * Counts bytes and read time; reports once when closed.
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+
+        private final Callback<MeteredInputStream> onClose;
+        private long bytes;
+        private long nanos;
+        private boolean closed;
+
+        MeteredInputStream(InputStream in, Callback<MeteredInputStream> onClose) {
+            super(in);
+            this.onClose = onClose;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = super.read();
+            nanos += System.nanoTime() - start;
+            if (b >= 0) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            int read = super.read(buffer, offset, length);
+            nanos += System.nanoTime() - start;
+            if (read > 0) {
+                bytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!closed) {
+                    closed = true;
+                    if (onClose != null) {
+                        onClose.execute(this);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts bytes and write time.
+     */
+    private static final class MeteredOutputStream extends FilterOutputStream {
+
+        private long bytes;
+        private long nanos;
+
+        MeteredOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long start = System.nanoTime();
+            out.write(b);
+            nanos += System.nanoTime() - start;
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            out.write(buffer, offset, length);
+            nanos += System.nanoTime() - start;
+            bytes += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            long start = System.nanoTime();
+            out.flush();
+            nanos += System.nanoTime() - start;
+        }
+    }
+}
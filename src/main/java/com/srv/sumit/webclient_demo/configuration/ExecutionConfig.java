@@ -0,0 +1,32 @@
+package com.srv.sumit.webclient_demo.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutionConfig {
+
+    /**
+     * Configures the executor used to run blocking client calls concurrently (fan-out).
+     * <p>
+     * In virtual-thread mode every call gets its own virtual thread, so the number of concurrent
+     * upstream calls is bounded by the connection pools rather than by a platform thread pool.
+     *
+     * @param virtualThreads   whether to run calls on Java 21 virtual threads.
+     * @param platformPoolSize the platform thread pool size used when virtual threads are disabled.
+     * @return the executor for blocking client calls.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService clientCallExecutor(@Value("${client.execution.virtual-threads:false}") boolean virtualThreads,
+                                              @Value("${client.execution.platform-pool-size:64}") int platformPoolSize) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("client-call-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(platformPoolSize, new CustomizableThreadFactory("client-call-"));
+    }
+}
@@ -1,17 +1,39 @@
 package com.srv.sumit.webclient_demo.configuration;
 
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
-import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import com.srv.sumit.webclient_demo.codec.StringDeduplicationModule;
+import com.srv.sumit.webclient_demo.codec.StringInternTable;
+import com.srv.sumit.webclient_demo.compression.HttpCompression;
+import com.srv.sumit.webclient_demo.dns.SharedDnsCache;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import com.srv.sumit.webclient_demo.metrics.InstrumentedPoolingConnectionManager;
+import com.srv.sumit.webclient_demo.resilience.BudgetedHttpRequestRetryStrategy;
+import com.srv.sumit.webclient_demo.resilience.RetryPolicies;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
-import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,16 +42,27 @@ public class HttpClientConfig {
 
     /**
      * Configures and provides a CloseableHttpClient with connection pooling and timeouts.
+     * The pool and the retry strategy report to Micrometer as {@code http-client-pool} / {@code httpclient}.
      *
+     * @param meterRegistry the registry for the pool gauges and acquire timer.
+     * @param clientMetrics the shared client metrics, used to count retries.
+     * @param retryPolicies the shared retry policies and per-host retry budgets.
+     * @param httpCompression the response content codings to accept and decode.
+     * @param dnsCache the shared DNS cache new connections resolve through.
      * @return a fully configured CloseableHttpClient.
      */
     @Bean
-    public CloseableHttpClient closeableHttpClient() {
+    public CloseableHttpClient closeableHttpClient(MeterRegistry meterRegistry, ClientMetrics clientMetrics,
+                                                   RetryPolicies retryPolicies, HttpCompression httpCompression,
+                                                   SharedDnsCache dnsCache) {
         // Connection pooling manager configuration
-        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-
-        connectionManager.setMaxTotal(200); // Maximum total connections
-        connectionManager.setDefaultMaxPerRoute(50); // Maximum connections per route
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(200) // Maximum total connections
+                .setMaxConnPerRoute(50) // Maximum connections per route
+                .setDnsResolver(dnsCache)
+                .build();
+        InstrumentedPoolingConnectionManager connectionManager =
+                new InstrumentedPoolingConnectionManager(meterRegistry, "http-client-pool", pool);
 
         // Build the default request configuration
         RequestConfig defaultRequestConfig = RequestConfig.custom()
@@ -46,30 +79,140 @@ public class HttpClientConfig {
                 .evictIdleConnections(TimeValue.ofMinutes(1)) // Evict idle connections after 1 minute
                 .disableAutomaticRetries();// Disable automatic retries to avoid unwanted replays*/
 
-        HttpRequestRetryStrategy retryStrategy = new DefaultHttpRequestRetryStrategy(3, TimeValue.ofSeconds(1));
+        // Retries follow the route's policy and the host's retry budget; the strategy must see every first attempt
+        BudgetedHttpRequestRetryStrategy retryStrategy =
+                new BudgetedHttpRequestRetryStrategy(retryPolicies, clientMetrics, "httpclient");
 
         // Build the CloseableHttpClient
-        return HttpClients.custom()
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
                 .setConnectionManager(connectionManager)
                 .setDefaultRequestConfig(defaultRequestConfig)
                 .evictExpiredConnections() // Automatically evict expired connections
                 .evictIdleConnections(TimeValue.ofMinutes(1)) // Evict idle connections after 1 minute
                 //.disableAutomaticRetries() // Disable automatic retries to avoid unwanted replays
-                .setRetryStrategy(retryStrategy)
+                .addRequestInterceptorFirst(retryStrategy)
+                .setRetryStrategy(retryStrategy);
+        if (httpCompression.isResponseEnabled()) {
+            // Advertises the configured codings and decodes response entities as they are read
+            httpClientBuilder.setContentDecoderRegistry(httpCompression.decoders("httpclient"));
+        } else {
+            httpClientBuilder.disableContentCompression();
+        }
+        return httpClientBuilder.build();
+    }
+
+    /**
+     * Configures and provides a started CloseableHttpAsyncClient running on a small I/O reactor.
+     * <p>
+     * With {@code FORCE_HTTP_2} a dedicated HTTP/2 client is built that multiplexes concurrent requests as
+     * streams over a single connection per host (h2c prior knowledge for plain http, ALPN for https).
+     * {@code NEGOTIATE} and {@code FORCE_HTTP_1} use a pooled connection manager with TLS/ALPN version policy.
+     *
+     * @param versionPolicy        the HTTP protocol version policy.
+     * @param maxConcurrentStreams the maximum concurrent HTTP/2 streams per connection.
+     * @param meterRegistry        the registry for the pool gauges.
+     * @param clientMetrics        the shared client metrics, used to count retries.
+     * @param retryPolicies        the shared retry policies and per-host retry budgets.
+     * @param dnsCache             the shared DNS cache the pooled connection manager resolves through.
+     * @return a fully configured and started CloseableHttpAsyncClient.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient closeableHttpAsyncClient(
+            @Value("${http-client.async.version-policy:NEGOTIATE}") HttpVersionPolicy versionPolicy,
+            @Value("${http-client.async.max-concurrent-streams:100}") int maxConcurrentStreams,
+            MeterRegistry meterRegistry, ClientMetrics clientMetrics, RetryPolicies retryPolicies,
+            SharedDnsCache dnsCache) {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(Runtime.getRuntime().availableProcessors()) // One reactor thread per core
+                .setSoTimeout(Timeout.ofSeconds(15)) // Socket inactivity timeout
+                .build();
+
+        H2Config h2Config = H2Config.custom()
+                .setMaxConcurrentStreams(maxConcurrentStreams) // Streams multiplexed per connection
+                .setPushEnabled(false)
                 .build();
+
+        RequestConfig defaultRequestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofSeconds(5)) // Timeout for acquiring a connection
+                .setResponseTimeout(Timeout.ofSeconds(15)) // Timeout for receiving a response
+                .build();
+
+        BudgetedHttpRequestRetryStrategy retryStrategy =
+                new BudgetedHttpRequestRetryStrategy(retryPolicies, clientMetrics, "httpclient-async");
+
+        CloseableHttpAsyncClient httpAsyncClient;
+        if (versionPolicy == HttpVersionPolicy.FORCE_HTTP_2) {
+            httpAsyncClient = HttpAsyncClients.customHttp2()
+                    .setIOReactorConfig(ioReactorConfig)
+                    .setH2Config(h2Config)
+                    .setDefaultRequestConfig(defaultRequestConfig)
+                    .addRequestInterceptorFirst(retryStrategy)
+                    .setRetryStrategy(retryStrategy)
+                    .build();
+        } else {
+            PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(200) // Maximum total connections
+                    .setMaxConnPerRoute(50) // Maximum connections per route
+                    .setDnsResolver(dnsCache)
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                            .setConnectTimeout(Timeout.ofSeconds(10)) // Timeout for establishing a connection
+                            .build())
+                    .setDefaultTlsConfig(TlsConfig.custom()
+                            .setVersionPolicy(versionPolicy) // ALPN negotiation of h2 over TLS
+                            .build())
+                    .build();
+            new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "async-http-client-pool")
+                    .bindTo(meterRegistry);
+
+            httpAsyncClient = HttpAsyncClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setIOReactorConfig(ioReactorConfig)
+                    .setH2Config(h2Config)
+                    .setDefaultRequestConfig(defaultRequestConfig)
+                    .evictExpiredConnections() // Automatically evict expired connections
+                    .evictIdleConnections(TimeValue.ofMinutes(1)) // Evict idle connections after 1 minute
+                    .addRequestInterceptorFirst(retryStrategy)
+                    .setRetryStrategy(retryStrategy)
+                    .build();
+        }
+
+        // The I/O reactor must be running before the first request is submitted
+        httpAsyncClient.start();
+        return httpAsyncClient;
     }
 
     /**
      * Configures and provides an ObjectMapper for JSON serialization and deserialization.
+     * The mapper is fully configured here and never modified afterwards, since the {@code CodecRegistry}
+     * caches readers and writers derived from it.
      *
+     * @param blackbird            whether to register the Blackbird module, which replaces reflective property
+     *                             access with generated lambdas.
+     * @param stringDedup          whether {@code @Deduplicated} String properties are decoded through a shared
+     *                             intern table.
+     * @param stringDedupTableSize the number of slots of that intern table.
      * @return a fully configured ObjectMapper.
      */
     @Bean
-    public ObjectMapper objectMapper() {
-        return new ObjectMapper()
+    public ObjectMapper objectMapper(@Value("${client.codec.blackbird.enabled:false}") boolean blackbird,
+                                     @Value("${client.codec.string-dedup.enabled:false}") boolean stringDedup,
+                                     @Value("${client.codec.string-dedup.table-size:4096}") int stringDedupTableSize) {
+        ObjectMapper objectMapper = new ObjectMapper()
                 .registerModule(new ParameterNamesModule()) // Handles parameter names
                 .registerModule(new Jdk8Module())           // Handles Java 8 optional and streams
-                .registerModule(new JavaTimeModule())       // Handles Java 8 date/time APIs
-                .findAndRegisterModules();                  // Automatically registers other compatible modules
+                .registerModule(new JavaTimeModule());      // Handles Java 8 date/time APIs
+        // Automatically registers other compatible modules; Blackbird is on the classpath but opt-in
+        for (Module module : ObjectMapper.findModules()) {
+            if (!(module instanceof BlackbirdModule)) {
+                objectMapper.registerModule(module);
+            }
+        }
+        if (stringDedup) {
+            objectMapper.registerModule(new StringDeduplicationModule(new StringInternTable(stringDedupTableSize)));
+        }
+        if (blackbird) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        return objectMapper;
     }
 }
@@ -1,114 +1,311 @@
 package com.srv.sumit.webclient_demo.configuration;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srv.sumit.webclient_demo.cache.CachingGetExecutor;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.ContentNegotiation;
+import com.srv.sumit.webclient_demo.loadgen.TrafficRecorder;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import com.srv.sumit.webclient_demo.resilience.ConcurrencyLimiters;
+import com.srv.sumit.webclient_demo.resilience.HostResilience;
+import com.srv.sumit.webclient_demo.resilience.RateLimiters;
+import com.srv.sumit.webclient_demo.resilience.RetryPolicies;
+import com.srv.sumit.webclient_demo.util.BulkExecutor;
+import com.srv.sumit.webclient_demo.util.BulkResult;
+import com.srv.sumit.webclient_demo.util.RequestCoalescer;
+import com.srv.sumit.webclient_demo.util.RequestHedger;
 import com.srv.sumit.webclient_demo.util.ResponseHandler;
+import com.srv.sumit.webclient_demo.util.UriTemplateEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
 import java.net.URI;
-import java.time.Duration;
 import java.util.Map;
+import java.util.function.Function;
 
 @Component
 public class NonBlockingWebClientHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NonBlockingWebClientHelper.class);
+    private static final String CLIENT = "webclient-nonblocking";
     private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private final RequestCoalescer requestCoalescer;
+    private final CachingGetExecutor cachingGetExecutor;
+    private final UriTemplateEngine uriTemplateEngine;
+    private final ClientMetrics clientMetrics;
+    private final HostResilience hostResilience;
+    private final RateLimiters rateLimiters;
+    private final ConcurrencyLimiters concurrencyLimiters;
+    private final RequestHedger requestHedger;
+    private final RetryPolicies retryPolicies;
+    private final BulkExecutor bulkExecutor;
+    private final ContentNegotiation contentNegotiation;
+    private final CodecRegistry codecRegistry;
+    private final TrafficRecorder trafficRecorder;
 
     @Autowired
-    public NonBlockingWebClientHelper(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
+    public NonBlockingWebClientHelper(WebClient.Builder webClientBuilder,
+                                      RequestCoalescer requestCoalescer, CachingGetExecutor cachingGetExecutor,
+                                      UriTemplateEngine uriTemplateEngine, ClientMetrics clientMetrics,
+                                      HostResilience hostResilience, ConcurrencyLimiters concurrencyLimiters,
+                                      RequestHedger requestHedger, RetryPolicies retryPolicies,
+                                      BulkExecutor bulkExecutor, RateLimiters rateLimiters,
+                                      ContentNegotiation contentNegotiation, CodecRegistry codecRegistry,
+                                      TrafficRecorder trafficRecorder) {
         this.webClient = webClientBuilder.build();
-        this.objectMapper = objectMapper;
+        this.trafficRecorder = trafficRecorder;
+        this.codecRegistry = codecRegistry;
+        this.bulkExecutor = bulkExecutor;
+        this.contentNegotiation = contentNegotiation;
+        this.retryPolicies = retryPolicies;
+        this.requestHedger = requestHedger;
+        this.clientMetrics = clientMetrics;
+        this.hostResilience = hostResilience;
+        this.rateLimiters = rateLimiters;
+        this.concurrencyLimiters = concurrencyLimiters;
+        this.uriTemplateEngine = uriTemplateEngine;
+        this.requestCoalescer = requestCoalescer;
+        this.cachingGetExecutor = cachingGetExecutor;
     }
 
     private URI buildUri(String baseUrl, String uriPath, Map<String, String> queryParams) {
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl).path(uriPath);
+        return buildUri(baseUrl, uriPath, null, queryParams);
+    }
+
+    /**
+     * Expands the URI template. Path variable values are encoded as one path segment, so a {@code /} in a value
+     * is sent as {@code %2F}, and a placeholder without a value throws {@link IllegalArgumentException}; callers
+     * building the URI for a returned publisher do so inside {@code defer} so that surfaces as an error signal.
+     */
+    private URI buildUri(String baseUrl, String uriPath, Map<String, String> pathVariables,
+                         Map<String, String> queryParams) {
+        MultiValueMap<String, String> params = null;
         if (queryParams != null && !queryParams.isEmpty()) {
-            queryParams.forEach(builder::queryParam);
+            params = new LinkedMultiValueMap<>(queryParams.size());
+            queryParams.forEach(params::add);
         }
-        return builder.build().encode().toUri();
+        return URI.create(uriTemplateEngine.expand(baseUrl, uriPath, pathVariables, params));
     }
 
-    private Retry getRetryStrategy() {
-        return Retry.backoff(3, Duration.ofSeconds(2))
-                .jitter(0.75)
-                .filter(throwable -> throwable instanceof WebClientResponseException)
-                .doAfterRetry(retrySignal -> LOGGER.warn("Retrying request, attempt: {}", retrySignal.totalRetries()));
+    /**
+     * Guards one attempt: the host's rate limit, then the adaptive concurrency limit, so waiting calls hold
+     * neither a slot nor a breaker permission nor count their wait as upstream latency, then the host's
+     * circuit breaker and bulkhead.
+     */
+    private <T> Mono<T> guard(URI uri, Mono<T> attempt) {
+        return rateLimiters.limit(uri, concurrencyLimiters.limit(uri, hostResilience.guard(uri, attempt)));
+    }
+
+    private <T> Flux<T> guard(URI uri, Flux<T> attempt) {
+        return rateLimiters.limit(uri, concurrencyLimiters.limit(uri, hostResilience.guard(uri, attempt)));
     }
 
     public <T> Mono<T> get(String baseUrl, String uriPath, Class<T> clazz, Map<String, String> headers, Map<String, String> queryParams) {
-        URI uri = buildUri(baseUrl, uriPath, queryParams);
-        return webClient.get()
+        trafficRecorder.record(CLIENT, HttpMethod.GET, baseUrl, uriPath, headers, queryParams, null, clazz);
+        return Mono.defer(() -> get(buildUri(baseUrl, uriPath, queryParams), baseUrl, uriPath, clazz, headers));
+    }
+
+    private <T> Mono<T> get(URI uri, String baseUrl, String uriPath, Class<T> clazz, Map<String, String> headers) {
+        Mono<T> exchange = cachingGetExecutor.isEnabled()
+                ? cachingGetExecutor.get(webClient, uri, headers, clazz, upstream -> requestHedger.hedge(baseUrl + uriPath, guard(uri, upstream))
+                        .retryWhen(retryPolicies.retry(CLIENT, "GET", uriPath, uri)))
+                : webClient.get()
+                        .uri(uri)
+                        .headers(httpHeaders -> {
+                            if (headers != null) {
+                                httpHeaders.setAll(headers);
+                            }
+                            contentNegotiation.negotiate(uri, httpHeaders);
+                        })
+                        .retrieve()
+                        .toEntity(DataBuffer.class)
+                        .flatMap(response -> ResponseHandler.handleResponse(response, clazz, codecRegistry))
+                        .transform(attempt -> guard(uri, attempt))
+                        .transform(attempt -> requestHedger.hedge(baseUrl + uriPath, attempt))
+                        .retryWhen(retryPolicies.retry(CLIENT, "GET", uriPath, uri));
+        // Identical concurrent GETs share one exchange when coalescing is enabled
+        return clientMetrics.timed(CLIENT, "GET", uriPath,
+                requestCoalescer.coalesce(HttpMethod.GET, uri, headers, clazz, () -> exchange
+                        .doOnError(error -> LOGGER.error("GET request failed for URI {}: {}", uri, error.getMessage()))
+                        .onErrorResume(WebClientResponseException.class, ex -> {
+                            LOGGER.error("HTTP error ({}): {}", ex.getStatusCode(), ex.getMessage());
+                            return Mono.error(new RuntimeException("HTTP error: " + ex.getStatusCode(), ex));
+                        })));
+    }
+
+    /**
+     * Streams a JSON array response, emitting each element as soon as it is parsed from the incoming buffers.
+     * Backpressure from the subscriber is propagated to the connection, so the body is never held in full.
+     */
+    public <T> Flux<T> streamList(String baseUrl, String uriPath, Class<T> clazz, Map<String, String> headers, Map<String, String> queryParams) {
+        trafficRecorder.record(CLIENT, HttpMethod.GET, baseUrl, uriPath, headers, queryParams, null, clazz.arrayType());
+        return Flux.defer(() -> streamList(buildUri(baseUrl, uriPath, queryParams), uriPath, clazz, headers));
+    }
+
+    private <T> Flux<T> streamList(URI uri, String uriPath, Class<T> clazz, Map<String, String> headers) {
+        return clientMetrics.timed(CLIENT, "GET", uriPath, webClient.get()
                 .uri(uri)
                 .headers(httpHeaders -> {
                     if (headers != null) {
                         httpHeaders.setAll(headers);
                     }
+                    contentNegotiation.negotiateStreaming(uri, httpHeaders);
                 })
                 .retrieve()
-                .bodyToMono(String.class)
-                .flatMap(response -> ResponseHandler.handleResponse(response, clazz, objectMapper))
-                .retryWhen(getRetryStrategy())
-                .doOnError(error -> LOGGER.error("GET request failed for URI {}: {}", uri, error.getMessage()))
+                .bodyToFlux(clazz)
+                .transform(attempt -> guard(uri, attempt))
+                // Status errors surface before any element is emitted, so only those are safe to retry
+                .retryWhen(retryPolicies.retry(CLIENT, "GET", uriPath, uri,
+                        throwable -> throwable instanceof WebClientResponseException))
+                .doOnError(error -> LOGGER.error("Streaming GET request failed for URI {}: {}", uri, error.getMessage()))
                 .onErrorResume(WebClientResponseException.class, ex -> {
                     LOGGER.error("HTTP error ({}): {}", ex.getStatusCode(), ex.getMessage());
-                    return Mono.error(new RuntimeException("HTTP error: " + ex.getStatusCode(), ex));
-                });
+                    return Flux.error(new RuntimeException("HTTP error: " + ex.getStatusCode(), ex));
+                }));
     }
 
     public <T, R> Mono<T> post(String baseUrl, String uriPath, R body, Class<T> clazz, Map<String, String> headers, Map<String, String> queryParams) {
-        URI uri = buildUri(baseUrl, uriPath, queryParams);
-        return webClient.post()
-                .uri(uri)
-                .headers(httpHeaders -> {
-                    if (headers != null) {
-                        httpHeaders.setAll(headers);
-                    }
-                })
-                .bodyValue(body)
-                .retrieve()
-                .bodyToMono(String.class)
-                .flatMap(response -> ResponseHandler.handleResponse(response, clazz, objectMapper))
-                .retryWhen(getRetryStrategy())
-                .doOnError(error -> LOGGER.error("POST request failed for URI {}: {}", uri, error.getMessage()))
-                .onErrorResume(WebClientResponseException.class, ex -> {
-                    LOGGER.error("HTTP error ({}): {}", ex.getStatusCode(), ex.getMessage());
-                    return Mono.error(new RuntimeException("HTTP error: " + ex.getStatusCode(), ex));
-                });
+        trafficRecorder.record(CLIENT, HttpMethod.POST, baseUrl, uriPath, headers, queryParams, body, clazz);
+        return Mono.defer(() -> send(HttpMethod.POST, buildUri(baseUrl, uriPath, queryParams), uriPath, body, clazz,
+                headers));
     }
 
     public <T, R> Mono<T> put(String baseUrl, String uriPath, R body, Class<T> clazz, Map<String, String> headers, Map<String, String> queryParams) {
-        URI uri = buildUri(baseUrl, uriPath, queryParams);
-        return webClient.put()
+        trafficRecorder.record(CLIENT, HttpMethod.PUT, baseUrl, uriPath, headers, queryParams, body, clazz);
+        return Mono.defer(() -> send(HttpMethod.PUT, buildUri(baseUrl, uriPath, queryParams), uriPath, body, clazz,
+                headers));
+    }
+
+    public Mono<Void> delete(String baseUrl, String uriPath, Map<String, String> headers, Map<String, String> queryParams) {
+        trafficRecorder.record(CLIENT, HttpMethod.DELETE, baseUrl, uriPath, headers, queryParams, null, null);
+        return Mono.defer(() -> delete(buildUri(baseUrl, uriPath, queryParams), uriPath, headers));
+    }
+
+    /**
+     * Bulk POST of every body to the same URI, with the configured concurrency and result order.
+     * See {@link #postAll(String, String, Flux, Class, Map, Map, int, boolean)}.
+     */
+    public <T, R> Flux<BulkResult<R, T>> postAll(String baseUrl, String uriPath, Flux<R> bodies, Class<T> clazz,
+                                                 Map<String, String> headers, Map<String, String> queryParams) {
+        return Flux.defer(() -> {
+            URI uri = buildUri(baseUrl, uriPath, queryParams);
+            return bulkExecutor.execute(bodies, body -> send(HttpMethod.POST, uri, uriPath, body, clazz, headers));
+        });
+    }
+
+    /**
+     * Bulk POST of every body to the same URI. Requests are pipelined with at most {@code concurrency} in
+     * flight, the source is pulled only as they complete, and each one is guarded and retried like a single
+     * {@link #post}. A failing item is reported in its result without aborting the batch.
+     *
+     * @param concurrency Maximum requests in flight.
+     * @param ordered     Whether results keep the source order instead of completion order.
+     * @return One result per body.
+     */
+    public <T, R> Flux<BulkResult<R, T>> postAll(String baseUrl, String uriPath, Flux<R> bodies, Class<T> clazz,
+                                                 Map<String, String> headers, Map<String, String> queryParams,
+                                                 int concurrency, boolean ordered) {
+        return Flux.defer(() -> {
+            URI uri = buildUri(baseUrl, uriPath, queryParams);
+            return bulkExecutor.execute(bodies, body -> send(HttpMethod.POST, uri, uriPath, body, clazz, headers),
+                    concurrency, ordered);
+        });
+    }
+
+    /**
+     * Bulk PUT with the configured concurrency and result order.
+     * See {@link #putAll(String, String, Flux, Function, Class, Map, int, boolean)}.
+     */
+    public <T, R> Flux<BulkResult<R, T>> putAll(String baseUrl, String uriPath, Flux<R> bodies,
+                                                Function<R, Map<String, String>> pathVariables, Class<T> clazz,
+                                                Map<String, String> headers) {
+        return bulkExecutor.execute(bodies, body -> send(HttpMethod.PUT,
+                buildUri(baseUrl, uriPath, pathVariables.apply(body), null), uriPath, body, clazz, headers));
+    }
+
+    /**
+     * Bulk PUT, each body to the URI template expanded with its own path variables (e.g. its id).
+     * Pipelined, backpressured and reported per item like {@link #postAll}.
+     *
+     * @param pathVariables Derives the path variables of a body.
+     * @param concurrency   Maximum requests in flight.
+     * @param ordered       Whether results keep the source order instead of completion order.
+     * @return One result per body.
+     */
+    public <T, R> Flux<BulkResult<R, T>> putAll(String baseUrl, String uriPath, Flux<R> bodies,
+                                                Function<R, Map<String, String>> pathVariables, Class<T> clazz,
+                                                Map<String, String> headers, int concurrency, boolean ordered) {
+        return bulkExecutor.execute(bodies, body -> send(HttpMethod.PUT,
+                        buildUri(baseUrl, uriPath, pathVariables.apply(body), null), uriPath, body, clazz, headers),
+                concurrency, ordered);
+    }
+
+    /**
+     * Bulk DELETE with the configured concurrency and result order.
+     * See {@link #deleteAll(String, String, Flux, Map, int, boolean)}.
+     */
+    public Flux<BulkResult<Map<String, String>, Void>> deleteAll(String baseUrl, String uriPath,
+                                                                 Flux<Map<String, String>> pathVariables,
+                                                                 Map<String, String> headers) {
+        return bulkExecutor.execute(pathVariables,
+                variables -> delete(buildUri(baseUrl, uriPath, variables, null), uriPath, headers));
+    }
+
+    /**
+     * Bulk DELETE, one request per set of path variables. Pipelined, backpressured and reported per item
+     * like {@link #postAll}.
+     *
+     * @param pathVariables The path variables of each entity to delete.
+     * @param concurrency   Maximum requests in flight.
+     * @param ordered       Whether results keep the source order instead of completion order.
+     * @return One result per entity.
+     */
+    public Flux<BulkResult<Map<String, String>, Void>> deleteAll(String baseUrl, String uriPath,
+                                                                 Flux<Map<String, String>> pathVariables,
+                                                                 Map<String, String> headers,
+                                                                 int concurrency, boolean ordered) {
+        return bulkExecutor.execute(pathVariables,
+                variables -> delete(buildUri(baseUrl, uriPath, variables, null), uriPath, headers),
+                concurrency, ordered);
+    }
+
+    /**
+     * One guarded, retried and timed request with a body (POST or PUT).
+     */
+    private <T> Mono<T> send(HttpMethod method, URI uri, String uriPath, Object body, Class<T> clazz,
+                             Map<String, String> headers) {
+        return clientMetrics.timed(CLIENT, method.name(), uriPath, webClient.method(method)
                 .uri(uri)
                 .headers(httpHeaders -> {
                     if (headers != null) {
                         httpHeaders.setAll(headers);
                     }
+                    contentNegotiation.negotiate(uri, httpHeaders);
                 })
-                .bodyValue(body)
+                .body(contentNegotiation.body(CLIENT, uri, body))
                 .retrieve()
-                .bodyToMono(String.class)
-                .flatMap(response -> ResponseHandler.handleResponse(response, clazz, objectMapper))
-                .retryWhen(getRetryStrategy())
-                .doOnError(error -> LOGGER.error("PUT request failed for URI {}: {}", uri, error.getMessage()))
+                .toEntity(DataBuffer.class)
+                .flatMap(response -> ResponseHandler.handleResponse(response, clazz, codecRegistry))
+                .transform(attempt -> guard(uri, attempt))
+                .retryWhen(retryPolicies.retry(CLIENT, method.name(), uriPath, uri))
+                .doOnError(error -> LOGGER.error("{} request failed for URI {}: {}", method, uri, error.getMessage()))
                 .onErrorResume(WebClientResponseException.class, ex -> {
                     LOGGER.error("HTTP error ({}): {}", ex.getStatusCode(), ex.getMessage());
                     return Mono.error(new RuntimeException("HTTP error: " + ex.getStatusCode(), ex));
-                });
+                }));
     }
 
-    public Mono<Void> delete(String baseUrl, String uriPath, Map<String, String> headers, Map<String, String> queryParams) {
-        URI uri = buildUri(baseUrl, uriPath, queryParams);
-        return webClient.delete()
+    private Mono<Void> delete(URI uri, String uriPath, Map<String, String> headers) {
+        return clientMetrics.timed(CLIENT, "DELETE", uriPath, webClient.delete()
                 .uri(uri)
                 .headers(httpHeaders -> {
                     if (headers != null) {
@@ -117,11 +314,12 @@ public class NonBlockingWebClientHelper {
                 })
                 .retrieve()
                 .bodyToMono(Void.class)
-                .retryWhen(getRetryStrategy())
+                .transform(attempt -> guard(uri, attempt))
+                .retryWhen(retryPolicies.retry(CLIENT, "DELETE", uriPath, uri))
                 .doOnError(error -> LOGGER.error("DELETE request failed for URI {}: {}", uri, error.getMessage()))
                 .onErrorResume(WebClientResponseException.class, ex -> {
                     LOGGER.error("HTTP error ({}): {}", ex.getStatusCode(), ex.getMessage());
                     return Mono.error(new RuntimeException("HTTP error: " + ex.getStatusCode(), ex));
-                });
+                }));
     }
 }
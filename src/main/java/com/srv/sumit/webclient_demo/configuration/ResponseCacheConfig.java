@@ -0,0 +1,23 @@
+package com.srv.sumit.webclient_demo.configuration;
+
+import com.srv.sumit.webclient_demo.cache.CaffeineHttpResponseCache;
+import com.srv.sumit.webclient_demo.cache.HttpResponseCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class ResponseCacheConfig {
+
+    /**
+     * Configures the client-side GET response cache, bounded by the total size of the cached response bodies.
+     *
+     * @param maxSize the maximum total size of cached responses.
+     * @return the response cache.
+     */
+    @Bean
+    public HttpResponseCache httpResponseCache(@Value("${webclient.cache.max-size:64MB}") DataSize maxSize) {
+        return new CaffeineHttpResponseCache(maxSize.toBytes());
+    }
+}
@@ -1,24 +1,42 @@
 package com.srv.sumit.webclient_demo.configuration;
 
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.compression.HttpCompression;
+import com.srv.sumit.webclient_demo.dns.SharedDnsCache;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import com.srv.sumit.webclient_demo.metrics.InstrumentedPoolingConnectionManager;
+import com.srv.sumit.webclient_demo.resilience.BudgetedHttpRequestRetryStrategy;
+import com.srv.sumit.webclient_demo.resilience.RetryPolicies;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.client.RestClient;
 
 @Configuration
 public class RestClientConfiguration {
     @Bean
     @Primary
-    public RestClient.Builder restClientBuilder() {
-        // Create a pooling connection manager to efficiently manage connections
-        PoolingHttpClientConnectionManager poolingConnManager = new PoolingHttpClientConnectionManager();
-        poolingConnManager.setMaxTotal(200); // Max connections for the entire pool
-        poolingConnManager.setDefaultMaxPerRoute(20); // Max connections per route
+    public RestClient.Builder restClientBuilder(MeterRegistry meterRegistry, ClientMetrics clientMetrics,
+                                                RetryPolicies retryPolicies, HttpCompression httpCompression,
+                                                SharedDnsCache dnsCache, CodecRegistry codecRegistry) {
+        // Create a pooling connection manager to efficiently manage connections, reporting as "restclient-pool"
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(200) // Max connections for the entire pool
+                .setMaxConnPerRoute(20) // Max connections per route
+                .setDnsResolver(dnsCache)
+                .build();
+        InstrumentedPoolingConnectionManager poolingConnManager =
+                new InstrumentedPoolingConnectionManager(meterRegistry, "restclient-pool", pool);
 
         // Define connection and socket timeouts
         RequestConfig requestConfig = RequestConfig.custom()
@@ -26,20 +44,45 @@ public class RestClientConfiguration {
                 .setResponseTimeout(Timeout.ofMilliseconds(10000)) // 10 seconds read timeout
                 .build();
 
+        // Retries follow the shared retry policies, selected by request path, and the host's retry budget
+        var retryStrategy = new BudgetedHttpRequestRetryStrategy(retryPolicies, clientMetrics, "restclient");
+
         // Create HttpClient with pooling connection manager and timeouts
-        var httpClient = HttpClients.custom()
+        var httpClientBuilder = HttpClients.custom()
                 .setDefaultRequestConfig(requestConfig) // Apply the timeouts
                 .setConnectionManager(poolingConnManager) // Set connection manager for pooling
-                .build();
+                .addRequestInterceptorFirst(retryStrategy)
+                .setRetryStrategy(retryStrategy);
+        if (httpCompression.isResponseEnabled()) {
+            // Accept compressed responses and decode them while RestClient reads the body
+            httpClientBuilder.setContentDecoderRegistry(httpCompression.decoders("restclient"));
+        } else {
+            httpClientBuilder.disableContentCompression();
+        }
+        var httpClient = httpClientBuilder.build();
 
         // Use HttpComponentsClientHttpRequestFactory to bridge HttpClient to RestClient
         HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
 
         // Return RestClient.builder() with the custom ClientHttpFactory (HttpClient)
-        return RestClient.builder()
+        RestClient.Builder builder = RestClient.builder()
                 .requestFactory(factory)
                 .defaultHeader("Accept", "application/json")
-                .defaultHeader("Content-Type", "application/json");  // Set the custom ClientHttpFactory
+                .defaultHeader("Content-Type", "application/json")  // Set the custom ClientHttpFactory
+                .messageConverters(converters -> {
+                    // Read and write Smile/CBOR with the application's mapper settings instead of the defaults
+                    converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                            || converter instanceof MappingJackson2CborHttpMessageConverter);
+                    converters.add(new MappingJackson2SmileHttpMessageConverter(
+                            codecRegistry.mapper(PayloadFormat.SMILE)));
+                    converters.add(new MappingJackson2CborHttpMessageConverter(
+                            codecRegistry.mapper(PayloadFormat.CBOR)));
+                });
+        if (httpCompression.isRequestEnabled()) {
+            // Interceptors buffer the body, so only register one when large bodies are to be compressed
+            builder.requestInterceptor(httpCompression.requestInterceptor("restclient"));
+        }
+        return builder;
     }
 
 
@@ -1,39 +1,129 @@
 package com.srv.sumit.webclient_demo.configuration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.compression.HttpCompression;
+import com.srv.sumit.webclient_demo.dns.SharedDnsCache;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
+import java.util.Arrays;
 
 @Configuration
 public class WebClientConfig {
 
+    /**
+     * Configures the WebClient.Builder shared by the WebClient helpers.
+     *
+     * @param objectMapper               the shared ObjectMapper for the JSON codecs.
+     * @param httpCompression            the response content codings to accept and decode.
+     * @param protocols                  the HTTP protocols the client may use, see {@link #httpClient}.
+     * @param maxConcurrentStreams       the maximum concurrent HTTP/2 streams per connection.
+     * @param maxHttp2ConnectionsPerHost the maximum HTTP/2 connections per host.
+     * @param dnsCache                   the shared DNS cache new connections resolve through.
+     * @param codecRegistry              the Smile and CBOR mappers for binary payloads.
+     * @return a WebClient.Builder on the pooled Reactor Netty client.
+     */
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        ConnectionProvider connectionProvider = ConnectionProvider.builder("webclient-pool")
+    public WebClient.Builder webClientBuilder(ObjectMapper objectMapper, HttpCompression httpCompression,
+                                              SharedDnsCache dnsCache, CodecRegistry codecRegistry,
+                                              @Value("${webclient.protocols:HTTP11}") HttpProtocol[] protocols,
+                                              @Value("${webclient.http2.max-concurrent-streams:100}") int maxConcurrentStreams,
+                                              @Value("${webclient.http2.max-connections:4}") int maxHttp2ConnectionsPerHost) {
+        HttpClient httpClient = httpClient(protocols, maxConcurrentStreams, maxHttp2ConnectionsPerHost)
+                // Decodes gzip/deflate responses chunk by chunk in the pipeline, before the codecs see them
+                .compress(httpCompression.isResponseEnabled());
+        if (dnsCache.isEnabled()) {
+            // Resolve through the cache shared with the httpclient5 pools instead of a per-client resolver
+            httpClient = httpClient.resolver(dnsCache.addressResolverGroup());
+        }
+
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .exchangeStrategies(ExchangeStrategies.builder()
+                        .codecs(configurer -> {
+                            // Use the shared ObjectMapper so bodyToFlux/bodyToMono decode exactly like ResponseHandler
+                            configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                            configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                            // Binary formats for hosts negotiated by ContentNegotiation, with the same mapper settings
+                            ObjectMapper smileMapper = codecRegistry.mapper(PayloadFormat.SMILE);
+                            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper));
+                            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper));
+                            ObjectMapper cborMapper = codecRegistry.mapper(PayloadFormat.CBOR);
+                            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper));
+                            configurer.customCodecs().register(new Jackson2CborEncoder(cborMapper));
+                            configurer.defaultCodecs().maxInMemorySize(16 * 1024 * 1024);
+                        })
+                        .build())
+                .defaultHeader("Accept", "application/json")
+                .defaultHeader("Content-Type", "application/json");
+        if (httpCompression.isResponseEnabled()) {
+            // Advertise every configured coding rather than Reactor Netty's default of gzip only
+            builder.defaultHeader("Accept-Encoding", httpCompression.acceptEncoding());
+        }
+        return builder;
+    }
+
+    /**
+     * Creates the pooled Reactor Netty client speaking the given protocols.
+     * <p>
+     * {@code HTTP11} alone keeps one request per connection. {@code H2,HTTP11} negotiates h2 through ALPN for
+     * https and falls back to HTTP/1.1 when the server does not offer it (plain http stays on HTTP/1.1).
+     * {@code H2C} alone uses HTTP/2 prior knowledge over plain http; {@code H2C,HTTP11} upgrades instead.
+     * With HTTP/2, concurrent requests are multiplexed as streams: a host gets up to
+     * {@code maxHttp2ConnectionsPerHost} connections of up to {@code maxConcurrentStreams} streams each
+     * (or fewer if the server advertises a lower {@code SETTINGS_MAX_CONCURRENT_STREAMS}).
+     *
+     * @param protocols                  the HTTP protocols the client may use.
+     * @param maxConcurrentStreams       the maximum concurrent HTTP/2 streams per connection.
+     * @param maxHttp2ConnectionsPerHost the maximum HTTP/2 connections per host.
+     * @return the configured HttpClient, without content compression.
+     */
+    public HttpClient httpClient(HttpProtocol[] protocols, int maxConcurrentStreams, int maxHttp2ConnectionsPerHost) {
+        boolean http2 = Arrays.stream(protocols).anyMatch(p -> p == HttpProtocol.H2 || p == HttpProtocol.H2C);
+
+        ConnectionProvider.Builder providerBuilder = ConnectionProvider.builder("webclient-pool")
                 .maxConnections(200) // Adjust based on load
                 .maxIdleTime(Duration.ofSeconds(30))
-                .build();
+                // Publishes reactor.netty.connection.provider.* gauges (total, active, idle, pending) and the
+                // pending-acquire timer to the global registry, which Spring Boot bridges to its MeterRegistry
+                .metrics(true);
+        if (http2) {
+            // Only for HTTP/2: the allocation strategy would otherwise cap the HTTP/1.1 pool at the h2 connection count
+            providerBuilder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConcurrentStreams(maxConcurrentStreams) // Streams multiplexed per connection
+                    .maxConnections(maxHttp2ConnectionsPerHost)
+                    .minConnections(1)
+                    .build());
+        }
 
-        HttpClient httpClient = HttpClient.create(connectionProvider)
+        HttpClient httpClient = HttpClient.create(providerBuilder.build())
+                .protocol(protocols)
                 .responseTimeout(Duration.ofSeconds(10))
                 .doOnConnected(conn -> conn
                         .addHandlerLast(new ReadTimeoutHandler(10))
                         .addHandlerLast(new WriteTimeoutHandler(10)));
-
-        return WebClient.builder()
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .exchangeStrategies(ExchangeStrategies.builder()
-                        .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
-                        .build())
-                .defaultHeader("Accept", "application/json")
-                .defaultHeader("Content-Type", "application/json");
+        if (http2) {
+            httpClient = httpClient.http2Settings(settings -> settings.maxConcurrentStreams(maxConcurrentStreams));
+        }
+        return httpClient;
     }
 }
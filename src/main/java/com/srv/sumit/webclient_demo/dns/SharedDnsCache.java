@@ -0,0 +1,145 @@
+package com.srv.sumit.webclient_demo.dns;
+
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.InetSocketAddressResolver;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asynchronous DNS resolution with a TTL-respecting cache, shared by all client stacks.
+ * <p>
+ * A single Netty {@link DnsNameResolver} runs on its own event loop; records are cached for their TTL clamped
+ * to {@code [min-ttl, max-ttl]}, failed lookups for {@code negative-ttl}, and {@code /etc/hosts} is honoured.
+ * Reactor Netty resolves through {@link #addressResolverGroup()} without blocking its event loops; the httpclient5
+ * pools use this class as their {@link DnsResolver} and wait for the lookup, which a cache hit answers at once.
+ * Lookups made while prewarming the pools therefore serve the first real calls. A lookup may take several
+ * queries (CNAME chains, other name servers, A and AAAA), each bounded by {@code query-timeout}, so the wait is
+ * bounded by one query timeout more than the lookup is allowed queries.
+ * When disabled every httpclient5 lookup goes to the JVM resolver and Reactor Netty keeps its own.
+ */
+@Component
+public class SharedDnsCache implements DnsResolver, DisposableBean {
+
+    // Netty's default, set explicitly as it bounds how long a blocking lookup may wait
+    private static final int MAX_QUERIES_PER_RESOLVE = 16;
+
+    private final boolean enabled;
+    private final long queryTimeoutMillis;
+    private final long resolveTimeoutMillis;
+    private final NioEventLoopGroup eventLoopGroup;
+    private final DnsNameResolver nameResolver;
+    private final AddressResolverGroup<InetSocketAddress> addressResolverGroup;
+
+    public SharedDnsCache(@Value("${client.dns.cache.enabled:true}") boolean enabled,
+                          @Value("${client.dns.cache.min-ttl:0s}") Duration minTtl,
+                          @Value("${client.dns.cache.max-ttl:5m}") Duration maxTtl,
+                          @Value("${client.dns.cache.negative-ttl:10s}") Duration negativeTtl,
+                          @Value("${client.dns.query-timeout:2s}") Duration queryTimeout) {
+        this.enabled = enabled;
+        this.queryTimeoutMillis = queryTimeout.toMillis();
+        this.resolveTimeoutMillis = queryTimeoutMillis * (MAX_QUERIES_PER_RESOLVE + 1);
+        if (!enabled) {
+            this.eventLoopGroup = null;
+            this.nameResolver = null;
+            this.addressResolverGroup = null;
+            return;
+        }
+        this.eventLoopGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("dns-resolver", true));
+        this.nameResolver = new DnsNameResolverBuilder(eventLoopGroup.next())
+                .datagramChannelType(NioDatagramChannel.class)
+                .resolveCache(new DefaultDnsCache(
+                        (int) minTtl.toSeconds(), (int) maxTtl.toSeconds(), (int) negativeTtl.toSeconds()))
+                .queryTimeoutMillis(queryTimeoutMillis)
+                .maxQueriesPerResolve(MAX_QUERIES_PER_RESOLVE)
+                .build();
+        this.addressResolverGroup = new AddressResolverGroup<>() {
+            @Override
+            protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor) {
+                return new InetSocketAddressResolver(executor, nameResolver) {
+                    @Override
+                    public void close() {
+                        // The name resolver is shared and closed with this bean, not with one event loop
+                    }
+                };
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The resolver group for Reactor Netty's {@code HttpClient.resolver(...)}; only when enabled.
+     */
+    public AddressResolverGroup<InetSocketAddress> addressResolverGroup() {
+        if (!enabled) {
+            throw new IllegalStateException("The shared DNS cache is disabled");
+        }
+        return addressResolverGroup;
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        if (!enabled) {
+            return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+        }
+        Future<List<InetAddress>> lookup = nameResolver.resolveAll(host);
+        try {
+            // The resolver completes the lookup once its queries have answered or timed out; this only backs it up
+            return lookup.get(resolveTimeoutMillis, TimeUnit.MILLISECONDS).toArray(new InetAddress[0]);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof UnknownHostException unknownHost) {
+                throw unknownHost;
+            }
+            throw unknownHost(host, ex.getCause());
+        } catch (TimeoutException ex) {
+            lookup.cancel(false);
+            throw unknownHost(host, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw unknownHost(host, ex);
+        }
+    }
+
+    @Override
+    public String resolveCanonicalHostname(String host) throws UnknownHostException {
+        // Only needed for Kerberos/SPNEGO service names, which never sit on a hot path
+        return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+    }
+
+    @Override
+    public void destroy() {
+        if (enabled) {
+            nameResolver.close();
+            eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    private static UnknownHostException unknownHost(String host, Throwable cause) {
+        UnknownHostException exception = new UnknownHostException(host);
+        exception.initCause(cause);
+        return exception;
+    }
+}
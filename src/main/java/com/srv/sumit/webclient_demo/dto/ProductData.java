@@ -1,18 +1,23 @@
 package com.srv.sumit.webclient_demo.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.srv.sumit.webclient_demo.codec.Deduplicated;
 
 public class ProductData {
     //@JsonProperty("Color")
+    @Deduplicated
     private String color;
+    @Deduplicated
     private String capacity;
 
     private int year;
     private double price;
 
+    @Deduplicated
     @JsonProperty("CPU model") // Handle spaces in property names
     private String cpuModel;
 
+    @Deduplicated
     @JsonProperty("Hard disk size") // Handle spaces in property names
     private String hardDiskSize;
 
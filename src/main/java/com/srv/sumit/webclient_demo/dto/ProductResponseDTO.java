@@ -2,6 +2,7 @@ package com.srv.sumit.webclient_demo.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.srv.sumit.webclient_demo.codec.Deduplicated;
 
 import java.time.LocalDateTime;
 
@@ -52,8 +53,10 @@ public class ProductResponseDTO {
     public static class ProductDataDTO {
         private int year;
         private double price;
+        @Deduplicated
         @JsonProperty("CPU model") // Handle spaces in property names
         private String cpuModel;
+        @Deduplicated
         @JsonProperty("Hard disk size") // Handle spaces in property names
         private String hardDiskSize;
 
@@ -0,0 +1,23 @@
+package com.srv.sumit.webclient_demo.exception;
+
+import java.io.Serial;
+
+/**
+ * Raised without contacting the upstream when its circuit breaker is open or its bulkhead is full.
+ */
+public class CallNotPermittedException extends HttpClientException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String host;
+
+    public CallNotPermittedException(String message, String host) {
+        super(message, 503, null);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -1,7 +1,12 @@
 package com.srv.sumit.webclient_demo.exception;
 
+import java.io.Serial;
+
 public class HttpClientException extends RuntimeException {
 
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final int statusCode;
 
     public HttpClientException(String message, int statusCode, Throwable cause) {
@@ -0,0 +1,139 @@
+package com.srv.sumit.webclient_demo.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classifies the errors raised by the client helpers, which wrap the underlying client's exceptions in
+ * different ways, by looking through the whole cause chain.
+ */
+public final class HttpErrorClassifier {
+
+    private HttpErrorClassifier() {
+    }
+
+    /**
+     * Finds the HTTP status carried in the cause chain.
+     *
+     * @param error The error raised by a call.
+     * @return The response status, or {@code -1} if the call never got a response.
+     */
+    public static int statusCode(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof WebClientResponseException ex) {
+                return ex.getStatusCode().value();
+            }
+            if (current instanceof RestClientResponseException ex) {
+                return ex.getStatusCode().value();
+            }
+        }
+        // The helpers report I/O failures as HttpClientException(500); those never saw a response
+        if (isIoError(error)) {
+            return -1;
+        }
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof HttpClientException ex) {
+                return ex.getStatusCode();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Whether the call failed with a connect, connection-acquire, read or response timeout.
+     */
+    public static boolean isTimeout(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            // InterruptedIOException covers socket, connect and connection-request timeouts of httpclient5
+            if (current instanceof TimeoutException
+                    || current instanceof InterruptedIOException
+                    || current instanceof io.netty.handler.timeout.TimeoutException
+                    || current instanceof io.netty.channel.ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether the call failed at the transport level, before a complete response was received.
+     */
+    public static boolean isIoError(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            // Jackson's exceptions are IOExceptions too, but mean a response was received
+            if (current instanceof IOException && !(current instanceof JsonProcessingException)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether the connection could not be established, i.e. the request was certainly never sent.
+     */
+    public static boolean isConnectFailure(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof ConnectException
+                    || current instanceof org.apache.hc.client5.http.ConnectTimeoutException
+                    || current instanceof io.netty.channel.ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the {@code Retry-After} header of the error response carried in the cause chain.
+     *
+     * @param error The error raised by a call.
+     * @return The delay the upstream asked for, or {@code null} if there is none.
+     */
+    public static Duration retryAfter(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            HttpHeaders headers = null;
+            if (current instanceof WebClientResponseException ex) {
+                headers = ex.getHeaders();
+            } else if (current instanceof RestClientResponseException ex) {
+                headers = ex.getResponseHeaders();
+            }
+            if (headers != null) {
+                return parseRetryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a {@code Retry-After} value, given either as delay-seconds or as an HTTP date.
+     *
+     * @param value The header value, may be {@code null}.
+     * @return The delay from now (never negative), or {@code null} if the value is absent or malformed.
+     */
+    public static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            if (Character.isDigit(trimmed.charAt(0))) {
+                return Duration.ofSeconds(Long.parseLong(trimmed));
+            }
+            Duration delay = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.srv.sumit.webclient_demo.loadgen;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Formats replay results with one column per client helper, and writes their full percentile distributions.
+ */
+final class LatencyReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String LABEL = "%-24s";
+    private static final String COLUMN = "%24s";
+
+    private LatencyReport() {
+    }
+
+    /**
+     * @param title   The first line, describing the run.
+     * @param results One result per client helper.
+     * @return The side-by-side report.
+     */
+    static String format(String title, List<ReplayResult> results) {
+        StringBuilder report = new StringBuilder(title).append(System.lineSeparator());
+        row(report, "", results, ReplayResult::client);
+        row(report, "requests", results, result -> String.valueOf(result.requests()));
+        row(report, "errors", results, result -> String.valueOf(result.errors()));
+        row(report, "unsupported", results, result -> String.valueOf(result.unsupported()));
+        row(report, "throughput (req/s)", results, result -> String.format(Locale.ROOT, "%.1f", result.throughput()));
+        for (double percentile : PERCENTILES) {
+            millisRow(report, "latency p" + label(percentile) + " (ms)", results,
+                    result -> result.latency().getValueAtPercentile(percentile));
+        }
+        millisRow(report, "latency max (ms)", results, result -> result.latency().getMaxValue());
+        millisRow(report, "service p50 (ms)", results, result -> result.serviceTime().getValueAtPercentile(50));
+        millisRow(report, "service p99 (ms)", results, result -> result.serviceTime().getValueAtPercentile(99));
+        millisRow(report, "service max (ms)", results, result -> result.serviceTime().getMaxValue());
+        return report.toString();
+    }
+
+    /**
+     * Writes the corrected latency distribution of each helper to {@code <client>.hgrm}, in milliseconds, for
+     * plotting with the HdrHistogram tools.
+     */
+    static void writeDistributions(Path directory, List<ReplayResult> results) throws IOException {
+        Files.createDirectories(directory);
+        for (ReplayResult result : results) {
+            Path distribution = directory.resolve(result.client() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(distribution))) {
+                result.latency().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private static void millisRow(StringBuilder report, String label, List<ReplayResult> results,
+                                  ToDoubleFunction<ReplayResult> nanos) {
+        row(report, label, results,
+                result -> String.format(Locale.ROOT, "%.3f", nanos.applyAsDouble(result) / NANOS_PER_MILLI));
+    }
+
+    private static void row(StringBuilder report, String label, List<ReplayResult> results,
+                            Function<ReplayResult, String> value) {
+        report.append(String.format(LABEL, label));
+        for (ReplayResult result : results) {
+            report.append(String.format(COLUMN, value.apply(result)));
+        }
+        report.append(System.lineSeparator());
+    }
+
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,367 @@
+package com.srv.sumit.webclient_demo.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.configuration.NonBlockingWebClientHelper;
+import com.srv.sumit.webclient_demo.util.HttpClientHelper;
+import com.srv.sumit.webclient_demo.util.RestClientHelper;
+import com.srv.sumit.webclient_demo.util.WebClientHelper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a traffic recording through each client helper in turn and reports their latencies side by side.
+ * <p>
+ * Each helper first replays for {@code warmup}, unmeasured, then for {@code duration}, cycling through the
+ * recorded requests, which by default go to a local {@link StubServer} instead of their recorded base URL.
+ * <ul>
+ *     <li>{@code OPEN_LOOP} sends a request every {@code 1/rate} seconds whether or not earlier ones completed,
+ *     each on its own virtual thread. Latency is measured from the time a request was scheduled to be sent, so
+ *     a stall of the client (or of the load generator) counts against every request it delayed instead of
+ *     only the one it happened to (coordinated omission). At most {@code max-in-flight} requests are
+ *     outstanding; beyond that sending waits, which still shows in the latencies.</li>
+ *     <li>{@code MAX_THROUGHPUT} runs {@code concurrency} callers back to back. With no schedule to measure
+ *     against, latency is corrected only when {@code expected-interval} is set, by back-filling the requests a
+ *     slow one held up with {@link Histogram#recordValueWithExpectedInterval}.</li>
+ * </ul>
+ * Both modes also record the plain service time (send to completion). The helpers keep their whole
+ * configuration (cache, coalescing, resilience), so the results measure what the application would see.
+ * {@code restclient} and {@code httpclient} only offer GET and POST; other recorded methods are counted
+ * as unsupported for them.
+ */
+@Component
+public class LoadGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    public enum Mode {
+        OPEN_LOOP,
+        MAX_THROUGHPUT
+    }
+
+    private final WebClientHelper webClientHelper;
+    private final NonBlockingWebClientHelper nonBlockingWebClientHelper;
+    private final RestClientHelper restClientHelper;
+    private final HttpClientHelper httpClientHelper;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path file;
+    private final List<String> clients;
+    private final Mode mode;
+    private final int rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int concurrency;
+    private final int maxInFlight;
+    private final long expectedIntervalNanos;
+    private final boolean stubEnabled;
+    private final int stubPort;
+    private final Duration stubLatency;
+    private final int stubListSize;
+    private final String reportDir;
+
+    public LoadGenerator(WebClientHelper webClientHelper, NonBlockingWebClientHelper nonBlockingWebClientHelper,
+                         RestClientHelper restClientHelper, HttpClientHelper httpClientHelper,
+                         CodecRegistry codecRegistry,
+                         @Value("${client.loadgen.replay.enabled:false}") boolean enabled,
+                         @Value("${client.loadgen.file:${java.io.tmpdir}/webclient-traffic.rec}") Path file,
+                         @Value("${client.loadgen.clients:webclient,webclient-nonblocking,restclient,httpclient}")
+                         List<String> clients,
+                         @Value("${client.loadgen.mode:OPEN_LOOP}") Mode mode,
+                         @Value("${client.loadgen.rate:200}") int rate,
+                         @Value("${client.loadgen.warmup:10s}") Duration warmup,
+                         @Value("${client.loadgen.duration:30s}") Duration duration,
+                         @Value("${client.loadgen.concurrency:64}") int concurrency,
+                         @Value("${client.loadgen.max-in-flight:10000}") int maxInFlight,
+                         @Value("${client.loadgen.expected-interval:0ms}") Duration expectedInterval,
+                         @Value("${client.loadgen.stub.enabled:true}") boolean stubEnabled,
+                         @Value("${client.loadgen.stub.port:0}") int stubPort,
+                         @Value("${client.loadgen.stub.latency:0ms}") Duration stubLatency,
+                         @Value("${client.loadgen.stub.list-size:20}") int stubListSize,
+                         @Value("${client.loadgen.report-dir:}") String reportDir) {
+        this.webClientHelper = webClientHelper;
+        this.nonBlockingWebClientHelper = nonBlockingWebClientHelper;
+        this.restClientHelper = restClientHelper;
+        this.httpClientHelper = httpClientHelper;
+        this.objectMapper = codecRegistry.mapper(PayloadFormat.JSON);
+        this.enabled = enabled;
+        this.file = file;
+        this.clients = clients;
+        this.mode = mode;
+        this.rate = rate;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.concurrency = concurrency;
+        this.maxInFlight = maxInFlight;
+        this.expectedIntervalNanos = expectedInterval.toNanos();
+        this.stubEnabled = stubEnabled;
+        this.stubPort = stubPort;
+        this.stubLatency = stubLatency;
+        this.stubListSize = stubListSize;
+        this.reportDir = reportDir;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replays the recording through every configured helper and logs the report.
+     *
+     * @return One result per helper, in the configured order.
+     */
+    public List<ReplayResult> run() throws IOException {
+        List<RecordedRequest> recording = TrafficFile.read(file);
+        if (recording.isEmpty()) {
+            LOGGER.warn("Traffic recording {} holds no requests, nothing to replay", file);
+            return List.of();
+        }
+        List<ReplayResult> results = new ArrayList<>(clients.size());
+        try (StubServer stub = stubEnabled ? startStub(recording) : null) {
+            List<Call> calls = calls(recording, stub == null ? null : stub.baseUrl());
+            for (String client : clients) {
+                LOGGER.info("Replaying {} recorded requests through {}", recording.size(), client);
+                replay(client, calls, warmup);
+                results.add(replay(client, calls, duration));
+            }
+        }
+        LOGGER.info("{}{}", System.lineSeparator(), LatencyReport.format(title(), results));
+        if (StringUtils.hasText(reportDir)) {
+            LatencyReport.writeDistributions(Path.of(reportDir), results);
+        }
+        return results;
+    }
+
+    private String title() {
+        if (mode == Mode.OPEN_LOOP) {
+            return String.format("Replay of %s, open loop at %d req/s for %s (latency from intended send time)",
+                    file, rate, duration);
+        }
+        String correction = expectedIntervalNanos > 0
+                ? "corrected for an expected interval of " + Duration.ofNanos(expectedIntervalNanos)
+                : "uncorrected";
+        return String.format("Replay of %s, %d callers back to back for %s (latency %s)",
+                file, concurrency, duration, correction);
+    }
+
+    private StubServer startStub(List<RecordedRequest> recording) throws IOException {
+        byte[] product = StubServer.productJson(objectMapper);
+        byte[] productList = StubServer.productListJson(objectMapper, stubListSize);
+        // Recorded list calls get a list back, everything else a single product
+        Map<String, byte[]> getBodies = new HashMap<>();
+        for (RecordedRequest request : recording) {
+            if ("GET".equals(request.method())) {
+                boolean list = request.responseType() != null && request.responseType().startsWith("[");
+                getBodies.put(path(request), list ? productList : product);
+            }
+        }
+        StubServer stub = new StubServer(stubPort, stubLatency, getBodies, product);
+        LOGGER.info("Stub server listening on {}", stub.baseUrl());
+        return stub;
+    }
+
+    /**
+     * Resolves what every replay of a request needs once, so the measured loop only makes calls.
+     */
+    private List<Call> calls(List<RecordedRequest> recording, String stubBaseUrl) throws IOException {
+        ClassLoader classLoader = getClass().getClassLoader();
+        List<Call> calls = new ArrayList<>(recording.size());
+        for (RecordedRequest request : recording) {
+            Class<?> responseType = JsonNode.class;
+            if (request.responseType() != null && ClassUtils.isPresent(request.responseType(), classLoader)) {
+                responseType = ClassUtils.resolveClassName(request.responseType(), classLoader);
+            }
+            JsonNode body = request.body() == null ? null : objectMapper.readTree(request.body());
+            calls.add(new Call(request, stubBaseUrl != null ? stubBaseUrl : request.baseUrl(), path(request),
+                    responseType, body));
+        }
+        return calls;
+    }
+
+    private static String path(RecordedRequest request) {
+        return UriComponentsBuilder.fromPath(request.uriTemplate())
+                .buildAndExpand(request.pathVariables() == null ? Map.of() : request.pathVariables())
+                .toUriString();
+    }
+
+    private ReplayResult replay(String client, List<Call> calls, Duration length) {
+        Histogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        LongAdder errors = new LongAdder();
+        LongAdder unsupported = new LongAdder();
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("loadgen-" + client + "-", 0).factory())) {
+            if (mode == Mode.OPEN_LOOP) {
+                long intervalNanos = 1_000_000_000L / rate;
+                Semaphore inFlight = new Semaphore(maxInFlight);
+                for (long i = 0; ; i++) {
+                    long intended = start + i * intervalNanos;
+                    if (intended >= end) {
+                        break;
+                    }
+                    parkUntil(intended);
+                    Call call = calls.get((int) (i % calls.size()));
+                    inFlight.acquireUninterruptibly();
+                    executor.execute(() -> {
+                        try {
+                            long sent = System.nanoTime();
+                            if (execute(client, call, errors, unsupported)) {
+                                long completed = System.nanoTime();
+                                serviceTime.recordValue(completed - sent);
+                                latency.recordValue(completed - intended);
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } else {
+                AtomicLong sequence = new AtomicLong();
+                for (int caller = 0; caller < concurrency; caller++) {
+                    executor.execute(() -> {
+                        while (System.nanoTime() < end) {
+                            Call call = calls.get((int) (sequence.getAndIncrement() % calls.size()));
+                            long sent = System.nanoTime();
+                            if (execute(client, call, errors, unsupported)) {
+                                long elapsed = System.nanoTime() - sent;
+                                serviceTime.recordValue(elapsed);
+                                if (expectedIntervalNanos > 0) {
+                                    latency.recordValueWithExpectedInterval(elapsed, expectedIntervalNanos);
+                                } else {
+                                    latency.recordValue(elapsed);
+                                }
+                            }
+                        }
+                    });
+                }
+            }
+        } // Closing the executor waits for the requests in flight
+        return new ReplayResult(client, latency, serviceTime, errors.sum(), unsupported.sum(),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Waits until the given {@link System#nanoTime()}; returns at once when it has already passed, so a late
+     * sender catches up on its schedule instead of shifting it.
+     */
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Makes one call through the given helper.
+     *
+     * @return Whether a request was made; failed requests count as errors but were made all the same.
+     */
+    private boolean execute(String client, Call call, LongAdder errors, LongAdder unsupported) {
+        try {
+            switch (client) {
+                case "webclient" -> webClient(call);
+                case "webclient-nonblocking" -> nonBlockingWebClient(call);
+                case "restclient" -> restClient(call);
+                case "httpclient" -> httpClient(call);
+                default -> throw new IllegalArgumentException("Unknown client " + client);
+            }
+        } catch (UnsupportedOperationException ex) {
+            unsupported.increment();
+            return false;
+        } catch (RuntimeException ex) {
+            errors.increment();
+            LOGGER.debug("{} {} through {} failed: {}", call.request().method(), call.path(), client, ex.getMessage());
+        }
+        return true;
+    }
+
+    private void webClient(Call call) {
+        RecordedRequest request = call.request();
+        switch (request.method()) {
+            case "GET" -> webClientHelper.get(call.baseUrl(), request.uriTemplate(), call.responseType(),
+                    request.headers(), request.pathVariables(), request.queryParams());
+            case "POST" -> webClientHelper.post(call.baseUrl(), request.uriTemplate(), call.responseType(),
+                    request.headers(), request.pathVariables(), call.body());
+            case "PUT" -> webClientHelper.put(call.baseUrl(), request.uriTemplate(), call.responseType(),
+                    request.headers(), request.pathVariables(), call.body());
+            case "DELETE" -> webClientHelper.delete(call.baseUrl(), request.uriTemplate(), request.headers(),
+                    request.pathVariables());
+            default -> throw new UnsupportedOperationException(request.method());
+        }
+    }
+
+    /**
+     * The non-blocking helper takes neither path variables nor repeated query parameters: the path is sent
+     * expanded and only the first value of each parameter is kept.
+     */
+    private void nonBlockingWebClient(Call call) {
+        RecordedRequest request = call.request();
+        Map<String, String> queryParams = request.queryParams() == null ? null
+                : request.queryParams().toSingleValueMap();
+        switch (request.method()) {
+            case "GET" -> nonBlockingWebClientHelper.get(call.baseUrl(), call.path(), call.responseType(),
+                    request.headers(), queryParams).block();
+            case "POST" -> nonBlockingWebClientHelper.post(call.baseUrl(), call.path(), call.body(),
+                    call.responseType(), request.headers(), queryParams).block();
+            case "PUT" -> nonBlockingWebClientHelper.put(call.baseUrl(), call.path(), call.body(),
+                    call.responseType(), request.headers(), queryParams).block();
+            case "DELETE" -> nonBlockingWebClientHelper.delete(call.baseUrl(), call.path(), request.headers(),
+                    queryParams).block();
+            default -> throw new UnsupportedOperationException(request.method());
+        }
+    }
+
+    private void restClient(Call call) {
+        RecordedRequest request = call.request();
+        switch (request.method()) {
+            case "GET" -> restClientHelper.get(call.baseUrl(), request.uriTemplate(), request.headers(),
+                    request.pathVariables(), request.queryParams(), call.responseType());
+            case "POST" -> restClientHelper.post(call.baseUrl(), request.uriTemplate(), request.headers(),
+                    call.body(), request.pathVariables(), call.responseType());
+            default -> throw new UnsupportedOperationException(request.method());
+        }
+    }
+
+    private void httpClient(Call call) {
+        RecordedRequest request = call.request();
+        switch (request.method()) {
+            case "GET" -> httpClientHelper.get(call.baseUrl(), request.uriTemplate(), request.headers(),
+                    request.pathVariables(), request.queryParams(), call.responseType());
+            case "POST" -> httpClientHelper.post(call.baseUrl(), request.uriTemplate(), request.headers(),
+                    call.body(), request.pathVariables(), call.responseType());
+            default -> throw new UnsupportedOperationException(request.method());
+        }
+    }
+
+    /**
+     * A recorded request resolved for replay: target base URL, expanded path, response class and parsed body.
+     */
+    private record Call(RecordedRequest request, String baseUrl, String path, Class<?> responseType, JsonNode body) {
+    }
+}
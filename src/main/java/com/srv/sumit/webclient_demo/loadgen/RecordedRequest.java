@@ -0,0 +1,24 @@
+package com.srv.sumit.webclient_demo.loadgen;
+
+import org.springframework.util.MultiValueMap;
+
+import java.util.Map;
+
+/**
+ * One call made through a client helper, as written by the {@link TrafficRecorder} and replayed by the
+ * {@link LoadGenerator}.
+ *
+ * @param client        The helper the call was made with ({@code webclient}, {@code restclient}, ...).
+ * @param method        The HTTP method.
+ * @param baseUrl       Base URL of the API.
+ * @param uriTemplate   The URI path template, before path variables are expanded.
+ * @param headers       The custom headers, without credentials.
+ * @param pathVariables Path variables to be replaced in the URI.
+ * @param queryParams   Query parameters appended to the URI.
+ * @param body          The request body as JSON, if any.
+ * @param responseType  Name of the class the response was mapped to; an array class for list calls.
+ */
+public record RecordedRequest(String client, String method, String baseUrl, String uriTemplate,
+                              Map<String, String> headers, Map<String, String> pathVariables,
+                              MultiValueMap<String, String> queryParams, byte[] body, String responseType) {
+}
@@ -0,0 +1,25 @@
+package com.srv.sumit.webclient_demo.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The measured phase of replaying a recording through one client helper.
+ *
+ * @param client       The helper the recording was replayed through.
+ * @param latency      Response time in nanoseconds, corrected for coordinated omission.
+ * @param serviceTime  Time from actually sending each request to its completion, in nanoseconds.
+ * @param errors       Requests that failed.
+ * @param unsupported  Requests the helper has no method for (e.g. PUT on {@code restclient}).
+ * @param elapsedNanos Length of the measured phase, including draining the requests in flight.
+ */
+public record ReplayResult(String client, Histogram latency, Histogram serviceTime, long errors, long unsupported,
+                           long elapsedNanos) {
+
+    public long requests() {
+        return serviceTime.getTotalCount();
+    }
+
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : requests() * 1_000_000_000d / elapsedNanos;
+    }
+}
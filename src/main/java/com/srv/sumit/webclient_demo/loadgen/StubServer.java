@@ -0,0 +1,128 @@
+package com.srv.sumit.webclient_demo.loadgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import com.srv.sumit.webclient_demo.dto.ProductData;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local HTTP server standing in for the upstream during a replay, so the load generator measures the client
+ * stacks rather than a remote service.
+ * <p>
+ * GET requests are answered with the body registered for their path, or a single product; POST and PUT echo
+ * their request body, like the {@code /objects} API; DELETE answers {@code 204}. Every response is delayed by a
+ * fixed {@code latency} to model the upstream's service time.
+ */
+final class StubServer implements AutoCloseable {
+
+    private static final String[] COLORS = {"Silver", "Space Gray", "Midnight", "Starlight", "Blue"};
+    private static final String[] CPU_MODELS = {"Intel Core i7", "Intel Core i9", "Apple M1", "Apple M2 Pro"};
+
+    private final DisposableServer server;
+    private final Map<String, byte[]> getBodies;
+    private final byte[] defaultBody;
+    private final Duration latency;
+
+    /**
+     * @param port        The port to listen on; 0 picks a free one.
+     * @param latency     The delay before every response.
+     * @param getBodies   The GET response body of each path.
+     * @param defaultBody The GET response body of every other path, and the POST/PUT body when there is none.
+     */
+    StubServer(int port, Duration latency, Map<String, byte[]> getBodies, byte[] defaultBody) {
+        this.getBodies = getBodies;
+        this.defaultBody = defaultBody;
+        this.latency = latency;
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(port)
+                .handle(this::handle)
+                .bindNow();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        Mono<Void> delay = latency.isZero() ? Mono.empty() : Mono.delay(latency).then();
+        HttpMethod method = request.method();
+        if (HttpMethod.DELETE.equals(method)) {
+            return request.receive().then()
+                    .then(delay)
+                    .then(Mono.defer(() -> response.status(HttpResponseStatus.NO_CONTENT).send().then()));
+        }
+        String contentType = MediaType.APPLICATION_JSON_VALUE;
+        Mono<byte[]> body;
+        if (HttpMethod.GET.equals(method)) {
+            body = Mono.just(getBodies.getOrDefault(new QueryStringDecoder(request.uri()).path(), defaultBody));
+        } else if (request.requestHeaders().contains(HttpHeaderNames.CONTENT_ENCODING)) {
+            // A content-coded request body is not echoed back as is
+            body = request.receive().then(Mono.just(defaultBody));
+        } else {
+            String requestType = request.requestHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+            if (requestType != null) {
+                contentType = requestType;
+            }
+            body = request.receive().aggregate().asByteArray().defaultIfEmpty(defaultBody);
+        }
+        String responseType = contentType;
+        return delay.then(body).flatMap(bytes -> response.status(HttpResponseStatus.OK)
+                .header(HttpHeaderNames.CONTENT_TYPE, responseType)
+                .sendByteArray(Mono.just(bytes))
+                .then());
+    }
+
+    /**
+     * @return A product as returned by {@code /objects/{id}}.
+     */
+    static byte[] productJson(ObjectMapper objectMapper) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product(0));
+    }
+
+    /**
+     * @return A product list as returned by {@code /objects}.
+     */
+    static byte[] productListJson(ObjectMapper objectMapper, int size) throws JsonProcessingException {
+        List<ProductDTO> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(product(i));
+        }
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    private static ProductDTO product(int index) {
+        ProductData data = new ProductData();
+        data.setColor(COLORS[index % COLORS.length]);
+        data.setYear(2015 + index % 10);
+        data.setPrice(499.99 + (index % 50) * 25);
+        data.setCpuModel(CPU_MODELS[index % CPU_MODELS.length]);
+        data.setHardDiskSize("1 TB");
+
+        ProductDTO product = new ProductDTO();
+        product.setId(String.valueOf(index + 1));
+        product.setName("Apple MacBook Pro 16");
+        product.setData(data);
+        return product;
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
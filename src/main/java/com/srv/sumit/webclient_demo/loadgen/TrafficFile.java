@@ -0,0 +1,261 @@
+package com.srv.sumit.webclient_demo.loadgen;
+
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary format of a traffic recording: a header followed by one entry per {@link RecordedRequest}.
+ * <p>
+ * Lengths and counts are varints, and strings go through a table shared by the whole file: the first occurrence
+ * of a string is written inline and every later one as its table index, so base URLs, templates, header names
+ * and repeated ids cost one or two bytes each. Once the table holds {@value #MAX_STRINGS} strings, new ones are
+ * written inline without being added. A recording cut short by a crash reads up to its last complete entry.
+ */
+public final class TrafficFile {
+
+    private static final int MAGIC = 0x57435452; // "WCTR"
+    private static final byte VERSION = 1;
+    private static final int MAX_STRINGS = 1 << 16;
+
+    // String references: 0 is null, then an inline string, a new table entry, or an index into the table
+    private static final int NULL = 0;
+    private static final int LITERAL = 1;
+    private static final int DEFINITION = 2;
+    private static final int REFERENCE = 3;
+
+    private TrafficFile() {
+    }
+
+    /**
+     * Creates (or truncates) the recording at the given path.
+     */
+    public static Writer create(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        return new Writer(Files.newOutputStream(path));
+    }
+
+    /**
+     * Reads every complete entry of a recording.
+     */
+    public static List<RecordedRequest> read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a traffic recording");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported traffic recording version " + version + " in " + path);
+            }
+            Reader reader = new Reader(in);
+            List<RecordedRequest> requests = new ArrayList<>();
+            try {
+                RecordedRequest request;
+                while ((request = reader.next()) != null) {
+                    requests.add(request);
+                }
+            } catch (EOFException ex) {
+                // Torn last entry of a recording that was not closed
+            }
+            return requests;
+        }
+    }
+
+    /**
+     * Appends entries to a recording; not thread-safe.
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Writer(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        public void append(RecordedRequest request) throws IOException {
+            writeString(request.client());
+            writeString(request.method());
+            writeString(request.baseUrl());
+            writeString(request.uriTemplate());
+            writeMap(request.headers());
+            writeMap(request.pathVariables());
+            MultiValueMap<String, String> queryParams = request.queryParams();
+            writeVarInt(queryParams == null ? 0 : queryParams.size());
+            if (queryParams != null) {
+                for (Map.Entry<String, List<String>> param : queryParams.entrySet()) {
+                    writeString(param.getKey());
+                    writeVarInt(param.getValue().size());
+                    for (String value : param.getValue()) {
+                        writeString(value);
+                    }
+                }
+            }
+            byte[] body = request.body();
+            writeVarInt(body == null ? 0 : body.length + 1);
+            if (body != null) {
+                out.write(body);
+            }
+            writeString(request.responseType());
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void writeMap(Map<String, String> map) throws IOException {
+            writeVarInt(map == null ? 0 : map.size());
+            if (map != null) {
+                for (Map.Entry<String, String> entry : map.entrySet()) {
+                    writeString(entry.getKey());
+                    writeString(entry.getValue());
+                }
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(NULL);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarInt(REFERENCE + index);
+                return;
+            }
+            if (strings.size() < MAX_STRINGS) {
+                strings.put(value, strings.size());
+                writeVarInt(DEFINITION);
+            } else {
+                writeVarInt(LITERAL);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    private static final class Reader {
+
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+
+        private Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return The next entry, or null at the end of the recording.
+         */
+        private RecordedRequest next() throws IOException {
+            int first = in.read();
+            if (first < 0) {
+                return null;
+            }
+            String client = readString(readVarInt(first));
+            String method = readString();
+            String baseUrl = readString();
+            String uriTemplate = readString();
+            Map<String, String> headers = readMap();
+            Map<String, String> pathVariables = readMap();
+            int paramCount = readVarInt();
+            MultiValueMap<String, String> queryParams = paramCount == 0 ? null : new LinkedMultiValueMap<>(paramCount);
+            for (int i = 0; i < paramCount; i++) {
+                String name = readString();
+                int valueCount = readVarInt();
+                for (int j = 0; j < valueCount; j++) {
+                    queryParams.add(name, readString());
+                }
+            }
+            int bodyLength = readVarInt();
+            byte[] body = null;
+            if (bodyLength > 0) {
+                body = new byte[bodyLength - 1];
+                in.readFully(body);
+            }
+            return new RecordedRequest(client, method, baseUrl, uriTemplate, headers, pathVariables, queryParams,
+                    body, readString());
+        }
+
+        private Map<String, String> readMap() throws IOException {
+            int size = readVarInt();
+            if (size == 0) {
+                return null;
+            }
+            Map<String, String> map = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                map.put(readString(), readString());
+            }
+            return map;
+        }
+
+        private String readString() throws IOException {
+            return readString(readVarInt());
+        }
+
+        private String readString(int reference) throws IOException {
+            if (reference == NULL) {
+                return null;
+            }
+            if (reference >= REFERENCE) {
+                return strings.get(reference - REFERENCE);
+            }
+            byte[] bytes = new byte[readVarInt()];
+            in.readFully(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            if (reference == DEFINITION) {
+                strings.add(value);
+            }
+            return value;
+        }
+
+        private int readVarInt() throws IOException {
+            return readVarInt(in.readUnsignedByte());
+        }
+
+        private int readVarInt(int first) throws IOException {
+            int value = first & 0x7F;
+            int shift = 7;
+            int next = first;
+            while ((next & 0x80) != 0) {
+                next = in.readUnsignedByte();
+                value |= (next & 0x7F) << shift;
+                shift += 7;
+            }
+            return value;
+        }
+    }
+}
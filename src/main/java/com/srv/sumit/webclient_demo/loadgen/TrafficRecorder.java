@@ -0,0 +1,193 @@
+package com.srv.sumit.webclient_demo.loadgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the calls made through the client helpers into a {@link TrafficFile}, for the {@link LoadGenerator}
+ * to replay.
+ * <p>
+ * The helpers hand each call to {@link #record} before making it; when recording is disabled that is a single
+ * field read. The call is copied (its body encoded as JSON) on the calling thread and written by a single
+ * background thread, so the file is appended in call order without contending writers. When that thread falls
+ * {@code queue-capacity} calls behind, further calls are dropped and counted rather than slowing the helpers down.
+ * Credentials ({@code Authorization}, {@code Cookie}, ...) are never written to the recording, and nothing is
+ * recorded while the {@link LoadGenerator} replays.
+ */
+@Component
+public class TrafficRecorder implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrafficRecorder.class);
+    private static final Set<String> SENSITIVE_HEADERS = Set.of(HttpHeaders.AUTHORIZATION.toLowerCase(),
+            HttpHeaders.PROXY_AUTHORIZATION.toLowerCase(), HttpHeaders.COOKIE.toLowerCase());
+
+    private final CodecRegistry codecRegistry;
+    private final boolean enabled;
+    private final Path file;
+    private final TrafficFile.Writer writer;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public TrafficRecorder(CodecRegistry codecRegistry,
+                           @Value("${client.loadgen.record.enabled:false}") boolean enabled,
+                           @Value("${client.loadgen.file:${java.io.tmpdir}/webclient-traffic.rec}") Path file,
+                           @Value("${client.loadgen.record.queue-capacity:10000}") int queueCapacity,
+                           @Value("${client.loadgen.replay.enabled:false}") boolean replaying) {
+        this.codecRegistry = codecRegistry;
+        this.file = file;
+        if (enabled && replaying) {
+            LOGGER.warn("Not recording client traffic while replaying {}", file);
+        }
+        // A replay reads the recording, and its own calls are not traffic worth recording
+        this.enabled = enabled && !replaying;
+        if (!this.enabled) {
+            this.writer = null;
+            this.executor = null;
+            return;
+        }
+        try {
+            this.writer = TrafficFile.create(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create the traffic recording " + file, ex);
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("traffic-recorder-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, (task, pool) -> dropped.increment());
+        LOGGER.info("Recording client traffic to {}", file);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Records one call; a no-op unless recording is enabled.
+     *
+     * @param client        The helper making the call.
+     * @param method        The HTTP method.
+     * @param baseUrl       Base URL of the API.
+     * @param uriPath       The URI path template.
+     * @param headers       Any headers sent with the request.
+     * @param pathVariables Path variables to be replaced in the URI.
+     * @param queryParams   Query parameters to append to the URI.
+     * @param body          The request body, if any.
+     * @param responseType  The class the response is mapped to; the element type's array class for list calls.
+     */
+    public void record(String client, HttpMethod method, String baseUrl, String uriPath, Map<String, String> headers,
+                       Map<String, String> pathVariables, MultiValueMap<String, String> queryParams, Object body,
+                       Class<?> responseType) {
+        if (!enabled) {
+            return;
+        }
+        byte[] json = null;
+        if (body != null) {
+            try {
+                json = codecRegistry.writer(PayloadFormat.JSON, body.getClass()).writeValueAsBytes(body);
+            } catch (JsonProcessingException ex) {
+                LOGGER.debug("Not recording {} {}: body cannot be encoded: {}", method, uriPath, ex.getMessage());
+                return;
+            }
+        }
+        RecordedRequest request = new RecordedRequest(client, method.name(), baseUrl, uriPath, copyHeaders(headers),
+                pathVariables == null ? null : new LinkedHashMap<>(pathVariables), copy(queryParams), json,
+                responseType == null ? null : responseType.getName());
+        executor.execute(() -> write(request));
+    }
+
+    /**
+     * Records one call of a helper taking single-valued query parameters.
+     */
+    public void record(String client, HttpMethod method, String baseUrl, String uriPath, Map<String, String> headers,
+                       Map<String, String> queryParams, Object body, Class<?> responseType) {
+        if (!enabled) {
+            return;
+        }
+        MultiValueMap<String, String> params = null;
+        if (queryParams != null) {
+            params = new LinkedMultiValueMap<>(queryParams.size());
+            queryParams.forEach(params::add);
+        }
+        record(client, method, baseUrl, uriPath, headers, null, params, body, responseType);
+    }
+
+    private void write(RecordedRequest request) {
+        try {
+            writer.append(request);
+            recorded.increment();
+            // Flush once the backlog is written, so a crash loses little without flushing every call
+            if (executor.getQueue().isEmpty()) {
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            dropped.increment();
+            LOGGER.warn("Cannot write to the traffic recording {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private static Map<String, String> copyHeaders(Map<String, String> headers) {
+        if (headers == null) {
+            return null;
+        }
+        Map<String, String> copy = new LinkedHashMap<>(headers.size() * 2);
+        headers.forEach((name, value) -> {
+            if (!SENSITIVE_HEADERS.contains(name.toLowerCase())) {
+                copy.put(name, value);
+            }
+        });
+        return copy;
+    }
+
+    private static MultiValueMap<String, String> copy(MultiValueMap<String, String> queryParams) {
+        if (queryParams == null) {
+            return null;
+        }
+        MultiValueMap<String, String> copy = new LinkedMultiValueMap<>(queryParams.size());
+        queryParams.forEach(copy::addAll);
+        return copy;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        writer.close();
+        LOGGER.info("Recorded {} calls to {} ({} dropped)", recorded.sum(), file, dropped.sum());
+    }
+}
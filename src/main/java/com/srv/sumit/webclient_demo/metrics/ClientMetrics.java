@@ -0,0 +1,214 @@
+package com.srv.sumit.webclient_demo.metrics;
+
+import com.srv.sumit.webclient_demo.exception.CallNotPermittedException;
+import com.srv.sumit.webclient_demo.exception.HttpErrorClassifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation shared by all client helpers.
+ * <p>
+ * Every call is recorded in the {@code http.client.calls} timer (with a percentile histogram), tagged with
+ * the client, the HTTP method, the URI <em>template</em> (never the expanded URI, so tag cardinality stays
+ * bounded by the number of endpoints), the status code and the status class. Retries and timeouts are
+ * counted separately in {@code http.client.retries} and {@code http.client.timeouts}. Content coding is
+ * recorded per client, direction and encoding in {@code http.client.compression.*}.
+ */
+@Component
+public class ClientMetrics {
+
+    public static final String CALLS = "http.client.calls";
+    public static final String RETRIES = "http.client.retries";
+    public static final String TIMEOUTS = "http.client.timeouts";
+    public static final String COMPRESSION_RATIO = "http.client.compression.ratio";
+    public static final String COMPRESSION_SAVED = "http.client.compression.saved";
+    public static final String COMPRESSION_TIME = "http.client.compression.time";
+
+    /** HttpContext attributes read by {@link com.srv.sumit.webclient_demo.resilience.BudgetedHttpRequestRetryStrategy}. */
+    public static final String METHOD_ATTRIBUTE = ClientMetrics.class.getName() + ".method";
+    public static final String URI_TEMPLATE_ATTRIBUTE = ClientMetrics.class.getName() + ".uriTemplate";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public ClientMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times a blocking call.
+     *
+     * @param client      The client tag (e.g. {@code httpclient}).
+     * @param method      The HTTP method.
+     * @param uriTemplate The URI path template, e.g. {@code /objects/{id}}.
+     * @param call        The call to run.
+     * @param <T>         The response type.
+     * @return The call's result; errors are recorded and rethrown unchanged.
+     */
+    public <T> T timed(String client, String method, String uriTemplate, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = call.get();
+            record(sample, client, method, uriTemplate, null);
+            return result;
+        } catch (RuntimeException ex) {
+            record(sample, client, method, uriTemplate, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Times a reactive call from subscription to termination. Cancelled calls are recorded with outcome {@code CANCELLED}.
+     */
+    public <T> Mono<T> timed(String client, String method, String uriTemplate, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnSuccess(value -> record(sample, client, method, uriTemplate, null))
+                    .doOnError(error -> record(sample, client, method, uriTemplate, error))
+                    .doOnCancel(() -> recordCancelled(sample, client, method, uriTemplate));
+        });
+    }
+
+    /**
+     * Times a streaming call until the last element has been received.
+     */
+    public <T> Flux<T> timed(String client, String method, String uriTemplate, Flux<T> call) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnComplete(() -> record(sample, client, method, uriTemplate, null))
+                    .doOnError(error -> record(sample, client, method, uriTemplate, error))
+                    .doOnCancel(() -> recordCancelled(sample, client, method, uriTemplate));
+        });
+    }
+
+    /**
+     * Times an asynchronous call until its future completes.
+     */
+    public <T> CompletableFuture<T> timedAsync(String client, String method, String uriTemplate,
+                                               Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<T> future = call.get();
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                recordCancelled(sample, client, method, uriTemplate);
+            } else {
+                record(sample, client, method, uriTemplate, error);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Counts a retry attempt.
+     */
+    public void retried(String client, String method, String uriTemplate) {
+        Counter.builder(RETRIES)
+                .description("Retry attempts made by the HTTP clients")
+                .tags(baseTags(client, method, uriTemplate))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Records the outcome of compressing a request body or decompressing a response body.
+     *
+     * @param client       The client tag.
+     * @param direction    {@code request} or {@code response}.
+     * @param encoding     The content coding, e.g. {@code gzip}.
+     * @param encodedBytes Size on the wire.
+     * @param decodedBytes Size of the plain body.
+     * @param cpuNanos     Time spent in the codec, excluding the I/O it wraps.
+     */
+    public void compressed(String client, String direction, String encoding, long encodedBytes, long decodedBytes,
+                           long cpuNanos) {
+        if (encodedBytes <= 0 || decodedBytes <= 0) {
+            return;
+        }
+        Tags tags = Tags.of("client", client, "direction", direction, "encoding", encoding);
+        DistributionSummary.builder(COMPRESSION_RATIO)
+                .description("Plain body size divided by its size on the wire")
+                .tags(tags)
+                .register(meterRegistry)
+                .record((double) decodedBytes / encodedBytes);
+        Counter.builder(COMPRESSION_SAVED)
+                .description("Bytes kept off the wire by content coding")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .increment(Math.max(0, decodedBytes - encodedBytes));
+        Timer.builder(COMPRESSION_TIME)
+                .description("Time spent compressing request bodies and decompressing response bodies")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void record(Timer.Sample sample, String client, String method, String uriTemplate, Throwable error) {
+        String status = NONE;
+        String outcome;
+        if (error == null) {
+            // The helpers only hand back decoded bodies, so successes are tagged by class rather than exact code
+            status = "2xx";
+            outcome = "SUCCESS";
+        } else if (error instanceof CallNotPermittedException) {
+            // Rejected by the circuit breaker or bulkhead without touching the network
+            outcome = "REJECTED";
+        } else if (HttpErrorClassifier.isTimeout(error)) {
+            outcome = "TIMEOUT";
+            Counter.builder(TIMEOUTS)
+                    .description("HTTP client calls that failed with a connect, acquire, read or response timeout")
+                    .tags(baseTags(client, method, uriTemplate))
+                    .register(meterRegistry)
+                    .increment();
+        } else {
+            int statusCode = HttpErrorClassifier.statusCode(error);
+            if (statusCode > 0) {
+                status = String.valueOf(statusCode);
+                outcome = statusClass(statusCode);
+            } else {
+                outcome = HttpErrorClassifier.isIoError(error) ? "IO_ERROR" : "UNKNOWN";
+            }
+        }
+        sample.stop(timer(client, method, uriTemplate, status, outcome));
+    }
+
+    private void recordCancelled(Timer.Sample sample, String client, String method, String uriTemplate) {
+        sample.stop(timer(client, method, uriTemplate, NONE, "CANCELLED"));
+    }
+
+    private Timer timer(String client, String method, String uriTemplate, String status, String outcome) {
+        return Timer.builder(CALLS)
+                .description("Latency of HTTP client calls, including retries and response decoding")
+                .tags(baseTags(client, method, uriTemplate).and("status", status, "outcome", outcome))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Tags baseTags(String client, String method, String uriTemplate) {
+        return Tags.of("client", client, "method", method, "uri", uriTemplate != null ? uriTemplate : NONE);
+    }
+
+    private static String statusClass(int statusCode) {
+        return switch (statusCode / 100) {
+            case 1 -> "INFORMATIONAL";
+            case 2 -> "SUCCESS";
+            case 3 -> "REDIRECTION";
+            case 4 -> "CLIENT_ERROR";
+            case 5 -> "SERVER_ERROR";
+            default -> "UNKNOWN";
+        };
+    }
+}
@@ -0,0 +1,297 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import com.srv.sumit.webclient_demo.exception.CallNotPermittedException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit for one host that adapts to the upstream's latency, in the style of a gradient limiter.
+ * <p>
+ * Each successful call feeds its round-trip time into a long-term average. While the recent RTT stays
+ * close to that baseline the limit grows by a small headroom; when the upstream starts queueing and RTT
+ * rises, the limit shrinks in proportion ({@code gradient = tolerance * longRtt / rtt}, bounded to [0.5, 1]).
+ * Timeouts, transport errors and overload responses are treated as drops and cut the limit by 10%.
+ * Calls over the limit wait in a bounded FIFO queue for at most {@code maxWait} and are rejected otherwise.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Bounds and tuning of a limiter.
+     *
+     * @param initialLimit The limit before any sample has been taken.
+     * @param minLimit     The limit never goes below this.
+     * @param maxLimit     The limit never goes above this.
+     * @param tolerance    How much RTT may exceed the long-term average before the limit shrinks.
+     * @param maxQueue     Calls allowed to wait for a slot; further calls are rejected at once.
+     * @param maxWait      How long a queued call waits before it is rejected.
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                           int maxQueue, Duration maxWait) {
+    }
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_WINDOW = 600;
+    private static final int QUEUE_HEADROOM = 4;
+
+    private final String host;
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final Scheduler timer;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    // Guarded by this; read without locking only for metrics and admission
+    private volatile double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(String host, Settings settings) {
+        this(host, settings, System::nanoTime, Schedulers.parallel());
+    }
+
+    /**
+     * @param nanoClock The time source for round-trip times, {@link System#nanoTime} outside tests.
+     * @param timer     Runs the {@code maxWait} timeouts of queued calls.
+     */
+    AdaptiveConcurrencyLimiter(String host, Settings settings, LongSupplier nanoClock, Scheduler timer) {
+        this.host = host;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.timer = timer;
+        this.estimatedLimit = settings.initialLimit();
+    }
+
+    /**
+     * Acquires a slot, waiting in the queue if the limit is reached.
+     *
+     * @return A Mono emitting the slot's listener, or failing with {@link CallNotPermittedException}
+     * when the queue is full or the wait times out.
+     */
+    public Mono<Listener> acquire() {
+        return Mono.create(sink -> {
+            if (tryAcquire()) {
+                Listener listener = new Listener(nanoClock.getAsLong());
+                // Cancellation only fires if it beats the emission, and the sink then drops the listener
+                sink.onCancel(listener::release);
+                sink.success(listener);
+                return;
+            }
+            if (queued.incrementAndGet() > settings.maxQueue()) {
+                queued.decrementAndGet();
+                sink.error(rejected());
+                return;
+            }
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(waiter::cancel);
+            waiters.add(waiter);
+            waiter.timeout = timer.schedule(() -> waiter.abandon(rejected()),
+                    settings.maxWait().toNanos(), TimeUnit.NANOSECONDS);
+            // A slot may have been freed between the failed tryAcquire and the enqueue
+            drain();
+        });
+    }
+
+    private boolean tryAcquire() {
+        int current = inFlight.get();
+        while (current < getLimit()) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = inFlight.get();
+        }
+        return false;
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * Hands free slots to queued callers in arrival order.
+     */
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.grant()) {
+                // Nobody (still) waiting for the slot we just took
+                inFlight.decrementAndGet();
+                if (waiter == null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private CallNotPermittedException rejected() {
+        return new CallNotPermittedException("Concurrency limit reached for host " + host, host);
+    }
+
+    private void onSample(long rttNanos, int inFlightAtStart) {
+        synchronized (this) {
+            samples++;
+            if (samples == 1) {
+                longRttNanos = rttNanos;
+            } else {
+                double factor = 2.0 / (Math.min(samples, LONG_WINDOW) + 1);
+                longRttNanos = longRttNanos * (1 - factor) + rttNanos * factor;
+            }
+            if (longRttNanos / rttNanos > 2) {
+                // Latency dropped sharply (e.g. upstream recovered): let the baseline catch up quickly
+                longRttNanos *= 0.95;
+            }
+
+            double limit = estimatedLimit;
+            if (inFlightAtStart < limit / 2) {
+                // Demand is well below the limit, so this sample says nothing about where the limit should be
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, settings.tolerance() * longRttNanos / rttNanos));
+            double newLimit = limit * gradient + QUEUE_HEADROOM;
+            updateLimit(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+        }
+        // A raised limit may admit queued callers; granting runs their code, so never under the lock
+        drain();
+    }
+
+    private void onDrop() {
+        synchronized (this) {
+            updateLimit(estimatedLimit * BACKOFF_RATIO);
+        }
+    }
+
+    private void updateLimit(double newLimit) {
+        estimatedLimit = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), newLimit));
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * An acquired slot. The outcome is recorded once and the slot released once, whichever callbacks fire.
+     */
+    public final class Listener {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean sampled = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Listener(long startNanos) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlight.get();
+        }
+
+        /**
+         * Feeds the call's round-trip time into the limit.
+         */
+        public void onSuccess() {
+            if (sampled.compareAndSet(false, true)) {
+                onSample(nanoClock.getAsLong() - startNanos, inFlightAtStart);
+            }
+        }
+
+        /**
+         * Signals that the upstream is overloaded; the limit backs off.
+         */
+        public void onDropped() {
+            if (sampled.compareAndSet(false, true)) {
+                onDrop();
+            }
+        }
+
+        /**
+         * Records nothing, e.g. for cancelled calls or errors unrelated to load.
+         */
+        public void onIgnore() {
+            sampled.set(true);
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveConcurrencyLimiter.this.release();
+            }
+        }
+    }
+
+    /**
+     * A queued caller. Exactly one of grant, timeout and cancellation wins. A cancellation that loses to the grant
+     * but still beats the emission makes the sink drop the listener, so whichever of the two runs last releases it.
+     */
+    private final class Waiter {
+
+        private final MonoSink<Listener> sink;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Disposable timeout;
+        private volatile Listener granted;
+        private volatile boolean cancelled;
+
+        private Waiter(MonoSink<Listener> sink) {
+            this.sink = sink;
+        }
+
+        boolean grant() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            disposeTimeout();
+            Listener listener = new Listener(nanoClock.getAsLong());
+            granted = listener;
+            sink.success(listener);
+            if (cancelled) {
+                listener.release();
+            }
+            return true;
+        }
+
+        void cancel() {
+            cancelled = true;
+            abandon(null);
+            Listener listener = granted;
+            if (listener != null) {
+                listener.release();
+            }
+        }
+
+        void abandon(Throwable error) {
+            if (done.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                waiters.remove(this);
+                disposeTimeout();
+                if (error != null) {
+                    sink.error(error);
+                }
+            }
+        }
+
+        private void disposeTimeout() {
+            Disposable scheduled = timeout;
+            if (scheduled != null) {
+                scheduled.dispose();
+            }
+        }
+    }
+}
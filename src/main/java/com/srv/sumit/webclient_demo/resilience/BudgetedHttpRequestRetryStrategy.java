@@ -0,0 +1,133 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import com.srv.sumit.webclient_demo.exception.HttpErrorClassifier;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpRequestInterceptor;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.util.TimeValue;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * httpclient5 retry strategy backed by {@link RetryPolicies}, for the classic and the async clients.
+ * <p>
+ * It must also be registered as the first request interceptor: on a call's first attempt it resolves the
+ * route's policy and host, stores them in the execution context and credits the host's retry budget.
+ * The policy is selected by the URI template the helpers put into the context, or by the request path for
+ * callers that do not (RestClient). Granted retries are counted in {@link ClientMetrics#RETRIES}.
+ */
+public class BudgetedHttpRequestRetryStrategy implements HttpRequestRetryStrategy, HttpRequestInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = BudgetedHttpRequestRetryStrategy.class.getName() + ".scope";
+
+    private final RetryPolicies retryPolicies;
+    private final ClientMetrics clientMetrics;
+    private final String client;
+
+    public BudgetedHttpRequestRetryStrategy(RetryPolicies retryPolicies, ClientMetrics clientMetrics, String client) {
+        this.retryPolicies = retryPolicies;
+        this.clientMetrics = clientMetrics;
+        this.client = client;
+    }
+
+    @Override
+    public void process(HttpRequest request, EntityDetails entity, HttpContext context) {
+        if (context == null || context.getAttribute(SCOPE_ATTRIBUTE) != null) {
+            // Not the first attempt of this call
+            return;
+        }
+        String method = request.getMethod();
+        String uriTemplate = attribute(context, ClientMetrics.URI_TEMPLATE_ATTRIBUTE);
+        RetryPolicy policy = uriTemplate != null
+                ? retryPolicies.policyFor(method, uriTemplate)
+                : retryPolicies.policyForPath(method, pathOf(request));
+        URIAuthority authority = request.getAuthority();
+        String host = authority != null
+                ? HostKeys.of(request.getScheme(), authority.getHostName(), authority.getPort())
+                : "unknown";
+        context.setAttribute(SCOPE_ATTRIBUTE, new Scope(policy, host, method, uriTemplate));
+        retryPolicies.onCall(host);
+    }
+
+    @Override
+    public boolean retryRequest(HttpRequest request, IOException exception, int execCount, HttpContext context) {
+        Scope scope = scope(context);
+        if (scope == null || execCount > scope.policy().maxRetries()
+                || !scope.policy().isRetryable(request.getMethod(), exception)) {
+            return false;
+        }
+        return grant(scope);
+    }
+
+    @Override
+    public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+        Scope scope = scope(context);
+        if (scope == null || execCount > scope.policy().maxRetries()
+                || !scope.policy().isRetryableStatus(scope.method(), response.getCode())
+                || scope.policy().delay(execCount - 1, retryAfter(response)) == null) {
+            return false;
+        }
+        return grant(scope);
+    }
+
+    @Override
+    public TimeValue getRetryInterval(HttpRequest request, IOException exception, int execCount, HttpContext context) {
+        return interval(scope(context), execCount, null);
+    }
+
+    @Override
+    public TimeValue getRetryInterval(HttpResponse response, int execCount, HttpContext context) {
+        return interval(scope(context), execCount, retryAfter(response));
+    }
+
+    private boolean grant(Scope scope) {
+        if (!retryPolicies.tryRetry(scope.host())) {
+            return false;
+        }
+        clientMetrics.retried(client, scope.method(), scope.uriTemplate());
+        return true;
+    }
+
+    private static TimeValue interval(Scope scope, int execCount, Duration retryAfter) {
+        if (scope == null) {
+            return TimeValue.ZERO_MILLISECONDS;
+        }
+        Duration delay = scope.policy().delay(execCount - 1, retryAfter);
+        return delay != null ? TimeValue.ofMilliseconds(delay.toMillis()) : TimeValue.ZERO_MILLISECONDS;
+    }
+
+    private static Duration retryAfter(HttpResponse response) {
+        var header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        return header != null ? HttpErrorClassifier.parseRetryAfter(header.getValue()) : null;
+    }
+
+    private static String pathOf(HttpRequest request) {
+        String path = request.getPath();
+        if (path == null) {
+            return null;
+        }
+        int query = path.indexOf('?');
+        return query >= 0 ? path.substring(0, query) : path;
+    }
+
+    private static Scope scope(HttpContext context) {
+        return context != null && context.getAttribute(SCOPE_ATTRIBUTE) instanceof Scope scope ? scope : null;
+    }
+
+    private static String attribute(HttpContext context, String name) {
+        return context.getAttribute(name) instanceof String value ? value : null;
+    }
+
+    /**
+     * What the first attempt resolved for the whole call.
+     */
+    private record Scope(RetryPolicy policy, String host, String method, String uriTemplate) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of concurrent calls to one host. Calls over the cap are rejected immediately instead of
+ * queueing on a connection pool shared with healthy hosts.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public Bulkhead(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    /**
+     * @return {@code true} if a slot was taken; it must be returned with {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        int current = inFlight.get();
+        while (current < maxConcurrentCalls) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = inFlight.get();
+        }
+        return false;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+}
@@ -0,0 +1,236 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free circuit breaker over a count-based sliding window of the most recent calls.
+ * <p>
+ * The breaker opens when, with at least {@code minimumCalls} recorded, either the failure rate or the
+ * slow-call rate of the window reaches its threshold. After {@code openDuration} it lets a fixed number of
+ * trial calls through (half-open); one failed or slow trial re-opens it, all trials succeeding close it.
+ * State transitions are compare-and-set on an immutable snapshot, so concurrent callers never block and
+ * exactly one of them performs each transition. A {@link Permission} remembers the snapshot it was granted
+ * under, and its outcome only counts while the breaker is still in that state: a call let through while closed
+ * that completes after the breaker opened is neither a half-open trial nor part of the next closed window.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Thresholds and timings of a breaker.
+     *
+     * @param windowSize             Number of most recent calls the rates are computed over.
+     * @param minimumCalls           Calls required in the window before the breaker may open.
+     * @param failureRateThreshold   Failure percentage at which the breaker opens.
+     * @param slowCallRateThreshold  Slow-call percentage at which the breaker opens.
+     * @param slowCallDuration       Calls taking at least this long count as slow.
+     * @param openDuration           How long the breaker stays open before allowing trial calls.
+     * @param halfOpenCalls          Number of trial calls in the half-open state.
+     */
+    public record Settings(int windowSize, int minimumCalls, int failureRateThreshold, int slowCallRateThreshold,
+                           Duration slowCallDuration, Duration openDuration, int halfOpenCalls) {
+    }
+
+    // Window slots hold 0 (empty) or a combination of these outcome bits
+    private static final int RECORDED = 1;
+    private static final int FAILED = 2;
+    private static final int SLOW = 4;
+
+    private final Settings settings;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<Snapshot> state;
+    private final AtomicIntegerArray window;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicInteger recordedCalls = new AtomicInteger();
+    private final AtomicInteger failedCalls = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    public CircuitBreaker(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock The time source for the open duration and call timings, {@link System#nanoTime} outside
+     *                  tests.
+     */
+    CircuitBreaker(Settings settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.slowCallNanos = settings.slowCallDuration().toNanos();
+        this.openNanos = settings.openDuration().toNanos();
+        this.nanoClock = nanoClock;
+        this.window = new AtomicIntegerArray(settings.windowSize());
+        this.state = new AtomicReference<>(new Snapshot(State.CLOSED, nanoClock.getAsLong()));
+    }
+
+    /**
+     * Asks for permission to make a call. Every granted permission must be followed by exactly one
+     * {@link #onResult} or {@link #onIgnored}.
+     *
+     * @return The permission, or {@code null} if the breaker is open, or half-open with all trial calls taken.
+     */
+    public Permission tryAcquirePermission() {
+        while (true) {
+            Snapshot current = state.get();
+            switch (current.state()) {
+                case CLOSED:
+                    return new Permission(current, nanoClock.getAsLong());
+                case OPEN:
+                    if (nanoClock.getAsLong() - current.sinceNanos() < openNanos) {
+                        return null;
+                    }
+                    transition(current, State.HALF_OPEN);
+                    // Re-read: this thread or a concurrent one has moved the breaker to half-open
+                    continue;
+                default:
+                    return tryTakeHalfOpenPermit() ? new Permission(current, nanoClock.getAsLong()) : null;
+            }
+        }
+    }
+
+    private boolean tryTakeHalfOpenPermit() {
+        int permits = halfOpenPermits.get();
+        while (permits > 0) {
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+            permits = halfOpenPermits.get();
+        }
+        return false;
+    }
+
+    /**
+     * Records the outcome of a permitted call; ignored if the breaker has changed state since it was permitted.
+     *
+     * @param permission The call's permission.
+     * @param failed     Whether the call failed in a way that reflects on the upstream's health.
+     */
+    public void onResult(Permission permission, boolean failed) {
+        Snapshot current = permission.granted;
+        if (state.get() != current) {
+            return;
+        }
+        boolean slow = nanoClock.getAsLong() - permission.startNanos >= slowCallNanos;
+        if (current.state() == State.HALF_OPEN) {
+            if (failed || slow) {
+                transition(current, State.OPEN);
+            } else if (halfOpenSuccesses.incrementAndGet() >= settings.halfOpenCalls()) {
+                transition(current, State.CLOSED);
+            }
+            return;
+        }
+        if (current.state() == State.CLOSED) {
+            record(failed, slow);
+            if (shouldOpen()) {
+                transition(current, State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Returns a permission that was granted but not used for an evaluable call (e.g. the call was cancelled).
+     */
+    public void onIgnored(Permission permission) {
+        Snapshot granted = permission.granted;
+        if (granted.state() == State.HALF_OPEN && state.get() == granted) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    private void record(boolean failed, boolean slow) {
+        int outcome = RECORDED | (failed ? FAILED : 0) | (slow ? SLOW : 0);
+        int slot = (int) (cursor.getAndIncrement() % window.length());
+        int evicted = window.getAndSet(slot, outcome);
+        // Each slot swap adjusts the running totals by the difference, so rates never need a window scan
+        recordedCalls.addAndGet(1 - (evicted & RECORDED));
+        failedCalls.addAndGet(bit(outcome, FAILED) - bit(evicted, FAILED));
+        slowCalls.addAndGet(bit(outcome, SLOW) - bit(evicted, SLOW));
+    }
+
+    private static int bit(int outcome, int mask) {
+        return (outcome & mask) != 0 ? 1 : 0;
+    }
+
+    private boolean shouldOpen() {
+        int calls = recordedCalls.get();
+        if (calls < settings.minimumCalls()) {
+            return false;
+        }
+        return failedCalls.get() * 100L >= (long) settings.failureRateThreshold() * calls
+                || slowCalls.get() * 100L >= (long) settings.slowCallRateThreshold() * calls;
+    }
+
+    private void transition(Snapshot from, State to) {
+        if (!state.compareAndSet(from, new Snapshot(to, nanoClock.getAsLong()))) {
+            // Another caller already moved the breaker on
+            return;
+        }
+        if (to == State.HALF_OPEN) {
+            halfOpenSuccesses.set(0);
+            halfOpenPermits.set(settings.halfOpenCalls());
+        } else if (to == State.CLOSED) {
+            resetWindow();
+        }
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < window.length(); i++) {
+            int evicted = window.getAndSet(i, 0);
+            recordedCalls.addAndGet(-(evicted & RECORDED));
+            failedCalls.addAndGet(-bit(evicted, FAILED));
+            slowCalls.addAndGet(-bit(evicted, SLOW));
+        }
+    }
+
+    public State getState() {
+        return state.get().state();
+    }
+
+    /**
+     * @return The failure percentage of the current window, or {@code 0} before the first call.
+     */
+    public double getFailureRate() {
+        int calls = recordedCalls.get();
+        return calls == 0 ? 0.0 : failedCalls.get() * 100.0 / calls;
+    }
+
+    /**
+     * @return The slow-call percentage of the current window, or {@code 0} before the first call.
+     */
+    public double getSlowCallRate() {
+        int calls = recordedCalls.get();
+        return calls == 0 ? 0.0 : slowCalls.get() * 100.0 / calls;
+    }
+
+    /**
+     * A granted call: the breaker state it was granted under, and when. Opaque to callers.
+     */
+    public static final class Permission {
+
+        private final Snapshot granted;
+        private final long startNanos;
+
+        private Permission(Snapshot granted, long startNanos) {
+            this.granted = granted;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * A breaker state; every transition creates a new instance, compared by identity.
+     */
+    private record Snapshot(State state, long sinceNanos) {
+    }
+}
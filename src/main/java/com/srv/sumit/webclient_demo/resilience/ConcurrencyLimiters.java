@@ -0,0 +1,126 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import com.srv.sumit.webclient_demo.exception.CallNotPermittedException;
+import com.srv.sumit.webclient_demo.exception.HttpErrorClassifier;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-host {@link AdaptiveConcurrencyLimiter}s for the reactive WebClient calls.
+ * <p>
+ * Replaces the fixed connection-pool cap as the effective bound on in-flight requests per host: the limit
+ * follows the upstream's latency and overload signals at runtime and is published as the
+ * {@code http.client.concurrency.limit} gauge, next to the in-flight and queued counts.
+ */
+@Component
+public class ConcurrencyLimiters {
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter.Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiters(MeterRegistry meterRegistry,
+                               @Value("${webclient.limiter.enabled:true}") boolean enabled,
+                               @Value("${webclient.limiter.initial-limit:20}") int initialLimit,
+                               @Value("${webclient.limiter.min-limit:5}") int minLimit,
+                               @Value("${webclient.limiter.max-limit:200}") int maxLimit,
+                               @Value("${webclient.limiter.rtt-tolerance:1.5}") double tolerance,
+                               @Value("${webclient.limiter.max-queue:100}") int maxQueue,
+                               @Value("${webclient.limiter.max-wait:1s}") Duration maxWait) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.settings = new AdaptiveConcurrencyLimiter.Settings(initialLimit, minLimit, maxLimit, tolerance,
+                maxQueue, maxWait);
+    }
+
+    /**
+     * Runs a call within the host's concurrency limit; the slot is taken on each subscription.
+     *
+     * @param uri  The request URI; only its host and port are used.
+     * @param call The call to limit.
+     * @param <T>  The response type.
+     * @return The limited call, failing with {@link CallNotPermittedException} if no slot frees up in time.
+     */
+    public <T> Mono<T> limit(URI uri, Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiterFor(uri);
+        return limiter.acquire().flatMap(listener -> call
+                .doOnSuccess(value -> listener.onSuccess())
+                .doOnError(error -> onError(listener, error))
+                .doFinally(signal -> {
+                    listener.onIgnore();
+                    listener.release();
+                }));
+    }
+
+    /**
+     * Runs a streaming call within the host's concurrency limit. The RTT sample is the time to the first
+     * element; the slot is held until the stream terminates.
+     */
+    public <T> Flux<T> limit(URI uri, Flux<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiterFor(uri);
+        return limiter.acquire().flatMapMany(listener -> call
+                .doOnNext(value -> listener.onSuccess())
+                .doOnComplete(listener::onSuccess)
+                .doOnError(error -> onError(listener, error))
+                .doFinally(signal -> {
+                    listener.onIgnore();
+                    listener.release();
+                }));
+    }
+
+    /**
+     * @return The host's limiter ({@code host:port}), or {@code null} if it has not been called yet.
+     */
+    public AdaptiveConcurrencyLimiter getLimiter(String host) {
+        return limiters.get(host);
+    }
+
+    private static void onError(AdaptiveConcurrencyLimiter.Listener listener, Throwable error) {
+        int statusCode = HttpErrorClassifier.statusCode(error);
+        boolean overloaded = statusCode == 429 || statusCode == 503;
+        if (!(error instanceof CallNotPermittedException)
+                && (overloaded || HttpErrorClassifier.isTimeout(error) || HttpErrorClassifier.isIoError(error))) {
+            listener.onDropped();
+        } else {
+            // Other errors (4xx, decoding, rejected by the breaker) carry no load signal
+            listener.onIgnore();
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(URI uri) {
+        return limiters.computeIfAbsent(HostKeys.of(uri), this::newLimiter);
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(String host) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(host, settings);
+        Gauge.builder("http.client.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit per host")
+                .tag("host", host)
+                .register(meterRegistry);
+        Gauge.builder("http.client.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Calls holding a concurrency slot per host")
+                .tag("host", host)
+                .register(meterRegistry);
+        Gauge.builder("http.client.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .description("Calls waiting for a concurrency slot per host")
+                .tag("host", host)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,23 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import java.net.URI;
+
+/**
+ * Derives the per-host key ({@code host:port}) that resilience state and per-host settings are kept under.
+ */
+public final class HostKeys {
+
+    private HostKeys() {
+    }
+
+    public static String of(URI uri) {
+        return of(uri.getScheme(), uri.getHost(), uri.getPort());
+    }
+
+    public static String of(String scheme, String host, int port) {
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(scheme) ? 443 : 80;
+        }
+        return host + ":" + port;
+    }
+}
@@ -0,0 +1,265 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import com.srv.sumit.webclient_demo.exception.CallNotPermittedException;
+import com.srv.sumit.webclient_demo.exception.HttpErrorClassifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Per-host circuit breaker and bulkhead, applied uniformly by all client helpers.
+ * <p>
+ * Every call first takes a bulkhead slot and a circuit breaker permission for its target host
+ * ({@code host:port}). If either is refused the call fails immediately with a
+ * {@link CallNotPermittedException}, before any connection is leased. Transport errors, timeouts and
+ * 5xx responses count as failures; 4xx responses say nothing about the upstream's health and count as
+ * successes. The reactive helpers guard each attempt individually, so an opening breaker also stops
+ * pending retries.
+ */
+@Component
+public class HostResilience {
+
+    private final boolean enabled;
+    private final CircuitBreaker.Settings settings;
+    private final int maxConcurrentCalls;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, HostGuard> guards = new ConcurrentHashMap<>();
+
+    public HostResilience(MeterRegistry meterRegistry,
+                          @Value("${client.resilience.enabled:true}") boolean enabled,
+                          @Value("${client.resilience.circuit-breaker.window-size:100}") int windowSize,
+                          @Value("${client.resilience.circuit-breaker.minimum-calls:20}") int minimumCalls,
+                          @Value("${client.resilience.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                          @Value("${client.resilience.circuit-breaker.slow-call-rate-threshold:80}") int slowCallRateThreshold,
+                          @Value("${client.resilience.circuit-breaker.slow-call-duration:5s}") Duration slowCallDuration,
+                          @Value("${client.resilience.circuit-breaker.open-duration:30s}") Duration openDuration,
+                          @Value("${client.resilience.circuit-breaker.half-open-calls:5}") int halfOpenCalls,
+                          @Value("${client.resilience.bulkhead.max-concurrent-calls:50}") int maxConcurrentCalls) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.settings = new CircuitBreaker.Settings(windowSize, minimumCalls, failureRateThreshold,
+                slowCallRateThreshold, slowCallDuration, openDuration, halfOpenCalls);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    /**
+     * Guards a blocking call.
+     *
+     * @param url  The request URL; only its host and port are used.
+     * @param call The call to run.
+     * @param <T>  The response type.
+     * @return The call's result.
+     * @throws CallNotPermittedException if the host's breaker is open or its bulkhead is full.
+     */
+    public <T> T execute(String url, Supplier<T> call) {
+        return enabled ? execute(URI.create(url), call) : call.get();
+    }
+
+    /**
+     * Guards a blocking call.
+     *
+     * @param uri  The request URI; only its host and port are used.
+     * @param call The call to run.
+     * @param <T>  The response type.
+     * @return The call's result.
+     * @throws CallNotPermittedException if the host's breaker is open or its bulkhead is full.
+     */
+    public <T> T execute(URI uri, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Permit permit = guardFor(uri).acquire();
+        try {
+            T result = call.get();
+            permit.record(null);
+            return result;
+        } catch (RuntimeException ex) {
+            permit.record(ex);
+            throw ex;
+        } finally {
+            permit.release();
+        }
+    }
+
+    /**
+     * Guards a reactive call; the permission is taken on each subscription, i.e. on each retry attempt.
+     */
+    public <T> Mono<T> guard(URI uri, Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        HostGuard guard = guardFor(uri);
+        return Mono.defer(() -> {
+            Permit permit = guard.acquire();
+            return call
+                    .doOnSuccess(value -> permit.record(null))
+                    .doOnError(permit::record)
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    /**
+     * Guards a streaming call. The upstream is judged on its first element (or completion), so long streams
+     * are not mistaken for slow calls; the bulkhead slot is held until the stream terminates.
+     */
+    public <T> Flux<T> guard(URI uri, Flux<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        HostGuard guard = guardFor(uri);
+        return Flux.defer(() -> {
+            Permit permit = guard.acquire();
+            return call
+                    .doOnNext(value -> permit.record(null))
+                    .doOnComplete(() -> permit.record(null))
+                    .doOnError(permit::record)
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    /**
+     * Guards an asynchronous call until its future completes.
+     */
+    public <T> CompletableFuture<T> guardAsync(String url, Supplier<CompletableFuture<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Permit permit;
+        try {
+            permit = guardFor(URI.create(url)).acquire();
+        } catch (CallNotPermittedException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException ex) {
+            permit.record(ex);
+            permit.release();
+            throw ex;
+        }
+        future.whenComplete((value, error) -> {
+            if (!future.isCancelled()) {
+                permit.record(error);
+            }
+            permit.release();
+        });
+        return future;
+    }
+
+    /**
+     * @return The breaker of the given host ({@code host:port}), or {@code null} if it has not been called yet.
+     */
+    public CircuitBreaker getCircuitBreaker(String host) {
+        HostGuard guard = guards.get(host);
+        return guard != null ? guard.circuitBreaker : null;
+    }
+
+    private HostGuard guardFor(URI uri) {
+        return guards.computeIfAbsent(HostKeys.of(uri), HostGuard::new);
+    }
+
+    private static boolean isFailure(Throwable error) {
+        if (error == null) {
+            return false;
+        }
+        int statusCode = HttpErrorClassifier.statusCode(error);
+        if (statusCode > 0) {
+            return statusCode >= 500;
+        }
+        return HttpErrorClassifier.isIoError(error) || HttpErrorClassifier.isTimeout(error);
+    }
+
+    /**
+     * Breaker, bulkhead and meters of one host.
+     */
+    private final class HostGuard {
+
+        private final String host;
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final Counter circuitOpenRejections;
+        private final Counter bulkheadFullRejections;
+
+        HostGuard(String host) {
+            this.host = host;
+            this.circuitBreaker = new CircuitBreaker(settings);
+            this.bulkhead = new Bulkhead(maxConcurrentCalls);
+            Gauge.builder("http.client.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                    .description("Circuit breaker state per host: 0 closed, 1 open, 2 half-open")
+                    .tag("host", host)
+                    .register(meterRegistry);
+            Gauge.builder("http.client.bulkhead.in.flight", bulkhead, Bulkhead::getInFlight)
+                    .description("Concurrent calls in flight per host")
+                    .tag("host", host)
+                    .register(meterRegistry);
+            this.circuitOpenRejections = rejections("circuit_open");
+            this.bulkheadFullRejections = rejections("bulkhead_full");
+        }
+
+        private Counter rejections(String reason) {
+            return Counter.builder("http.client.rejected")
+                    .description("Calls rejected without contacting the upstream")
+                    .tags("host", host, "reason", reason)
+                    .register(meterRegistry);
+        }
+
+        Permit acquire() {
+            if (!bulkhead.tryAcquire()) {
+                bulkheadFullRejections.increment();
+                throw new CallNotPermittedException("Bulkhead full for host " + host, host);
+            }
+            CircuitBreaker.Permission permission = circuitBreaker.tryAcquirePermission();
+            if (permission == null) {
+                bulkhead.release();
+                circuitOpenRejections.increment();
+                throw new CallNotPermittedException("Circuit breaker open for host " + host, host);
+            }
+            return new Permit(this, permission);
+        }
+    }
+
+    /**
+     * One granted call. Recording and releasing are each idempotent, as reactive callbacks may overlap.
+     */
+    private static final class Permit {
+
+        private final HostGuard guard;
+        private final CircuitBreaker.Permission permission;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(HostGuard guard, CircuitBreaker.Permission permission) {
+            this.guard = guard;
+            this.permission = permission;
+        }
+
+        void record(Throwable error) {
+            if (recorded.compareAndSet(false, true)) {
+                guard.circuitBreaker.onResult(permission, isFailure(error));
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                if (recorded.compareAndSet(false, true)) {
+                    // Cancelled before an outcome was known
+                    guard.circuitBreaker.onIgnored(permission);
+                }
+                guard.bulkhead.release();
+            }
+        }
+    }
+}
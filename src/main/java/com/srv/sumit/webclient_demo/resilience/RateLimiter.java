@@ -0,0 +1,121 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket for one host, implemented as a generic cell rate algorithm (GCRA).
+ * <p>
+ * Instead of a token count the bucket keeps a single theoretical arrival time: every permit pushes it one
+ * emission interval ({@code 1 / rate}) further, and a permit is free while it lies less than {@code burst}
+ * intervals ahead of now. A caller that would exceed the rate reserves the next free slot and is told how
+ * long to wait for it, so blocking and reactive callers share the same state with a single compare-and-set.
+ * <p>
+ * The rate adapts to the upstream: a throttled response ({@code 429}) doubles the interval, down to the
+ * minimum rate, and a {@code Retry-After} pauses the host for that long; successes recover the configured
+ * rate gradually.
+ */
+public class RateLimiter {
+
+    private static final int RECOVERY_DIVISOR = 20;
+
+    private final long baseIntervalNanos;
+    private final long maxIntervalNanos;
+    private final int burst;
+    private final AtomicLong intervalNanos;
+    private final AtomicLong theoreticalArrival;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param permitsPerSecond    The configured rate.
+     * @param minPermitsPerSecond The rate never drops below this when throttled.
+     * @param burst               Permits that may be taken at once after an idle period.
+     */
+    public RateLimiter(double permitsPerSecond, double minPermitsPerSecond, int burst) {
+        this(permitsPerSecond, minPermitsPerSecond, burst, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock The time source, {@link System#nanoTime} outside tests.
+     */
+    RateLimiter(double permitsPerSecond, double minPermitsPerSecond, int burst, LongSupplier nanoClock) {
+        this.baseIntervalNanos = intervalOf(permitsPerSecond);
+        this.maxIntervalNanos = Math.max(baseIntervalNanos, intervalOf(minPermitsPerSecond));
+        this.burst = Math.max(1, burst);
+        this.intervalNanos = new AtomicLong(baseIntervalNanos);
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    private static long intervalOf(double permitsPerSecond) {
+        return Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+    }
+
+    /**
+     * Reserves a permit.
+     *
+     * @param maxWaitNanos The longest the caller is willing to wait.
+     * @return Nanoseconds until the reserved permit may be used ({@code 0} for immediately), or {@code -1}
+     * if it would take longer than {@code maxWaitNanos}; nothing is reserved then.
+     */
+    public long reserve(long maxWaitNanos) {
+        long interval = intervalNanos.get();
+        long tolerance = interval * (burst - 1);
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = theoreticalArrival.get();
+            long start = current - now > 0 ? current : now;
+            long wait = start - tolerance - now;
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(current, start + interval)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /**
+     * Slows down after the upstream throttled a call.
+     *
+     * @param retryAfter The pause the upstream asked for, or {@code null}.
+     */
+    public void onThrottled(Duration retryAfter) {
+        long interval = intervalNanos.get();
+        while (interval < maxIntervalNanos
+                && !intervalNanos.compareAndSet(interval, Math.min(maxIntervalNanos, interval * 2))) {
+            interval = intervalNanos.get();
+        }
+        if (retryAfter != null) {
+            // Move the next free slot past the pause
+            long resumeAt = nanoClock.getAsLong() + retryAfter.toNanos() + intervalNanos.get() * (burst - 1);
+            long current = theoreticalArrival.get();
+            while (current - resumeAt < 0 && !theoreticalArrival.compareAndSet(current, resumeAt)) {
+                current = theoreticalArrival.get();
+            }
+        }
+    }
+
+    /**
+     * Moves a throttled rate a step back towards the configured rate.
+     */
+    public void onSuccess() {
+        long interval = intervalNanos.get();
+        while (interval > baseIntervalNanos) {
+            long step = Math.max(1, (interval - baseIntervalNanos) / RECOVERY_DIVISOR);
+            long recovered = Math.max(baseIntervalNanos, interval - step);
+            if (intervalNanos.compareAndSet(interval, recovered)) {
+                return;
+            }
+            interval = intervalNanos.get();
+        }
+    }
+
+    /**
+     * @return The current rate in permits per second.
+     */
+    public double getRate() {
+        return 1_000_000_000.0 / intervalNanos.get();
+    }
+}
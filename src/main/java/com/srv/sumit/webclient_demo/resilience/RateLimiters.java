@@ -0,0 +1,280 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import com.srv.sumit.webclient_demo.exception.CallNotPermittedException;
+import com.srv.sumit.webclient_demo.exception.HttpErrorClassifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Client-side per-host {@link RateLimiter}s, shared by all client helpers so that together they stay within
+ * the upstream's quota.
+ * <p>
+ * Every attempt (retries and hedges included) takes a permit for its host ({@code host:port}) before it
+ * reaches the breaker, bulkhead or concurrency limit. Reactive calls wait for their permit on a timer, blocking
+ * calls park their thread; a call that would wait longer than {@code max-wait} fails at once with a
+ * {@link CallNotPermittedException}. {@code 429} responses slow the host's rate down and honour
+ * {@code Retry-After}.
+ */
+@Component
+public class RateLimiters {
+
+    private final boolean enabled;
+    private final double permitsPerSecond;
+    private final double minPermitsPerSecond;
+    private final int burst;
+    private final long maxWaitNanos;
+    private final Map<String, Double> hostRates;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+
+    public RateLimiters(MeterRegistry meterRegistry, Environment environment,
+                        @Value("${client.rate-limit.enabled:false}") boolean enabled,
+                        @Value("${client.rate-limit.permits-per-second:100}") double permitsPerSecond,
+                        @Value("${client.rate-limit.min-permits-per-second:1}") double minPermitsPerSecond,
+                        @Value("${client.rate-limit.burst:20}") int burst,
+                        @Value("${client.rate-limit.max-wait:2s}") Duration maxWait) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.permitsPerSecond = permitsPerSecond;
+        this.minPermitsPerSecond = minPermitsPerSecond;
+        this.burst = burst;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.hostRates = Binder.get(environment)
+                .bind("client.rate-limit.hosts", Bindable.mapOf(String.class, Double.class))
+                .orElse(Map.of());
+    }
+
+    /**
+     * Runs a reactive call once a permit is available; the permit is taken on each subscription.
+     *
+     * @param uri  The request URI; only its host and port are used.
+     * @param call The call to limit.
+     * @param <T>  The response type.
+     * @return The limited call, failing with {@link CallNotPermittedException} if no permit is available in time.
+     */
+    public <T> Mono<T> limit(URI uri, Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        HostLimiter limiter = limiterFor(uri);
+        return Mono.defer(() -> {
+            long wait = limiter.reserve();
+            Mono<T> observed = call
+                    .doOnSuccess(value -> limiter.rateLimiter.onSuccess())
+                    .doOnError(limiter::onError);
+            return wait == 0 ? observed : Mono.delay(Duration.ofNanos(wait)).then(observed);
+        });
+    }
+
+    /**
+     * Runs a streaming call once a permit is available.
+     */
+    public <T> Flux<T> limit(URI uri, Flux<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        HostLimiter limiter = limiterFor(uri);
+        return Flux.defer(() -> {
+            long wait = limiter.reserve();
+            Flux<T> observed = call
+                    .doOnComplete(limiter.rateLimiter::onSuccess)
+                    .doOnError(limiter::onError);
+            return wait == 0 ? observed : Mono.delay(Duration.ofNanos(wait)).thenMany(observed);
+        });
+    }
+
+    /**
+     * Runs a blocking call once a permit is available, parking the calling thread until then.
+     *
+     * @param url  The request URL; only its host and port are used.
+     * @param call The call to run.
+     * @param <T>  The response type.
+     * @return The call's result.
+     * @throws CallNotPermittedException if no permit is available in time.
+     */
+    public <T> T execute(String url, Supplier<T> call) {
+        return enabled ? execute(URI.create(url), call) : call.get();
+    }
+
+    /**
+     * Runs a blocking call once a permit is available, parking the calling thread until then.
+     *
+     * @param uri  The request URI; only its host and port are used.
+     * @param call The call to run.
+     * @param <T>  The response type.
+     * @return The call's result.
+     * @throws CallNotPermittedException if no permit is available in time.
+     */
+    public <T> T execute(URI uri, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        HostLimiter limiter = limiterFor(uri);
+        long wait = limiter.reserve();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CallNotPermittedException("Interrupted while waiting for the rate limit of host "
+                        + limiter.host, limiter.host);
+            }
+        }
+        try {
+            T result = call.get();
+            limiter.rateLimiter.onSuccess();
+            return result;
+        } catch (RuntimeException ex) {
+            limiter.onError(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Starts an asynchronous call once a permit is available, without blocking the caller. Cancelling the
+     * returned future while it waits means the call is never started; cancelling it later cancels the call's own
+     * future, so the exchange behind it is cancelled too.
+     */
+    public <T> CompletableFuture<T> guardAsync(String url, Supplier<CompletableFuture<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        HostLimiter limiter;
+        long wait;
+        try {
+            limiter = limiterFor(URI.create(url));
+            wait = limiter.reserve();
+        } catch (CallNotPermittedException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        CompletableFuture<T> future = wait == 0 ? call.get() : startAfter(wait, call);
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error == null) {
+                limiter.rateLimiter.onSuccess();
+            } else {
+                limiter.onError(error);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Starts the call after the given delay, on a future whose cancellation reaches the call's own future.
+     */
+    private static <T> CompletableFuture<T> startAfter(long waitNanos, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> started = new AtomicReference<>();
+        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            CompletableFuture<T> inner;
+            try {
+                inner = call.get();
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(ex);
+                return;
+            }
+            started.set(inner);
+            // Cancelled between the check above and publishing the call: cancel it here instead
+            if (future.isCancelled()) {
+                inner.cancel(true);
+                return;
+            }
+            inner.whenComplete((value, error) -> {
+                if (error == null) {
+                    future.complete(value);
+                } else {
+                    future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+            });
+        });
+        future.whenComplete((value, error) -> {
+            CompletableFuture<T> inner = started.get();
+            if (future.isCancelled() && inner != null) {
+                inner.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return The limiter of the given host ({@code host:port}), or {@code null} if it has not been called yet.
+     */
+    public RateLimiter getRateLimiter(String host) {
+        HostLimiter limiter = limiters.get(host);
+        return limiter != null ? limiter.rateLimiter : null;
+    }
+
+    private HostLimiter limiterFor(URI uri) {
+        return limiters.computeIfAbsent(HostKeys.of(uri), HostLimiter::new);
+    }
+
+    /**
+     * Limiter and meters of one host.
+     */
+    private final class HostLimiter {
+
+        private final String host;
+        private final RateLimiter rateLimiter;
+        private final Counter rejections;
+        private final Counter throttled;
+
+        HostLimiter(String host) {
+            this.host = host;
+            this.rateLimiter = new RateLimiter(hostRates.getOrDefault(host, permitsPerSecond), minPermitsPerSecond,
+                    burst);
+            Gauge.builder("http.client.rate.limit", rateLimiter, RateLimiter::getRate)
+                    .description("Current client-side rate limit per host, in requests per second")
+                    .tag("host", host)
+                    .register(meterRegistry);
+            this.rejections = Counter.builder("http.client.rejected")
+                    .description("Calls rejected without contacting the upstream")
+                    .tags("host", host, "reason", "rate_limited")
+                    .register(meterRegistry);
+            this.throttled = Counter.builder("http.client.throttled")
+                    .description("Calls the upstream answered with 429 Too Many Requests")
+                    .tag("host", host)
+                    .register(meterRegistry);
+        }
+
+        long reserve() {
+            long wait = rateLimiter.reserve(maxWaitNanos);
+            if (wait < 0) {
+                rejections.increment();
+                throw new CallNotPermittedException("Rate limit reached for host " + host, host);
+            }
+            return wait;
+        }
+
+        void onError(Throwable error) {
+            if (HttpErrorClassifier.statusCode(error) == 429) {
+                throttled.increment();
+                rateLimiter.onThrottled(HttpErrorClassifier.retryAfter(error));
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket bounding the retries sent to one host.
+ * <p>
+ * Every call deposits a fraction of a token and every retry withdraws a whole one, so retries can never add
+ * more than {@code ratio} of the call volume, plus a small burst for hosts with little traffic. During a
+ * brownout, when most calls fail, the budget runs dry and the upstream sees its normal load instead of a
+ * multiple of it.
+ */
+public class RetryBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long depositPerCall;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    /**
+     * @param ratio Retries allowed per call, e.g. {@code 0.1} for at most 10% extra load.
+     * @param burst Retries that may be taken at once from a full bucket.
+     */
+    public RetryBudget(double ratio, int burst) {
+        this.depositPerCall = Math.round(ratio * TOKEN);
+        this.maxTokens = Math.max(1, burst) * TOKEN;
+        this.tokens = new AtomicLong(maxTokens);
+    }
+
+    /**
+     * Credits the budget for a call's first attempt.
+     */
+    public void onCall() {
+        long current = tokens.get();
+        while (current < maxTokens) {
+            if (tokens.compareAndSet(current, Math.min(maxTokens, current + depositPerCall))) {
+                return;
+            }
+            current = tokens.get();
+        }
+    }
+
+    /**
+     * @return Whether a retry may be sent; if so, its token has been taken.
+     */
+    public boolean tryRetry() {
+        long current = tokens.get();
+        while (current >= TOKEN) {
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+            current = tokens.get();
+        }
+        return false;
+    }
+
+    /**
+     * @return The retries currently available.
+     */
+    public double getAvailableRetries() {
+        return (double) tokens.get() / TOKEN;
+    }
+}
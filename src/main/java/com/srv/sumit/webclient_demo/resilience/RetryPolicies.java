@@ -0,0 +1,219 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import com.srv.sumit.webclient_demo.exception.HttpErrorClassifier;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Retry-policy engine shared by all clients: resolves the {@link RetryPolicy} of a route and keeps a
+ * {@link RetryBudget} per host ({@code host:port}).
+ * <p>
+ * The default policy comes from {@code client.retry.*}; {@code client.retry.routes[n]} entries override
+ * parts of it for URI templates matching an Ant-style {@code path} (and optionally only for some
+ * {@code methods}), first match wins. A retry is sent only if the policy deems the error retryable and the
+ * host's budget has a token left; the delay is the upstream's {@code Retry-After} when present, exponential
+ * backoff with jitter otherwise. Granted retries are counted in {@link ClientMetrics#RETRIES}, retries
+ * refused by the budget in {@code http.client.retry.budget.exhausted}.
+ */
+@Component
+public class RetryPolicies {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryPolicies.class);
+
+    /**
+     * A per-route override; unset fields inherit from the default policy.
+     */
+    public record RouteOverride(String path, Set<String> methods, Integer maxRetries, Duration initialBackoff,
+                                Duration maxBackoff, Double jitter, Set<Integer> retryableStatuses,
+                                Boolean retryNonIdempotent, Duration maxRetryAfter) {
+    }
+
+    private final RetryPolicy defaultPolicy;
+    private final List<RouteOverride> routes;
+    private final double budgetRatio;
+    private final int budgetBurst;
+    private final ClientMetrics clientMetrics;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentMap<String, RetryPolicy> policies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, HostBudget> budgets = new ConcurrentHashMap<>();
+
+    public RetryPolicies(MeterRegistry meterRegistry, ClientMetrics clientMetrics, Environment environment,
+                         @Value("${client.retry.max-retries:3}") int maxRetries,
+                         @Value("${client.retry.initial-backoff:500ms}") Duration initialBackoff,
+                         @Value("${client.retry.max-backoff:10s}") Duration maxBackoff,
+                         @Value("${client.retry.jitter:0.5}") double jitter,
+                         @Value("${client.retry.retryable-statuses:429,502,503,504}") Set<Integer> retryableStatuses,
+                         @Value("${client.retry.retry-non-idempotent:false}") boolean retryNonIdempotent,
+                         @Value("${client.retry.max-retry-after:30s}") Duration maxRetryAfter,
+                         @Value("${client.retry.budget.ratio:0.1}") double budgetRatio,
+                         @Value("${client.retry.budget.burst:10}") int budgetBurst) {
+        this.meterRegistry = meterRegistry;
+        this.clientMetrics = clientMetrics;
+        this.defaultPolicy = new RetryPolicy(maxRetries, initialBackoff, maxBackoff, jitter,
+                Set.copyOf(retryableStatuses), retryNonIdempotent, maxRetryAfter);
+        this.routes = Binder.get(environment)
+                .bind("client.retry.routes", Bindable.listOf(RouteOverride.class))
+                .orElse(List.of());
+        this.budgetRatio = budgetRatio;
+        this.budgetBurst = budgetBurst;
+    }
+
+    /**
+     * Resolves the policy of a route. Results are cached, so the URI template must be of bounded cardinality.
+     *
+     * @param method      The HTTP method.
+     * @param uriTemplate The URI template (or path) of the request; {@code null} selects the default policy.
+     * @return The route's policy.
+     */
+    public RetryPolicy policyFor(String method, String uriTemplate) {
+        if (uriTemplate == null || routes.isEmpty()) {
+            return defaultPolicy;
+        }
+        return policies.computeIfAbsent(method + " " + uriTemplate, key -> resolve(method, uriTemplate));
+    }
+
+    /**
+     * Resolves the policy of a request path without caching it, for clients that do not know the URI template.
+     */
+    public RetryPolicy policyForPath(String method, String path) {
+        return path == null || routes.isEmpty() ? defaultPolicy : resolve(method, path);
+    }
+
+    private RetryPolicy resolve(String method, String uriTemplate) {
+        for (RouteOverride route : routes) {
+            if (route.path() != null && pathMatcher.match(route.path(), uriTemplate)
+                    && (route.methods() == null || route.methods().isEmpty() || route.methods().contains(method))) {
+                return new RetryPolicy(
+                        route.maxRetries() != null ? route.maxRetries() : defaultPolicy.maxRetries(),
+                        route.initialBackoff() != null ? route.initialBackoff() : defaultPolicy.initialBackoff(),
+                        route.maxBackoff() != null ? route.maxBackoff() : defaultPolicy.maxBackoff(),
+                        route.jitter() != null ? route.jitter() : defaultPolicy.jitter(),
+                        route.retryableStatuses() != null ? Set.copyOf(route.retryableStatuses())
+                                : defaultPolicy.retryableStatuses(),
+                        route.retryNonIdempotent() != null ? route.retryNonIdempotent()
+                                : defaultPolicy.retryNonIdempotent(),
+                        route.maxRetryAfter() != null ? route.maxRetryAfter() : defaultPolicy.maxRetryAfter());
+            }
+        }
+        return defaultPolicy;
+    }
+
+    /**
+     * Reactive retry for a WebClient call, applied with {@code retryWhen}. Each subscription counts as one
+     * call towards the host's budget. When retries are exhausted or refused, the original error is propagated.
+     *
+     * @param client      The client tag of the retry metric.
+     * @param method      The HTTP method.
+     * @param uriTemplate The URI template, selecting the route's policy and tagging the metric.
+     * @param uri         The request URI; only its host and port are used.
+     * @return The retry spec.
+     */
+    public Retry retry(String client, String method, String uriTemplate, URI uri) {
+        return retry(client, method, uriTemplate, uri, error -> true);
+    }
+
+    /**
+     * Reactive retry that additionally only retries errors matching the filter, e.g. errors raised before a
+     * stream emitted its first element.
+     */
+    public Retry retry(String client, String method, String uriTemplate, URI uri, Predicate<Throwable> filter) {
+        RetryPolicy policy = policyFor(method, uriTemplate);
+        String host = HostKeys.of(uri);
+        return Retry.from(signals -> {
+            // The companion is created once per subscription, i.e. once per call
+            onCall(host);
+            return signals.concatMap(signal -> {
+                Throwable error = signal.failure();
+                long retry = signal.totalRetries();
+                if (retry >= policy.maxRetries() || !filter.test(error) || !policy.isRetryable(method, error)) {
+                    return Mono.error(error);
+                }
+                Duration delay = policy.delay(retry, HttpErrorClassifier.retryAfter(error));
+                if (delay == null || !tryRetry(host)) {
+                    return Mono.error(error);
+                }
+                clientMetrics.retried(client, method, uriTemplate);
+                LOGGER.warn("Retrying {} {} in {} ms, attempt: {}", method, uri, delay.toMillis(), retry + 1);
+                return Mono.delay(delay);
+            });
+        });
+    }
+
+    /**
+     * Credits the host's budget for a call's first attempt.
+     *
+     * @param host The host ({@code host:port}).
+     */
+    public void onCall(String host) {
+        budgetFor(host).budget.onCall();
+    }
+
+    /**
+     * Takes a retry token from the host's budget.
+     *
+     * @param host The host ({@code host:port}).
+     * @return Whether the retry may be sent.
+     */
+    public boolean tryRetry(String host) {
+        HostBudget hostBudget = budgetFor(host);
+        if (hostBudget.budget.tryRetry()) {
+            return true;
+        }
+        hostBudget.exhausted.increment();
+        return false;
+    }
+
+    /**
+     * @return The budget of the given host ({@code host:port}), or {@code null} if it has not been called yet.
+     */
+    public RetryBudget getBudget(String host) {
+        HostBudget hostBudget = budgets.get(host);
+        return hostBudget != null ? hostBudget.budget : null;
+    }
+
+    private HostBudget budgetFor(String host) {
+        return budgets.computeIfAbsent(host, HostBudget::new);
+    }
+
+    /**
+     * Budget and meters of one host.
+     */
+    private final class HostBudget {
+
+        private final RetryBudget budget;
+        private final Counter exhausted;
+
+        HostBudget(String host) {
+            this.budget = new RetryBudget(budgetRatio, budgetBurst);
+            Gauge.builder("http.client.retry.budget.available", budget, RetryBudget::getAvailableRetries)
+                    .description("Retries currently allowed by the retry budget per host")
+                    .tag("host", host)
+                    .register(meterRegistry);
+            this.exhausted = Counter.builder("http.client.retry.budget.exhausted")
+                    .description("Retries refused because the host's retry budget was exhausted")
+                    .tag("host", host)
+                    .register(meterRegistry);
+        }
+    }
+}
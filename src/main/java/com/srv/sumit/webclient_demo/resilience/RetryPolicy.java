@@ -0,0 +1,95 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import com.srv.sumit.webclient_demo.exception.CallNotPermittedException;
+import com.srv.sumit.webclient_demo.exception.HttpErrorClassifier;
+
+import javax.net.ssl.SSLException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how often a failed call is retried.
+ * <p>
+ * Only errors that another attempt can plausibly fix are retried: the configured statuses (overload and
+ * gateway errors by default, never other 4xx), timeouts and transport errors. Non-idempotent methods are
+ * retried only if the connection could not be established, unless the policy explicitly allows more.
+ * Rejections by the own circuit breaker or limiter, unparseable bodies, unknown hosts and TLS failures are
+ * never retried.
+ *
+ * @param maxRetries         Retries after the first attempt.
+ * @param initialBackoff     Delay before the first retry; it doubles with every further retry.
+ * @param maxBackoff         Upper bound of the exponential backoff.
+ * @param jitter             Random spread of each backoff, as a fraction of it (0 to 1).
+ * @param retryableStatuses  Response statuses worth retrying.
+ * @param retryNonIdempotent Whether POST and PATCH are retried like idempotent methods.
+ * @param maxRetryAfter      Longest {@code Retry-After} honoured; a call asked to wait longer fails at once.
+ */
+public record RetryPolicy(int maxRetries, Duration initialBackoff, Duration maxBackoff, double jitter,
+                          Set<Integer> retryableStatuses, boolean retryNonIdempotent, Duration maxRetryAfter) {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE");
+
+    /**
+     * @param method The request's HTTP method.
+     * @param error  The error of the failed attempt.
+     * @return Whether another attempt may succeed and is safe to make.
+     */
+    public boolean isRetryable(String method, Throwable error) {
+        if (error instanceof CallNotPermittedException || isPermanentTransportError(error)) {
+            return false;
+        }
+        if (HttpErrorClassifier.isConnectFailure(error)) {
+            return true;
+        }
+        int statusCode = HttpErrorClassifier.statusCode(error);
+        if (statusCode > 0) {
+            return isRetryableStatus(method, statusCode);
+        }
+        // Decoding errors fall through: the same body would fail to parse again
+        return (HttpErrorClassifier.isTimeout(error) || HttpErrorClassifier.isIoError(error)) && mayRepeat(method);
+    }
+
+    /**
+     * @return Whether a response with the given status is retried for the method.
+     */
+    public boolean isRetryableStatus(String method, int statusCode) {
+        return retryableStatuses.contains(statusCode) && mayRepeat(method);
+    }
+
+    private boolean mayRepeat(String method) {
+        return retryNonIdempotent || method == null || IDEMPOTENT_METHODS.contains(method);
+    }
+
+    /**
+     * Computes the delay before a retry.
+     *
+     * @param retry      The zero-based number of the retry.
+     * @param retryAfter The delay the upstream asked for, or {@code null}.
+     * @return The delay, or {@code null} if the upstream asked for a longer wait than {@link #maxRetryAfter}.
+     */
+    public Duration delay(long retry, Duration retryAfter) {
+        if (retryAfter != null) {
+            return retryAfter.compareTo(maxRetryAfter) <= 0 ? retryAfter : null;
+        }
+        long maxNanos = maxBackoff.toNanos();
+        long base = initialBackoff.toNanos();
+        for (long i = 0; i < retry && base < maxNanos; i++) {
+            base *= 2;
+        }
+        base = Math.min(base, maxNanos);
+        long spread = (long) (base * jitter);
+        long delay = spread > 0 ? base + ThreadLocalRandom.current().nextLong(-spread, spread + 1) : base;
+        return Duration.ofNanos(Math.max(initialBackoff.toNanos(), Math.min(maxNanos, delay)));
+    }
+
+    private static boolean isPermanentTransportError(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof UnknownHostException || current instanceof SSLException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
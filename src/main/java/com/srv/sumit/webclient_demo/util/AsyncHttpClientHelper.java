@@ -0,0 +1,319 @@
+package com.srv.sumit.webclient_demo.util;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.ContentNegotiation;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.compression.HttpCompression;
+import com.srv.sumit.webclient_demo.exception.HttpClientException;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import com.srv.sumit.webclient_demo.resilience.HostResilience;
+import com.srv.sumit.webclient_demo.resilience.RateLimiters;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.entity.InputStreamFactory;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Utility class to handle non-blocking HTTP requests using Apache HttpAsyncClient.
+ * Calls never hold the caller's thread; completion happens on the client's I/O reactor.
+ */
+@Component
+public class AsyncHttpClientHelper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncHttpClientHelper.class);
+    private static final String CLIENT = "httpclient-async";
+
+    private final CloseableHttpAsyncClient httpAsyncClient;
+    private final ContentNegotiation contentNegotiation;
+    private final CodecRegistry codecRegistry;
+    private final UriTemplateEngine uriTemplateEngine;
+    private final ClientMetrics clientMetrics;
+    private final HostResilience hostResilience;
+    private final RateLimiters rateLimiters;
+    private final HttpCompression httpCompression;
+    private final LinkedHashMap<String, InputStreamFactory> decoders;
+
+    public AsyncHttpClientHelper(CloseableHttpAsyncClient httpAsyncClient, ContentNegotiation contentNegotiation,
+                                 UriTemplateEngine uriTemplateEngine, ClientMetrics clientMetrics,
+                                 HostResilience hostResilience, RateLimiters rateLimiters,
+                                 HttpCompression httpCompression, CodecRegistry codecRegistry) {
+        this.httpAsyncClient = httpAsyncClient;
+        this.codecRegistry = codecRegistry;
+        this.clientMetrics = clientMetrics;
+        this.hostResilience = hostResilience;
+        this.rateLimiters = rateLimiters;
+        this.httpCompression = httpCompression;
+        this.decoders = httpCompression.decoders(CLIENT);
+        this.contentNegotiation = contentNegotiation;
+        this.uriTemplateEngine = uriTemplateEngine;
+    }
+
+    /**
+     * Makes an asynchronous GET request and parses the response to the specified class type.
+     *
+     * @param baseUrl       The base URL of the API.
+     * @param uriPath       The endpoint path of the API.
+     * @param headers       Custom headers for the request.
+     * @param pathVariables Path variables to replace in the URI.
+     * @param clazz         The class type of the expected response.
+     * @param <T>           The type of the expected response.
+     * @return A future completing with the parsed response object, or with an {@link HttpClientException}.
+     */
+    public <T> CompletableFuture<T> get(String baseUrl, String uriPath, Map<String, String> headers,
+                                        Map<String, String> pathVariables, Class<T> clazz) {
+        validateInputs(baseUrl, uriPath, clazz);
+
+        String fullUrl = constructUri(baseUrl, uriPath, pathVariables);
+        return execute("GET", SimpleRequestBuilder.get(fullUrl), fullUrl, uriPath, headers, clazz);
+    }
+
+    /**
+     * Makes an asynchronous POST request and parses the response to the specified class type.
+     *
+     * @param baseUrl       The base URL of the API.
+     * @param uriPath       The endpoint path of the API.
+     * @param headers       Custom headers for the request.
+     * @param body          The request body object.
+     * @param pathVariables Path variables to replace in the URI.
+     * @param clazz         The class type of the expected response.
+     * @param <T>           The type of the expected response.
+     * @param <R>           The type of the request body.
+     * @return A future completing with the parsed response object, or with an {@link HttpClientException}.
+     */
+    public <T, R> CompletableFuture<T> post(String baseUrl, String uriPath, Map<String, String> headers, R body,
+                                            Map<String, String> pathVariables, Class<T> clazz) {
+        validateInputs(baseUrl, uriPath, clazz);
+
+        String fullUrl = constructUri(baseUrl, uriPath, pathVariables);
+        return withBody("POST", SimpleRequestBuilder.post(fullUrl), fullUrl, uriPath, headers, body, clazz);
+    }
+
+    /**
+     * Makes an asynchronous PUT request and parses the response to the specified class type.
+     *
+     * @param baseUrl       The base URL of the API.
+     * @param uriPath       The endpoint path of the API.
+     * @param headers       Custom headers for the request.
+     * @param body          The request body object.
+     * @param pathVariables Path variables to replace in the URI.
+     * @param clazz         The class type of the expected response.
+     * @param <T>           The type of the expected response.
+     * @param <R>           The type of the request body.
+     * @return A future completing with the parsed response object, or with an {@link HttpClientException}.
+     */
+    public <T, R> CompletableFuture<T> put(String baseUrl, String uriPath, Map<String, String> headers, R body,
+                                           Map<String, String> pathVariables, Class<T> clazz) {
+        validateInputs(baseUrl, uriPath, clazz);
+
+        String fullUrl = constructUri(baseUrl, uriPath, pathVariables);
+        return withBody("PUT", SimpleRequestBuilder.put(fullUrl), fullUrl, uriPath, headers, body, clazz);
+    }
+
+    /**
+     * Makes an asynchronous DELETE request.
+     *
+     * @param baseUrl       The base URL of the API.
+     * @param uriPath       The endpoint path of the API.
+     * @param headers       Custom headers for the request.
+     * @param pathVariables Path variables to replace in the URI.
+     * @return A future completing once the entity is deleted, or with an {@link HttpClientException}.
+     */
+    public CompletableFuture<Void> delete(String baseUrl, String uriPath, Map<String, String> headers,
+                                          Map<String, String> pathVariables) {
+        validateInputs(baseUrl, uriPath, Void.class);
+
+        String fullUrl = constructUri(baseUrl, uriPath, pathVariables);
+        return execute("DELETE", SimpleRequestBuilder.delete(fullUrl), fullUrl, uriPath, headers, Void.class);
+    }
+
+    /**
+     * Serializes the request body and executes the request.
+     */
+    private <T, R> CompletableFuture<T> withBody(String method, SimpleRequestBuilder requestBuilder, String fullUrl,
+                                                 String uriPath, Map<String, String> headers, R body, Class<T> clazz) {
+        if (body != null) {
+            try {
+                PayloadFormat format = contentNegotiation.requestFormat(fullUrl);
+                HttpCompression.EncodedBody encoded = httpCompression.encode(CLIENT,
+                        codecRegistry.writer(format, body.getClass()).writeValueAsBytes(body));
+                requestBuilder.setBody(encoded.body(), format == PayloadFormat.JSON
+                        ? ContentType.APPLICATION_JSON
+                        : ContentType.create(format.mediaType().toString()));
+                if (encoded.encoding() != null) {
+                    requestBuilder.setHeader(HttpHeaders.CONTENT_ENCODING, encoded.encoding());
+                }
+            } catch (IOException ex) {
+                LOGGER.error("Failed to serialize {} request body for {}: {}", method, fullUrl, ex.getMessage(), ex);
+                return CompletableFuture.failedFuture(
+                        new HttpClientException("Failed to serialize " + method + " request body", 500, ex));
+            }
+        }
+        return execute(method, requestBuilder, fullUrl, uriPath, headers, clazz);
+    }
+
+    /**
+     * Submits the request to the I/O reactor and bridges its callback to a CompletableFuture.
+     * Cancelling the returned future cancels the in-flight exchange.
+     */
+    private <T> CompletableFuture<T> execute(String method, SimpleRequestBuilder requestBuilder, String fullUrl,
+                                             String uriPath, Map<String, String> headers, Class<T> clazz) {
+        return clientMetrics.timedAsync(CLIENT, method, uriPath, () -> rateLimiters.guardAsync(fullUrl,
+                () -> hostResilience.guardAsync(fullUrl,
+                        () -> submit(method, requestBuilder, fullUrl, uriPath, headers, clazz))));
+    }
+
+    private <T> CompletableFuture<T> submit(String method, SimpleRequestBuilder requestBuilder, String fullUrl,
+                                            String uriPath, Map<String, String> headers, Class<T> clazz) {
+        // Add headers
+        if (headers != null && !headers.isEmpty()) {
+            headers.forEach(requestBuilder::addHeader);
+        }
+        // The async client does not decode responses itself; processResponse does once the body is buffered
+        if (httpCompression.isResponseEnabled()
+                && (headers == null || !headers.containsKey(HttpHeaders.ACCEPT_ENCODING))) {
+            requestBuilder.setHeader(HttpHeaders.ACCEPT_ENCODING, httpCompression.acceptEncoding());
+        }
+        SimpleHttpRequest request = requestBuilder.build();
+        contentNegotiation.negotiate(fullUrl, request);
+
+        // Lets the retry strategy attribute retries to this method and URI template
+        HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(ClientMetrics.METHOD_ATTRIBUTE, method);
+        context.setAttribute(ClientMetrics.URI_TEMPLATE_ATTRIBUTE, uriPath);
+
+        CompletableFuture<SimpleHttpResponse> responseFuture = new CompletableFuture<>();
+        Future<SimpleHttpResponse> exchange = httpAsyncClient.execute(
+                SimpleRequestProducer.create(request), SimpleResponseConsumer.create(), context,
+                new FutureCallback<SimpleHttpResponse>() {
+                    @Override
+                    public void completed(SimpleHttpResponse response) {
+                        responseFuture.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        LOGGER.error("I/O error during {} request to {}: {}", method, fullUrl, ex.getMessage(), ex);
+                        responseFuture.completeExceptionally(
+                                new HttpClientException("I/O error during " + method + " request", 500, ex));
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        responseFuture.cancel(false);
+                    }
+                });
+
+        CompletableFuture<T> result = responseFuture.thenApply(response -> processResponse(response, fullUrl, clazz));
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Processes the HTTP response and maps it to the specified class type.
+     *
+     * @param response The buffered HTTP response.
+     * @param url      The requested URL.
+     * @param clazz    The class type to map the response to.
+     * @param <T>      The type of the response.
+     * @return The mapped response object, or {@code null} for {@link Void} responses.
+     * @throws HttpClientException for non-2xx responses and parsing errors.
+     */
+    private <T> T processResponse(SimpleHttpResponse response, String url, Class<T> clazz) {
+        int statusCode = response.getCode();
+        byte[] body;
+        try {
+            Header contentEncoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+            body = HttpCompression.decode(decoders, contentEncoding != null ? contentEncoding.getValue() : null,
+                    response.getBodyBytes());
+        } catch (IOException ex) {
+            LOGGER.error("Failed to decode response from {}: {}", url, ex.getMessage());
+            throw new HttpClientException("Response decoding error", statusCode, ex);
+        }
+
+        if (statusCode >= 200 && statusCode < 300) {
+            // Success response
+            if (clazz == Void.class) {
+                return null;
+            }
+            if (body == null) {
+                throw new HttpClientException("Empty response body", statusCode, null);
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Successful response from {}: {}", url, new String(body, StandardCharsets.UTF_8));
+            }
+            try {
+                // Parse with the reader of the response's format; JSON unless the server answered in Smile or CBOR
+                Header contentType = response.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+                ObjectReader reader = codecRegistry.reader(
+                        PayloadFormat.fromContentType(contentType != null ? contentType.getValue() : null), clazz);
+                return ResponseHandler.readValue(body, reader);
+            } catch (IOException ex) {
+                LOGGER.error("Failed to parse response from {}: {}", url, ex.getMessage());
+                throw new HttpClientException("Response parsing error", statusCode, ex);
+            }
+        } else {
+            // Error response
+            String errorMessage = body != null ? new String(body, StandardCharsets.UTF_8) : "No response body";
+            LOGGER.error("HTTP error from {}: {} - {}", url, statusCode, errorMessage);
+            throw new HttpClientException(errorMessage, statusCode, null);
+        }
+    }
+
+    /**
+     * Constructs the final URI by replacing path variables.
+     *
+     * @param baseUrl       The base URL (including scheme, e.g., <a href="http://example.com">...</a>).
+     * @param uriPath       The URI path with placeholders for path variables.
+     * @param pathVariables A map of path variables to replace placeholders in the URI.
+     * @return The constructed URI with path variables substituted and encoded.
+     * @throws IllegalArgumentException if a placeholder in the URI path has no path variable.
+     */
+    private String constructUri(String baseUrl, String uriPath, Map<String, String> pathVariables) {
+        return uriTemplateEngine.expand(baseUrl, uriPath, pathVariables, null);
+    }
+
+    /**
+     * Validates inputs for the request.
+     *
+     * @param baseUrl The base URL of the API.
+     * @param uriPath The endpoint path of the API.
+     * @param clazz   The class type of the expected response.
+     * @param <T>     The type of the response.
+     * @throws IllegalArgumentException if any input is invalid.
+     */
+    private <T> void validateInputs(String baseUrl, String uriPath, Class<T> clazz) {
+        if (Objects.isNull(baseUrl) || baseUrl.isBlank()) {
+            throw new IllegalArgumentException("Base URL must not be null or empty");
+        }
+        if (Objects.isNull(uriPath) || uriPath.isBlank()) {
+            throw new IllegalArgumentException("URI path must not be null or empty");
+        }
+        if (Objects.isNull(clazz)) {
+            throw new IllegalArgumentException("Response class type must not be null");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.srv.sumit.webclient_demo.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.function.Function;
+
+/**
+ * Pipelines the calls of a bulk write over a reactive source with bounded concurrency.
+ * <p>
+ * At most {@code concurrency} calls are in flight; the source is only pulled as calls complete and their
+ * results are consumed, so a large or slow source is never read ahead into memory. Every item yields a
+ * {@link BulkResult}, and a failing item never cancels the batch. Results are emitted in source order
+ * (a fast call waits for slower predecessors) or in completion order (higher throughput).
+ */
+@Component
+public class BulkExecutor {
+
+    private final int defaultConcurrency;
+    private final boolean defaultOrdered;
+
+    public BulkExecutor(@Value("${webclient.bulk.concurrency:16}") int defaultConcurrency,
+                        @Value("${webclient.bulk.ordered:true}") boolean defaultOrdered) {
+        this.defaultConcurrency = defaultConcurrency;
+        this.defaultOrdered = defaultOrdered;
+    }
+
+    /**
+     * Runs one call per item with the configured concurrency and result order.
+     */
+    public <I, T> Flux<BulkResult<I, T>> execute(Flux<I> items, Function<I, Mono<T>> call) {
+        return execute(items, call, defaultConcurrency, defaultOrdered);
+    }
+
+    /**
+     * Runs one call per item.
+     *
+     * @param items       The source items; subscribed once.
+     * @param call        Creates the call for an item.
+     * @param concurrency Maximum calls in flight.
+     * @param ordered     Whether results keep the source order instead of completion order.
+     * @param <I>         The source item type.
+     * @param <T>         The response type.
+     * @return One result per item.
+     */
+    public <I, T> Flux<BulkResult<I, T>> execute(Flux<I> items, Function<I, Mono<T>> call,
+                                                 int concurrency, boolean ordered) {
+        Flux<Tuple2<Long, I>> indexed = items.index();
+        Function<Tuple2<Long, I>, Mono<BulkResult<I, T>>> attempt = tuple -> {
+            long index = tuple.getT1();
+            I item = tuple.getT2();
+            return Mono.defer(() -> call.apply(item))
+                    .map(CallResult::success)
+                    // Calls without a response body (DELETE) complete empty
+                    .switchIfEmpty(Mono.fromSupplier(() -> CallResult.<T>success(null)))
+                    .onErrorResume(error -> Mono.just(CallResult.<T>failure(error)))
+                    .map(result -> new BulkResult<>(index, item, result));
+        };
+        // Each inner call emits exactly one result, so a prefetch of 1 keeps buffering to the in-flight calls
+        return ordered
+                ? indexed.flatMapSequential(attempt, concurrency, 1)
+                : indexed.flatMap(attempt, concurrency, 1);
+    }
+}
@@ -0,0 +1,17 @@
+package com.srv.sumit.webclient_demo.util;
+
+/**
+ * Outcome of one item of a bulk write.
+ *
+ * @param index  Position of the item in the source, to correlate results in unordered mode.
+ * @param item   The source item (request body or path variables).
+ * @param result The parsed response or the error this item failed with.
+ * @param <I>    The source item type.
+ * @param <T>    The response type.
+ */
+public record BulkResult<I, T>(long index, I item, CallResult<T> result) {
+
+    public boolean isSuccess() {
+        return result.isSuccess();
+    }
+}
@@ -0,0 +1,23 @@
+package com.srv.sumit.webclient_demo.util;
+
+/**
+ * Outcome of one call in a batch: either a value or the error that call failed with.
+ *
+ * @param value The parsed response, or {@code null} on failure.
+ * @param error The failure cause, or {@code null} on success.
+ * @param <T>   The response type.
+ */
+public record CallResult<T>(T value, Throwable error) {
+
+    public static <T> CallResult<T> success(T value) {
+        return new CallResult<>(value, null);
+    }
+
+    public static <T> CallResult<T> failure(Throwable error) {
+        return new CallResult<>(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
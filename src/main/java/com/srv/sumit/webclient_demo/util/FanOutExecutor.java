@@ -0,0 +1,52 @@
+package com.srv.sumit.webclient_demo.util;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs blocking client calls concurrently on the client call executor and collects their outcomes.
+ */
+@Component
+public class FanOutExecutor {
+
+    private final ExecutorService executor;
+
+    public FanOutExecutor(@Qualifier("clientCallExecutor") ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs all calls concurrently and waits for them to finish.
+     *
+     * @param calls The calls to run.
+     * @param <T>   The result type.
+     * @return One result per call, in input order. A failing call never affects the others.
+     */
+    public <T> List<CallResult<T>> invokeAll(List<Callable<T>> calls) {
+        List<Future<T>> futures = new ArrayList<>(calls.size());
+        for (Callable<T> call : calls) {
+            futures.add(executor.submit(call));
+        }
+
+        List<CallResult<T>> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(CallResult.success(future.get()));
+            } catch (ExecutionException ex) {
+                results.add(CallResult.failure(ex.getCause()));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                results.add(CallResult.failure(ex));
+            }
+        }
+        return results;
+    }
+}
@@ -1,22 +1,44 @@
 package com.srv.sumit.webclient_demo.util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.ContentNegotiation;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.compression.HttpCompression;
 import com.srv.sumit.webclient_demo.exception.HttpClientException;
+import com.srv.sumit.webclient_demo.loadgen.TrafficRecorder;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import com.srv.sumit.webclient_demo.resilience.HostResilience;
+import com.srv.sumit.webclient_demo.resilience.RateLimiters;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.io.IOCallback;
 import org.apache.hc.core5.http.ClassicHttpResponse;
-import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityTemplate;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 /**
  * Utility class to handle HTTP requests using Apache HttpClient.
@@ -25,13 +47,111 @@ import java.util.Objects;
 public class HttpClientHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
+    private static final String CLIENT = "httpclient";
 
     private final CloseableHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final boolean streamingEnabled;
+    private final FanOutExecutor fanOutExecutor;
+    private final UriTemplateEngine uriTemplateEngine;
+    private final ClientMetrics clientMetrics;
+    private final HostResilience hostResilience;
+    private final RateLimiters rateLimiters;
+    private final HttpCompression httpCompression;
+    private final ContentNegotiation contentNegotiation;
+    private final CodecRegistry codecRegistry;
+    private final TrafficRecorder trafficRecorder;
 
-    public HttpClientHelper(CloseableHttpClient httpClient, ObjectMapper objectMapper) {
+    public HttpClientHelper(CloseableHttpClient httpClient, CodecRegistry codecRegistry, FanOutExecutor fanOutExecutor,
+                            UriTemplateEngine uriTemplateEngine, ClientMetrics clientMetrics,
+                            HostResilience hostResilience, RateLimiters rateLimiters, HttpCompression httpCompression,
+                            ContentNegotiation contentNegotiation, TrafficRecorder trafficRecorder,
+                            @Value("${http-client.streaming.enabled:false}") boolean streamingEnabled) {
         this.httpClient = httpClient;
-        this.objectMapper = objectMapper;
+        this.trafficRecorder = trafficRecorder;
+        this.codecRegistry = codecRegistry;
+        this.contentNegotiation = contentNegotiation;
+        this.clientMetrics = clientMetrics;
+        this.hostResilience = hostResilience;
+        this.rateLimiters = rateLimiters;
+        this.httpCompression = httpCompression;
+        this.fanOutExecutor = fanOutExecutor;
+        this.uriTemplateEngine = uriTemplateEngine;
+        this.streamingEnabled = streamingEnabled;
+    }
+
+    /**
+     * Makes a GET request and parses the response to the specified class type.
+     *
+     * @param baseUrl       The base URL of the API.
+     * @param uriPath       The endpoint path of the API.
+     * @param headers       Custom headers for the request.
+     * @param pathVariables Path variables to replace in the URI.
+     * @param clazz         The class type of the expected response.
+     * @param <T>           The type of the expected response.
+     * @return The parsed response object.
+     * @throws HttpClientException in case of an HTTP error or processing error.
+     */
+    public <T> T get(String baseUrl, String uriPath, Map<String, String> headers,
+                     Map<String, String> pathVariables, Class<T> clazz) {
+        return get(baseUrl, uriPath, headers, pathVariables, null, clazz);
+    }
+
+    /**
+     * Makes a GET request with query parameters and parses the response to the specified class type.
+     *
+     * @param baseUrl       The base URL of the API.
+     * @param uriPath       The endpoint path of the API.
+     * @param headers       Custom headers for the request.
+     * @param pathVariables Path variables to replace in the URI.
+     * @param queryParams   Query parameters to append to the URI.
+     * @param clazz         The class type of the expected response.
+     * @param <T>           The type of the expected response.
+     * @return The parsed response object.
+     * @throws HttpClientException in case of an HTTP error or processing error.
+     */
+    public <T> T get(String baseUrl, String uriPath, Map<String, String> headers, Map<String, String> pathVariables,
+                     MultiValueMap<String, String> queryParams, Class<T> clazz) {
+        validateInputs(baseUrl, uriPath, clazz);
+        trafficRecorder.record(CLIENT, HttpMethod.GET, baseUrl, uriPath, headers, pathVariables, queryParams, null,
+                clazz);
+
+        String fullUrl = constructUri(baseUrl, uriPath, pathVariables, queryParams);
+        HttpGet httpGet = new HttpGet(fullUrl);
+
+        return guard("GET", uriPath, fullUrl, () -> {
+            try {
+                // Add headers
+                if (headers != null && !headers.isEmpty()) {
+                    headers.forEach(httpGet::addHeader);
+                }
+                contentNegotiation.negotiate(fullUrl, httpGet);
+
+                // Execute the request using a response handler
+                return httpClient.execute(httpGet, metricsContext("GET", uriPath),
+                        response -> processResponse(response, fullUrl, clazz));
+
+            } catch (IOException ex) {
+                LOGGER.error("I/O error during GET request to {}: {}", fullUrl, ex.getMessage(), ex);
+                throw new HttpClientException("I/O error during GET request", 500, ex);
+            }
+        });
+    }
+
+    /**
+     * Runs several GET requests concurrently on the client call executor
+     * (virtual threads when enabled) and waits for all of them.
+     *
+     * @param requests The requests to run.
+     * @param clazz    The class type of the expected responses.
+     * @param <T>      The type of the expected responses.
+     * @return One result per request, in input order, holding either the parsed response or its error.
+     */
+    public <T> List<CallResult<T>> getAll(List<RequestSpec> requests, Class<T> clazz) {
+        List<Callable<T>> calls = requests.stream()
+                .<Callable<T>>map(spec -> () -> get(spec.baseUrl(), spec.uriPath(), spec.headers(),
+                        spec.pathVariables(), spec.queryParams(), clazz))
+                .toList();
+        return fanOutExecutor.invokeAll(calls);
     }
 
     /**
@@ -51,51 +171,99 @@ public class HttpClientHelper {
     public <T, R> T post(String baseUrl, String uriPath, Map<String, String> headers, R body,
                          Map<String, String> pathVariables, Class<T> clazz) {
         validateInputs(baseUrl, uriPath, clazz);
+        trafficRecorder.record(CLIENT, HttpMethod.POST, baseUrl, uriPath, headers, pathVariables, null, body, clazz);
 
-        String fullUrl = constructUri(baseUrl, uriPath, pathVariables);
+        String fullUrl = constructUri(baseUrl, uriPath, pathVariables, null);
         HttpPost httpPost = new HttpPost(fullUrl);
 
-        try {
-            // Add headers
-            if (headers != null && !headers.isEmpty()) {
-                headers.forEach(httpPost::addHeader);
-            }
+        return guard("POST", uriPath, fullUrl, () -> {
+            try {
+                // Add headers
+                if (headers != null && !headers.isEmpty()) {
+                    headers.forEach(httpPost::addHeader);
+                }
+                contentNegotiation.negotiate(fullUrl, httpPost);
 
-            // Set request body
-            if (body != null) {
-                String jsonBody = objectMapper.writeValueAsString(body);
-                httpPost.setEntity(new StringEntity(jsonBody, ContentType.APPLICATION_JSON));
+                // Set request body
+                if (body != null) {
+                    httpPost.setEntity(createEntity(body, contentNegotiation.requestFormat(fullUrl)));
+                }
+
+                // Define a response handler to process the response
+                HttpClientResponseHandler<T> responseHandler = response -> processResponse(response, fullUrl, clazz);
+
+                // Execute the request using the response handler
+                return httpClient.execute(httpPost, metricsContext("POST", uriPath), responseHandler);
+
+            } catch (IOException ex) {
+                LOGGER.error("I/O error during POST request to {}: {}", fullUrl, ex.getMessage(), ex);
+                throw new HttpClientException("I/O error during POST request", 500, ex);
             }
+        });
+    }
 
-            // Define a response handler to process the response
-            HttpClientResponseHandler<T> responseHandler = response -> processResponse(response, fullUrl, clazz);
+    /**
+     * Times one call and runs it behind the host's rate limit, then its circuit breaker and bulkhead, so a call
+     * waiting for a permit holds neither a breaker permission nor a bulkhead slot.
+     */
+    private <T> T guard(String method, String uriPath, String fullUrl, Supplier<T> call) {
+        return clientMetrics.timed(CLIENT, method, uriPath,
+                () -> rateLimiters.execute(fullUrl, () -> hostResilience.execute(fullUrl, call)));
+    }
 
-            // Execute the request using the response handler
-            return httpClient.execute(httpPost, responseHandler);
+    /**
+     * Creates an execution context carrying the metric tags, so retries granted by the client's
+     * retry strategy are attributed to the right method and URI template.
+     */
+    private static HttpClientContext metricsContext(String method, String uriPath) {
+        HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(ClientMetrics.METHOD_ATTRIBUTE, method);
+        context.setAttribute(ClientMetrics.URI_TEMPLATE_ATTRIBUTE, uriPath);
+        return context;
+    }
 
-        } catch (IOException ex) {
-            LOGGER.error("I/O error during POST request to {}: {}", fullUrl, ex.getMessage(), ex);
-            throw new HttpClientException("I/O error during POST request", 500, ex);
+    /**
+     * Creates the request entity. In streaming mode Jackson serializes the body directly into the
+     * connection's output stream (chunked), so no String or byte[] copy of the payload is made.
+     * The template entity is repeatable, which keeps the client's retry strategy working.
+     * Bodies are written in the host's {@link PayloadFormat} and content-coded as configured in
+     * {@link HttpCompression}.
+     *
+     * @param body   The request body object.
+     * @param format The format to write the body in.
+     * @param <R>    The type of the request body.
+     * @return The entity to send.
+     * @throws IOException if the body cannot be serialized in buffered mode.
+     */
+    private <R> HttpEntity createEntity(R body, PayloadFormat format) throws IOException {
+        ContentType contentType = format == PayloadFormat.JSON
+                ? ContentType.APPLICATION_JSON
+                : ContentType.create(format.mediaType().toString());
+        if (streamingEnabled) {
+            ObjectWriter writer = codecRegistry.streamingWriter(format, body.getClass());
+            IOCallback<OutputStream> bodyWriter = outputStream -> writer.writeValue(outputStream, body);
+            String encoding = httpCompression.streamingEncoding();
+            return new EntityTemplate(-1, contentType, encoding,
+                    encoding != null ? httpCompression.encoding(CLIENT, bodyWriter) : bodyWriter);
         }
+        byte[] serialized = codecRegistry.writer(format, body.getClass()).writeValueAsBytes(body);
+        HttpCompression.EncodedBody encoded = httpCompression.encode(CLIENT, serialized);
+        return new ByteArrayEntity(encoded.body(), contentType, encoded.encoding());
     }
 
     /**
-     * Constructs the final URI by replacing path variables.
+     * Constructs the final URI by expanding the cached path template and appending query parameters.
      *
      * @param baseUrl       The base URL (including scheme, e.g., <a href="http://example.com">...</a>).
      * @param uriPath       The URI path with placeholders for path variables.
      * @param pathVariables A map of path variables to replace placeholders in the URI.
-     * @return The constructed URI with path variables substituted.
+     * @param queryParams   Query parameters to append to the URI, or {@code null}.
+     * @return The constructed URI with path variables and query parameters encoded.
+     * @throws IllegalArgumentException if a placeholder in the URI path has no path variable.
      */
-    private String constructUri(String baseUrl, String uriPath, Map<String, String> pathVariables) {
-        String fullUri = baseUrl + uriPath;
-
-        if (pathVariables != null && !pathVariables.isEmpty()) {
-            for (Map.Entry<String, String> entry : pathVariables.entrySet()) {
-                fullUri = fullUri.replace("{" + entry.getKey() + "}", entry.getValue());
-            }
-        }
-        return fullUri;
+    private String constructUri(String baseUrl, String uriPath, Map<String, String> pathVariables,
+                                MultiValueMap<String, String> queryParams) {
+        return uriTemplateEngine.expand(baseUrl, uriPath, pathVariables, queryParams);
     }
 
     /**
@@ -115,9 +283,20 @@ public class HttpClientHelper {
         if (statusCode >= 200 && statusCode < 300) {
             // Success response
             if (entity != null) {
-                String responseBody = new String(entity.getContent().readAllBytes(), StandardCharsets.UTF_8);
-                LOGGER.debug("Successful response from {}: {}", url, responseBody);
-                return objectMapper.readValue(responseBody, clazz);
+                // Parse with the reader of the response's format; JSON unless the server answered in Smile or CBOR
+                ObjectReader reader = codecRegistry.reader(PayloadFormat.fromContentType(entity.getContentType()), clazz);
+                if (streamingEnabled && !LOGGER.isDebugEnabled()) {
+                    // Feed the entity stream straight into the parser; the body is only materialized for debug logs
+                    try (InputStream content = entity.getContent()) {
+                        return ResponseHandler.readValue(content, reader);
+                    }
+                }
+                byte[] responseBody = EntityUtils.toByteArray(entity);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Successful response from {}: {}", url, new String(responseBody, StandardCharsets.UTF_8));
+                }
+                // Parse the bytes directly, skipping the intermediate String
+                return ResponseHandler.readValue(responseBody, reader);
             } else {
                 throw new HttpClientException("Empty response body", statusCode, null);
             }
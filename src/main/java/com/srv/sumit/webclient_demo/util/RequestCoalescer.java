@@ -0,0 +1,138 @@
+package com.srv.sumit.webclient_demo.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Single-flight coalescing of identical in-flight requests.
+ * <p>
+ * Concurrent calls with the same method, URI, key headers and target type share one upstream exchange
+ * and one decoded result. The entry is dropped as soon as the exchange terminates, so nothing is cached
+ * beyond the lifetime of the request. Callers receive the same decoded instance and must not mutate it.
+ * Requests, coalesced requests, shared exchanges and the coalescing ratio are published as
+ * {@code http.client.coalescing.*} / {@code http.client.coalesced} meters.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final ConcurrentMap<Key, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final boolean enabled;
+    private final Set<String> keyHeaders;
+
+    public RequestCoalescer(MeterRegistry meterRegistry,
+                            @Value("${webclient.coalescing.enabled:false}") boolean enabled,
+                            @Value("${webclient.coalescing.key-headers:Authorization,Accept}") Set<String> keyHeaders) {
+        this.enabled = enabled;
+        this.keyHeaders = keyHeaders.stream()
+                .map(header -> header.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+
+        LongAdder requests = this.requests;
+        LongAdder coalesced = this.coalesced;
+        FunctionCounter.builder("http.client.coalescing.requests", requests, LongAdder::sum)
+                .description("Requests that went through request coalescing")
+                .register(meterRegistry);
+        FunctionCounter.builder("http.client.coalesced", coalesced, LongAdder::sum)
+                .description("Requests that joined an identical in-flight exchange instead of going upstream")
+                .register(meterRegistry);
+        Gauge.builder("http.client.coalescing.in.flight", inFlight, Map::size)
+                .description("Distinct exchanges currently shared by coalesced requests")
+                .register(meterRegistry);
+        Gauge.builder("http.client.coalescing.ratio", coalesced, adder -> ratio(adder.sum(), requests.sum()))
+                .description("Fraction of coalescing requests that joined an in-flight exchange")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Joins an identical in-flight exchange, or starts a new one through the supplier.
+     *
+     * @param method   The HTTP method.
+     * @param uri      The fully expanded request URI.
+     * @param headers  The request headers; only the configured key headers take part in the key.
+     * @param clazz    The decoded response type.
+     * @param exchange Supplies the upstream exchange, including decoding and retries.
+     * @param <T>      The response type.
+     * @return A Mono sharing the result of the single upstream exchange.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(HttpMethod method, URI uri, Map<String, String> headers, Class<T> clazz,
+                                Supplier<Mono<T>> exchange) {
+        if (!enabled) {
+            return Mono.defer(exchange);
+        }
+        return Mono.defer(() -> {
+            requests.increment();
+            Key key = new Key(method, uri, keyHeaderValues(headers), clazz);
+
+            AtomicReference<Mono<T>> created = new AtomicReference<>();
+            created.set(Mono.defer(exchange)
+                    .doFinally(signal -> inFlight.remove(key, created.get()))
+                    .share());
+
+            Mono<?> existing = inFlight.putIfAbsent(key, created.get());
+            if (existing != null) {
+                coalesced.increment();
+                return (Mono<T>) existing;
+            }
+            return created.get();
+        });
+    }
+
+    private Map<String, String> keyHeaderValues(Map<String, String> headers) {
+        Map<String, String> values = new TreeMap<>();
+        if (headers != null) {
+            headers.forEach((name, value) -> {
+                String normalized = name.toLowerCase(Locale.ROOT);
+                if (keyHeaders.contains(normalized)) {
+                    values.put(normalized, value);
+                }
+            });
+        }
+        return values;
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return The fraction of requests that joined an in-flight exchange instead of going upstream.
+     */
+    public double getCoalescingRatio() {
+        return ratio(coalesced.sum(), requests.sum());
+    }
+
+    private static double ratio(long coalesced, long total) {
+        return total == 0 ? 0.0 : (double) coalesced / total;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private record Key(HttpMethod method, URI uri, Map<String, String> headers, Class<?> type) {
+    }
+}
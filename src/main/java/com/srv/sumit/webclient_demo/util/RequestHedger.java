@@ -0,0 +1,170 @@
+package com.srv.sumit.webclient_demo.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Hedging of idempotent requests to cut tail latency.
+ * <p>
+ * If an attempt has not answered within the hedge delay, a second identical attempt is sent and whichever
+ * answers first wins; the other is cancelled, which releases its connection. The delay is a percentile of
+ * the recently observed latency of the same endpoint, or a fixed delay until enough samples exist.
+ * A token bucket caps hedges at a fraction of all requests, so a slow upstream never sees more than that
+ * much extra load. Errors of the hedge are ignored in favour of the original attempt; errors of the
+ * original attempt are propagated as usual.
+ */
+@Component
+public class RequestHedger {
+
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 32;
+    private static final int RECOMPUTE_EVERY = 32;
+    private static final long TOKEN = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final boolean enabled;
+    private final long fixedDelayNanos;
+    private final double percentile;
+    private final long depositPerRequest;
+    private final LongSupplier nanoClock;
+    private final AtomicLong tokens = new AtomicLong(MAX_TOKENS);
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    private final Counter sent;
+    private final Counter won;
+    private final Counter denied;
+
+    @Autowired
+    public RequestHedger(MeterRegistry meterRegistry,
+                         @Value("${webclient.hedging.enabled:false}") boolean enabled,
+                         @Value("${webclient.hedging.delay:200ms}") Duration fixedDelay,
+                         @Value("${webclient.hedging.percentile:0.95}") double percentile,
+                         @Value("${webclient.hedging.max-ratio:0.05}") double maxRatio) {
+        this(meterRegistry, enabled, fixedDelay, percentile, maxRatio, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock The time source for attempt latencies, {@link System#nanoTime} outside tests.
+     */
+    RequestHedger(MeterRegistry meterRegistry, boolean enabled, Duration fixedDelay, double percentile,
+                  double maxRatio, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.nanoClock = nanoClock;
+        this.fixedDelayNanos = fixedDelay.toNanos();
+        this.percentile = percentile;
+        this.depositPerRequest = Math.round(maxRatio * TOKEN);
+        this.sent = hedgeCounter(meterRegistry, "sent");
+        this.won = hedgeCounter(meterRegistry, "won");
+        this.denied = hedgeCounter(meterRegistry, "denied");
+    }
+
+    private static Counter hedgeCounter(MeterRegistry meterRegistry, String event) {
+        return Counter.builder("http.client.hedges")
+                .description("Hedged requests: sent, won by the hedge, or denied by the hedge budget")
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hedges an idempotent attempt.
+     *
+     * @param endpoint Identifies the endpoint whose latency drives the delay, e.g. base URL plus URI template.
+     * @param attempt  A cold Mono performing one attempt; it is subscribed once more for the hedge.
+     * @param <T>      The response type.
+     * @return The first successful response of the attempt or its hedge.
+     */
+    public <T> Mono<T> hedge(String endpoint, Mono<T> attempt) {
+        if (!enabled) {
+            return attempt;
+        }
+        LatencyWindow window = latencies.computeIfAbsent(endpoint, key -> new LatencyWindow());
+        return Mono.defer(() -> {
+            deposit();
+            Mono<T> primary = timed(attempt, window);
+            Mono<T> hedge = Mono.delay(Duration.ofNanos(window.hedgeDelayNanos()))
+                    .flatMap(tick -> {
+                        if (!tryWithdraw()) {
+                            denied.increment();
+                            // Never signal, so the original attempt decides the outcome
+                            return Mono.<T>never();
+                        }
+                        sent.increment();
+                        return timed(attempt, window)
+                                .doOnNext(value -> won.increment())
+                                .onErrorResume(error -> Mono.never());
+                    });
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    private <T> Mono<T> timed(Mono<T> attempt, LatencyWindow window) {
+        return Mono.defer(() -> {
+            long start = nanoClock.getAsLong();
+            return attempt.doOnSuccess(value -> window.record(nanoClock.getAsLong() - start));
+        });
+    }
+
+    private void deposit() {
+        long current = tokens.get();
+        while (current < MAX_TOKENS) {
+            if (tokens.compareAndSet(current, Math.min(MAX_TOKENS, current + depositPerRequest))) {
+                return;
+            }
+            current = tokens.get();
+        }
+    }
+
+    private boolean tryWithdraw() {
+        long current = tokens.get();
+        while (current >= TOKEN) {
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+            current = tokens.get();
+        }
+        return false;
+    }
+
+    /**
+     * Ring buffer of recent successful attempt latencies of one endpoint, with a periodically refreshed percentile.
+     */
+    private final class LatencyWindow {
+
+        private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+        private final AtomicLong count = new AtomicLong();
+        private volatile long delayNanos = fixedDelayNanos;
+
+        void record(long latencyNanos) {
+            long n = count.getAndIncrement();
+            samples.set((int) (n % WINDOW), latencyNanos);
+            if (percentile > 0 && n + 1 >= MIN_SAMPLES && (n + 1) % RECOMPUTE_EVERY == 0) {
+                recompute((int) Math.min(n + 1, WINDOW));
+            }
+        }
+
+        private void recompute(int size) {
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            delayNanos = sorted[(int) Math.max(0, Math.min(size - 1, Math.ceil(percentile * size) - 1))];
+        }
+
+        long hedgeDelayNanos() {
+            return delayNanos;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.srv.sumit.webclient_demo.util;
+
+import org.springframework.util.MultiValueMap;
+
+import java.util.Map;
+
+/**
+ * Describes a single GET call for the fan-out APIs of the blocking helpers.
+ *
+ * @param baseUrl       Base URL of the API.
+ * @param uriPath       Path to append to the base URL.
+ * @param headers       Any headers to send with the request.
+ * @param pathVariables Path variables to be replaced in the URI.
+ * @param queryParams   Query parameters to append to the URI.
+ */
+public record RequestSpec(String baseUrl, String uriPath, Map<String, String> headers,
+                          Map<String, String> pathVariables, MultiValueMap<String, String> queryParams) {
+
+    public static RequestSpec of(String baseUrl, String uriPath, Map<String, String> pathVariables) {
+        return new RequestSpec(baseUrl, uriPath, null, pathVariables, null);
+    }
+}
@@ -1,11 +1,17 @@
 package com.srv.sumit.webclient_demo.util;
 
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public class ResponseHandler {
@@ -24,13 +30,109 @@ public class ResponseHandler {
 
     public static <T> Mono<List<T>> handleListResponse(String responseBody, Class<T> clazz, ObjectMapper objectMapper) {
         try {
-            JavaType collectionType = objectMapper.getTypeFactory().constructCollectionType(List.class, clazz);
-            List<T> list = objectMapper.readValue(responseBody, collectionType);
+            List<T> list = objectMapper.readerForListOf(clazz).readValue(responseBody);
             return Mono.just(list);
         } catch (Exception ex) {
             LOGGER.error("Failed to parse response to list: {}", ex.getMessage());
             return Mono.error(new RuntimeException("Response parsing error", ex));
         }
     }
-}
 
+    /**
+     * Parses a response body straight from a (possibly pooled) DataBuffer with Jackson's UTF-8 byte parser,
+     * skipping the intermediate String. The buffer is released when the stream closes.
+     */
+    public static <T> Mono<T> handleResponse(DataBuffer responseBody, Class<T> clazz, ObjectMapper objectMapper) {
+        return handleResponse(responseBody, objectMapper.readerFor(clazz));
+    }
+
+    /**
+     * Parses a JSON array response straight from a DataBuffer into a list. The buffer is released when the stream closes.
+     */
+    public static <T> Mono<List<T>> handleListResponse(DataBuffer responseBody, Class<T> clazz, ObjectMapper objectMapper) {
+        return handleListResponse(responseBody, objectMapper.readerForListOf(clazz));
+    }
+
+    /**
+     * Parses a response body from a DataBuffer with a prepared (typically {@link CodecRegistry} cached) reader.
+     * The buffer is released when the stream closes.
+     */
+    public static <T> Mono<T> handleResponse(DataBuffer responseBody, ObjectReader reader) {
+        try (InputStream inputStream = responseBody.asInputStream(true)) {
+            T parsedObject = reader.readValue(inputStream);
+            return Mono.just(parsedObject);
+        } catch (Exception ex) {
+            LOGGER.error("Failed to parse response: {}", ex.getMessage());
+            return Mono.error(new RuntimeException("Response parsing error", ex));
+        }
+    }
+
+    /**
+     * Parses an array response from a DataBuffer with a prepared list reader, see
+     * {@link CodecRegistry#listReader}. The buffer is released when the stream closes.
+     */
+    public static <T> Mono<List<T>> handleListResponse(DataBuffer responseBody, ObjectReader listReader) {
+        try (InputStream inputStream = responseBody.asInputStream(true)) {
+            List<T> list = listReader.readValue(inputStream);
+            return Mono.just(list);
+        } catch (Exception ex) {
+            LOGGER.error("Failed to parse response to list: {}", ex.getMessage());
+            return Mono.error(new RuntimeException("Response parsing error", ex));
+        }
+    }
+
+    /**
+     * Parses a buffered WebClient response with the cached reader of its {@code Content-Type} (JSON, Smile or CBOR).
+     * A response without a body completes empty.
+     */
+    public static <T> Mono<T> handleResponse(ResponseEntity<DataBuffer> response, Class<T> clazz,
+                                             CodecRegistry codecRegistry) {
+        DataBuffer body = response.getBody();
+        if (body == null) {
+            return Mono.empty();
+        }
+        return handleResponse(body, codecRegistry.reader(PayloadFormat.fromContentType(response.getHeaders().getContentType()), clazz));
+    }
+
+    /**
+     * Parses a buffered WebClient array response with the cached list reader of its {@code Content-Type}.
+     * A response without a body completes empty.
+     */
+    public static <T> Mono<List<T>> handleListResponse(ResponseEntity<DataBuffer> response, Class<T> clazz,
+                                                       CodecRegistry codecRegistry) {
+        DataBuffer body = response.getBody();
+        if (body == null) {
+            return Mono.empty();
+        }
+        return handleListResponse(body,
+                codecRegistry.listReader(PayloadFormat.fromContentType(response.getHeaders().getContentType()), clazz));
+    }
+
+    /**
+     * Parses a raw response body for the blocking clients, leaving I/O error handling to the caller.
+     */
+    public static <T> T readValue(byte[] responseBody, Class<T> clazz, ObjectMapper objectMapper) throws IOException {
+        return objectMapper.readValue(responseBody, clazz);
+    }
+
+    /**
+     * Parses a response body as it streams in for the blocking clients, leaving I/O error handling to the caller.
+     */
+    public static <T> T readValue(InputStream responseBody, Class<T> clazz, ObjectMapper objectMapper) throws IOException {
+        return objectMapper.readValue(responseBody, clazz);
+    }
+
+    /**
+     * Parses a raw response body for the blocking clients with a prepared reader.
+     */
+    public static <T> T readValue(byte[] responseBody, ObjectReader reader) throws IOException {
+        return reader.readValue(responseBody);
+    }
+
+    /**
+     * Parses a streamed response body for the blocking clients with a prepared reader.
+     */
+    public static <T> T readValue(InputStream responseBody, ObjectReader reader) throws IOException {
+        return reader.readValue(responseBody);
+    }
+}
@@ -1,18 +1,26 @@
 package com.srv.sumit.webclient_demo.util;
 
+import com.srv.sumit.webclient_demo.codec.ContentNegotiation;
 import com.srv.sumit.webclient_demo.exception.HttpClientException;
+import com.srv.sumit.webclient_demo.loadgen.TrafficRecorder;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import com.srv.sumit.webclient_demo.resilience.HostResilience;
+import com.srv.sumit.webclient_demo.resilience.RateLimiters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClient;
 
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
 
 /**
  * Utility class to handle HTTP requests using Spring RestClient.
@@ -21,11 +29,111 @@ import java.util.Objects;
 public class RestClientHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RestClientHelper.class);
+    private static final String CLIENT = "restclient";
 
     private final RestClient restClient;
+    private final FanOutExecutor fanOutExecutor;
+    private final UriTemplateEngine uriTemplateEngine;
+    private final ClientMetrics clientMetrics;
+    private final HostResilience hostResilience;
+    private final RateLimiters rateLimiters;
+    private final ContentNegotiation contentNegotiation;
+    private final TrafficRecorder trafficRecorder;
 
-    public RestClientHelper(RestClient.Builder restClientBuilder) {
+    public RestClientHelper(RestClient.Builder restClientBuilder, FanOutExecutor fanOutExecutor,
+                            UriTemplateEngine uriTemplateEngine, ClientMetrics clientMetrics,
+                            HostResilience hostResilience, RateLimiters rateLimiters,
+                            ContentNegotiation contentNegotiation, TrafficRecorder trafficRecorder) {
         this.restClient = restClientBuilder.build();
+        this.trafficRecorder = trafficRecorder;
+        this.contentNegotiation = contentNegotiation;
+        this.clientMetrics = clientMetrics;
+        this.hostResilience = hostResilience;
+        this.rateLimiters = rateLimiters;
+        this.fanOutExecutor = fanOutExecutor;
+        this.uriTemplateEngine = uriTemplateEngine;
+    }
+
+    /**
+     * Makes a GET request and parses the response to the specified class type.
+     *
+     * @param baseUrl       The base URL of the API.
+     * @param uriPath       The endpoint path of the API.
+     * @param headers       Custom headers for the request.
+     * @param pathVariables Path variables to replace in the URI.
+     * @param clazz         The class type of the expected response.
+     * @param <T>           The type of the expected response.
+     * @return The parsed response object.
+     * @throws HttpClientException in case of an HTTP error or processing error.
+     */
+    public <T> T get(String baseUrl, String uriPath, Map<String, String> headers,
+                     Map<String, String> pathVariables, Class<T> clazz) {
+        return get(baseUrl, uriPath, headers, pathVariables, null, clazz);
+    }
+
+    /**
+     * Makes a GET request with query parameters and parses the response to the specified class type.
+     *
+     * @param baseUrl       The base URL of the API.
+     * @param uriPath       The endpoint path of the API.
+     * @param headers       Custom headers for the request.
+     * @param pathVariables Path variables to replace in the URI.
+     * @param queryParams   Query parameters to append to the URI.
+     * @param clazz         The class type of the expected response.
+     * @param <T>           The type of the expected response.
+     * @return The parsed response object.
+     * @throws HttpClientException in case of an HTTP error or processing error.
+     */
+    public <T> T get(String baseUrl, String uriPath, Map<String, String> headers, Map<String, String> pathVariables,
+                     MultiValueMap<String, String> queryParams, Class<T> clazz) {
+        validateInputs(baseUrl, uriPath, clazz);
+        trafficRecorder.record(CLIENT, HttpMethod.GET, baseUrl, uriPath, headers, pathVariables, queryParams, null,
+                clazz);
+
+        URI fullUri = constructUri(baseUrl, uriPath, pathVariables, queryParams);
+        return clientMetrics.timed(CLIENT, "GET", uriPath, () -> rateLimiters.execute(fullUri, () -> hostResilience.execute(fullUri, () -> {
+            try {
+                LOGGER.info("Making GET request to {}", fullUri);
+
+                ResponseEntity<T> response = restClient
+                        .method(HttpMethod.GET)
+                        .uri(fullUri)
+                        .headers(httpHeaders -> addHeaders(fullUri, httpHeaders, headers))
+                        .retrieve()
+                        .toEntity(clazz);
+
+                LOGGER.debug("GET request successful. Response: {}", response);
+                return response.getBody();
+            } catch (HttpStatusCodeException httpStatusEx) {
+                // Handle HTTP errors with specific status codes
+                LOGGER.error("Error during GET request to {}: Status code {} - {}",
+                        fullUri, httpStatusEx.getStatusCode(), httpStatusEx.getMessage(), httpStatusEx);
+                throw new HttpClientException("HTTP error during GET request",
+                        httpStatusEx.getStatusCode().value(), httpStatusEx);
+
+            } catch (Exception ex) {
+                // Handle other unexpected errors
+                LOGGER.error("Error during GET request to {}: {}", fullUri, ex.getMessage(), ex);
+                throw new HttpClientException("Unexpected error during GET request", 500, ex);
+            }
+        })));
+    }
+
+    /**
+     * Runs several GET requests concurrently on the client call executor
+     * (virtual threads when enabled) and waits for all of them.
+     *
+     * @param requests The requests to run.
+     * @param clazz    The class type of the expected responses.
+     * @param <T>      The type of the expected responses.
+     * @return One result per request, in input order, holding either the parsed response or its error.
+     */
+    public <T> List<CallResult<T>> getAll(List<RequestSpec> requests, Class<T> clazz) {
+        List<Callable<T>> calls = requests.stream()
+                .<Callable<T>>map(spec -> () -> get(spec.baseUrl(), spec.uriPath(), spec.headers(),
+                        spec.pathVariables(), spec.queryParams(), clazz))
+                .toList();
+        return fanOutExecutor.invokeAll(calls);
     }
 
     /**
@@ -45,52 +153,52 @@ public class RestClientHelper {
     public <T, R> T post(String baseUrl, String uriPath, Map<String, String> headers, R body,
                          Map<String, String> pathVariables, Class<T> clazz) {
         validateInputs(baseUrl, uriPath, clazz);
+        trafficRecorder.record(CLIENT, HttpMethod.POST, baseUrl, uriPath, headers, pathVariables, null, body, clazz);
 
-        URI fullUri = constructUri(baseUrl, uriPath, pathVariables);
-        try {
-            LOGGER.info("Making POST request to {}", fullUri);
-
-            ResponseEntity<T> response = restClient
-                    .method(HttpMethod.POST)
-                    .uri(fullUri)
-                    .headers(httpHeaders -> addHeaders(httpHeaders, headers))
-                    .body(body)
-                    .retrieve()
-                    .toEntity(clazz);
-
-            LOGGER.debug("POST request successful. Response: {}", response);
-            return response.getBody();
-        } catch (HttpStatusCodeException httpStatusEx) {
-            // Handle HTTP errors with specific status codes
-            LOGGER.error("Error during POST request to {}: Status code {} - {}",
-                    fullUri, httpStatusEx.getStatusCode(), httpStatusEx.getMessage(), httpStatusEx);
-            throw new HttpClientException("HTTP error during POST request",
-                    httpStatusEx.getStatusCode().value(), httpStatusEx);
-
-        } catch (Exception ex) {
-            // Handle other unexpected errors
-            LOGGER.error("Error during POST request to {}: {}", fullUri, ex.getMessage(), ex);
-            throw new HttpClientException("Unexpected error during POST request", 500, ex);
-        }
+        URI fullUri = constructUri(baseUrl, uriPath, pathVariables, null);
+        return clientMetrics.timed(CLIENT, "POST", uriPath, () -> rateLimiters.execute(fullUri, () -> hostResilience.execute(fullUri, () -> {
+            try {
+                LOGGER.info("Making POST request to {}", fullUri);
+
+                ResponseEntity<T> response = restClient
+                        .method(HttpMethod.POST)
+                        .uri(fullUri)
+                        .headers(httpHeaders -> addHeaders(fullUri, httpHeaders, headers))
+                        .contentType(contentNegotiation.requestFormat(fullUri).mediaType())
+                        .body(body) // Written by the converter of the host's format
+                        .retrieve()
+                        .toEntity(clazz);
+
+                LOGGER.debug("POST request successful. Response: {}", response);
+                return response.getBody();
+            } catch (HttpStatusCodeException httpStatusEx) {
+                // Handle HTTP errors with specific status codes
+                LOGGER.error("Error during POST request to {}: Status code {} - {}",
+                        fullUri, httpStatusEx.getStatusCode(), httpStatusEx.getMessage(), httpStatusEx);
+                throw new HttpClientException("HTTP error during POST request",
+                        httpStatusEx.getStatusCode().value(), httpStatusEx);
+
+            } catch (Exception ex) {
+                // Handle other unexpected errors
+                LOGGER.error("Error during POST request to {}: {}", fullUri, ex.getMessage(), ex);
+                throw new HttpClientException("Unexpected error during POST request", 500, ex);
+            }
+        })));
     }
 
     /**
-     * Constructs the final URI by replacing path variables.
+     * Constructs the final URI by expanding the cached path template and appending query parameters.
      *
      * @param baseUrl       The base URL (including scheme, e.g., <a href="http://example.com">...</a>).
      * @param uriPath       The URI path with placeholders for path variables.
      * @param pathVariables A map of path variables to replace placeholders in the URI.
-     * @return The constructed URI with path variables substituted.
+     * @param queryParams   Query parameters to append to the URI, or {@code null}.
+     * @return The constructed URI with path variables and query parameters encoded.
+     * @throws IllegalArgumentException if a placeholder in the URI path has no path variable.
      */
-    private URI constructUri(String baseUrl, String uriPath, Map<String, String> pathVariables) {
-        String fullUri = baseUrl + uriPath;
-
-        if (pathVariables != null && !pathVariables.isEmpty()) {
-            for (Map.Entry<String, String> entry : pathVariables.entrySet()) {
-                fullUri = fullUri.replace("{" + entry.getKey() + "}", entry.getValue());
-            }
-        }
-        return URI.create(fullUri);
+    private URI constructUri(String baseUrl, String uriPath, Map<String, String> pathVariables,
+                             MultiValueMap<String, String> queryParams) {
+        return URI.create(uriTemplateEngine.expand(baseUrl, uriPath, pathVariables, queryParams));
     }
 
     /**
@@ -115,14 +223,16 @@ public class RestClientHelper {
     }
 
     /**
-     * Adds custom headers to the HTTP request.
+     * Adds custom headers to the HTTP request, then the {@code Accept} header for hosts served in a binary format.
      *
+     * @param uri         The request URI.
      * @param httpHeaders The HttpHeaders object to populate.
      * @param headers     A map of custom headers.
      */
-    private void addHeaders(HttpHeaders httpHeaders, Map<String, String> headers) {
+    private void addHeaders(URI uri, HttpHeaders httpHeaders, Map<String, String> headers) {
         if (headers != null && !headers.isEmpty()) {
             headers.forEach(httpHeaders::add);
         }
+        contentNegotiation.negotiate(uri, httpHeaders);
     }
 }
@@ -0,0 +1,215 @@
+package com.srv.sumit.webclient_demo.util;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * URI template engine shared by all client helpers.
+ * <p>
+ * Each {@code uriPath} template (e.g. {@code /objects/{id}}) is parsed once and cached. Expansion then
+ * appends the base URL, literal segments, percent-encoded path variables and percent-encoded query
+ * parameters into a single pre-sized buffer, without intermediate strings or per-variable scans.
+ * <p>
+ * Path variable values are encoded as a single path segment, so reserved characters such as {@code /},
+ * {@code ?}, {@code #} and {@code %} in a value are percent-encoded rather than changing the URI's structure.
+ * A variable may appear several times in a template and is expanded at each occurrence. A placeholder without
+ * a value fails the expansion with an {@link IllegalArgumentException} naming it; the string replacement this
+ * engine replaced left such a placeholder in the URI as {@code {name}}, which then failed later, or not at all,
+ * depending on the client.
+ */
+@Component
+public class UriTemplateEngine {
+
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /** Unreserved characters, a safe subset of sub-delims, ':' and '@' - kept as-is inside a path variable value. */
+    private static final BitSet PATH_SEGMENT = new BitSet(128);
+    /** Characters allowed in a query parameter name or value; '&', '=', '+' and '#' are encoded. */
+    private static final BitSet QUERY_PARAM = new BitSet(128);
+    /** Characters kept as-is in template literals, which are assumed to be valid URI text already. */
+    private static final BitSet LITERAL = new BitSet(128);
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            PATH_SEGMENT.set(c);
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            PATH_SEGMENT.set(c);
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            PATH_SEGMENT.set(c);
+        }
+        for (char c : "-._~!$'()*,;:@".toCharArray()) {
+            PATH_SEGMENT.set(c);
+        }
+        QUERY_PARAM.or(PATH_SEGMENT);
+        QUERY_PARAM.clear(';');
+        QUERY_PARAM.set('/');
+        QUERY_PARAM.set('?');
+        // Literals may contain any printable ASCII except the characters that are illegal anywhere in a URI
+        for (char c = 0x21; c < 0x7F; c++) {
+            LITERAL.set(c);
+        }
+        for (char c : "\"<>\\^`{|}".toCharArray()) {
+            LITERAL.clear(c);
+        }
+    }
+
+    private final ConcurrentMap<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * Expands a URI template against path variables and query parameters.
+     *
+     * @param baseUrl       The base URL (including scheme, e.g., http://example.com).
+     * @param uriPath       The URI path template with {@code {name}} placeholders.
+     * @param pathVariables Values for the placeholders; encoded as path segments.
+     * @param queryParams   Query parameters to append; names and values are encoded.
+     * @return The expanded, encoded URI string.
+     * @throws IllegalArgumentException if a placeholder has no value.
+     */
+    public String expand(String baseUrl, String uriPath, Map<String, String> pathVariables,
+                         MultiValueMap<String, String> queryParams) {
+        CompiledTemplate template = compile(uriPath);
+        StringBuilder builder = new StringBuilder(baseUrl.length() + template.estimatedLength());
+        builder.append(baseUrl);
+        template.expandInto(builder, pathVariables);
+
+        if (queryParams != null && !queryParams.isEmpty()) {
+            char separator = template.hasQuery() ? '&' : '?';
+            for (Map.Entry<String, List<String>> entry : queryParams.entrySet()) {
+                for (String value : entry.getValue()) {
+                    builder.append(separator);
+                    encode(entry.getKey(), QUERY_PARAM, builder);
+                    if (value != null) {
+                        builder.append('=');
+                        encode(value, QUERY_PARAM, builder);
+                    }
+                    separator = '&';
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the parsed form of a template, parsing and caching it on first use.
+     * Templates beyond the cache bound (e.g. dynamically built paths) are parsed per call instead of leaking.
+     */
+    CompiledTemplate compile(String uriPath) {
+        CompiledTemplate template = templates.get(uriPath);
+        if (template != null) {
+            return template;
+        }
+        template = CompiledTemplate.parse(uriPath);
+        if (templates.size() < MAX_CACHED_TEMPLATES) {
+            templates.putIfAbsent(uriPath, template);
+        }
+        return template;
+    }
+
+    /**
+     * Percent-encodes the UTF-8 bytes of every character outside the allowed set.
+     * The common case of an already-safe value is a straight append.
+     */
+    static void encode(String value, BitSet allowed, StringBuilder out) {
+        int length = value.length();
+        int i = 0;
+        while (i < length && isAllowed(value.charAt(i), allowed)) {
+            i++;
+        }
+        if (i == length) {
+            out.append(value);
+            return;
+        }
+        out.append(value, 0, i);
+        byte[] bytes = value.substring(i).getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            int unsigned = b & 0xFF;
+            if (unsigned < 0x80 && allowed.get(unsigned)) {
+                out.append((char) unsigned);
+            } else {
+                out.append('%').append(HEX[unsigned >> 4]).append(HEX[unsigned & 0xF]);
+            }
+        }
+    }
+
+    private static boolean isAllowed(char c, BitSet allowed) {
+        return c < 0x80 && allowed.get(c);
+    }
+
+    /**
+     * A template split into literals and variable names: {@code literals[0] {names[0]} literals[1] ...}.
+     */
+    static final class CompiledTemplate {
+
+        private final String[] literals;
+        private final String[] names;
+        private final boolean hasQuery;
+        private final int estimatedLength;
+
+        private CompiledTemplate(String[] literals, String[] names, boolean hasQuery, int estimatedLength) {
+            this.literals = literals;
+            this.names = names;
+            this.hasQuery = hasQuery;
+            this.estimatedLength = estimatedLength;
+        }
+
+        static CompiledTemplate parse(String uriPath) {
+            List<String> literals = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            int literalStart = 0;
+            int i = 0;
+            while (i < uriPath.length()) {
+                int close = uriPath.charAt(i) == '{' ? uriPath.indexOf('}', i) : -1;
+                if (close > i + 1) {
+                    literals.add(encodeLiteral(uriPath.substring(literalStart, i)));
+                    names.add(uriPath.substring(i + 1, close));
+                    i = close + 1;
+                    literalStart = i;
+                } else {
+                    i++;
+                }
+            }
+            literals.add(encodeLiteral(uriPath.substring(literalStart)));
+
+            int literalLength = literals.stream().mapToInt(String::length).sum();
+            return new CompiledTemplate(literals.toArray(new String[0]), names.toArray(new String[0]),
+                    uriPath.indexOf('?') >= 0, literalLength + 16 * names.size() + 32);
+        }
+
+        private static String encodeLiteral(String literal) {
+            StringBuilder encoded = new StringBuilder(literal.length());
+            encode(literal, LITERAL, encoded);
+            return encoded.toString();
+        }
+
+        void expandInto(StringBuilder builder, Map<String, String> pathVariables) {
+            builder.append(literals[0]);
+            for (int i = 0; i < names.length; i++) {
+                String value = pathVariables != null ? pathVariables.get(names[i]) : null;
+                if (value == null) {
+                    throw new IllegalArgumentException("No value for path variable '" + names[i] + "'");
+                }
+                encode(value, PATH_SEGMENT, builder);
+                builder.append(literals[i + 1]);
+            }
+        }
+
+        boolean hasQuery() {
+            return hasQuery;
+        }
+
+        int estimatedLength() {
+            return estimatedLength;
+        }
+    }
+}
@@ -1,41 +1,78 @@
 package com.srv.sumit.webclient_demo.util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.srv.sumit.webclient_demo.cache.CachingGetExecutor;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.ContentNegotiation;
+import com.srv.sumit.webclient_demo.loadgen.TrafficRecorder;
+import com.srv.sumit.webclient_demo.metrics.ClientMetrics;
+import com.srv.sumit.webclient_demo.resilience.HostResilience;
+import com.srv.sumit.webclient_demo.resilience.RateLimiters;
+import com.srv.sumit.webclient_demo.resilience.RetryPolicies;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 @Component
 public class WebClientHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WebClientHelper.class);
+    private static final String CLIENT = "webclient";
     private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private final FanOutExecutor fanOutExecutor;
+    private final RequestCoalescer requestCoalescer;
+    private final CachingGetExecutor cachingGetExecutor;
+    private final UriTemplateEngine uriTemplateEngine;
+    private final ClientMetrics clientMetrics;
+    private final HostResilience hostResilience;
+    private final RateLimiters rateLimiters;
+    private final RequestHedger requestHedger;
+    private final RetryPolicies retryPolicies;
+    private final BulkExecutor bulkExecutor;
+    private final ContentNegotiation contentNegotiation;
+    private final CodecRegistry codecRegistry;
+    private final TrafficRecorder trafficRecorder;
 
     @Autowired
-    public WebClientHelper(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
+    public WebClientHelper(WebClient.Builder webClientBuilder, FanOutExecutor fanOutExecutor,
+                           RequestCoalescer requestCoalescer, CachingGetExecutor cachingGetExecutor,
+                           UriTemplateEngine uriTemplateEngine, ClientMetrics clientMetrics,
+                           HostResilience hostResilience, RequestHedger requestHedger, RetryPolicies retryPolicies,
+                           BulkExecutor bulkExecutor, RateLimiters rateLimiters,
+                           ContentNegotiation contentNegotiation, CodecRegistry codecRegistry,
+                           TrafficRecorder trafficRecorder) {
         this.webClient = webClientBuilder.build();
-        objectMapper = objectMapper.registerModule(new ParameterNamesModule())
-                .registerModule(new Jdk8Module())
-                .registerModule(new JavaTimeModule());
-        this.objectMapper = objectMapper;
-
+        this.trafficRecorder = trafficRecorder;
+        this.contentNegotiation = contentNegotiation;
+        this.codecRegistry = codecRegistry;
+        this.bulkExecutor = bulkExecutor;
+        this.retryPolicies = retryPolicies;
+        this.requestHedger = requestHedger;
+        this.clientMetrics = clientMetrics;
+        this.hostResilience = hostResilience;
+        this.rateLimiters = rateLimiters;
+        this.uriTemplateEngine = uriTemplateEngine;
+        this.fanOutExecutor = fanOutExecutor;
+        this.requestCoalescer = requestCoalescer;
+        this.cachingGetExecutor = cachingGetExecutor;
     }
 
     /**
@@ -48,24 +85,38 @@ public class WebClientHelper {
      * @param pathVariables Path variables to be replaced in the URI.
      * @param queryParams  Query parameters to append to the URI.
      * @param <T>          The response type.
-     * @return The parsed response.
+     * @return The parsed response. With the response cache enabled this may be the instance held by the cache and
+     * returned to other callers too, so it must be treated as immutable.
      */
     public <T> T get(String baseUrl, String uriPath, Class<T> clazz, Map<String, String> headers,
                      Map<String, String> pathVariables, MultiValueMap<String, String> queryParams) {
+        trafficRecorder.record(CLIENT, HttpMethod.GET, baseUrl, uriPath, headers, pathVariables, queryParams, null,
+                clazz);
         try {
             URI finalUri = constructUri(baseUrl, uriPath, pathVariables, queryParams);
-            String response = webClient.get()
-                    .uri(finalUri)
-                    .headers(httpHeaders -> httpHeaders.setAll(getOrDefaultHeaders(headers))) // Set custom headers
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> Mono.error(new RuntimeException("HTTP error: " + clientResponse.statusCode())))
-                    .bodyToMono(String.class) // Get the response body as a String
-                    .retryWhen(Retry.backoff(3, Duration.ofSeconds(2)).jitter(0.75)) // Retry logic
+            // Serve from the HTTP response cache when enabled; only the network exchange is retried
+            Mono<T> exchange = cachingGetExecutor.isEnabled()
+                    ? cachingGetExecutor.get(webClient, finalUri, headers, clazz,
+                            upstream -> requestHedger.hedge(baseUrl + uriPath, guard(finalUri, upstream))
+                                    .retryWhen(retryPolicies.retry(CLIENT, "GET", uriPath, finalUri)))
+                    : webClient.get()
+                            .uri(finalUri)
+                            .headers(httpHeaders -> negotiate(finalUri, httpHeaders, headers)) // Set custom headers
+                            .retrieve()
+                            .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                                    WebClientHelper::httpError)
+                            .toEntity(DataBuffer.class) // Get the raw response bytes and their format
+                            // Parse within the attempt, so a cancelled hedge never holds an unreleased buffer
+                            .flatMap(entity -> ResponseHandler.handleResponse(entity, clazz, codecRegistry))
+                            .transform(attempt -> guard(finalUri, attempt)) // Per-host rate limit, breaker and bulkhead
+                            .transform(attempt -> requestHedger.hedge(baseUrl + uriPath, attempt)) // Hedge slow attempts
+                            .retryWhen(retryPolicies.retry(CLIENT, "GET", uriPath, finalUri)); // Retry logic
+            // Identical concurrent GETs share one exchange when coalescing is enabled
+            T response = clientMetrics.timed(CLIENT, "GET", uriPath,
+                            requestCoalescer.coalesce(HttpMethod.GET, finalUri, headers, clazz, () -> exchange))
                     .block(); // Block to wait for the response
 
-            // Handle and parse the response using the ResponseHandler
-            return ResponseHandler.handleResponse(response, clazz, objectMapper).block();
+            return response;
         } catch (WebClientResponseException ex) {
             LOGGER.error("Error while making GET request: {}", ex.getMessage());
             throw new RuntimeException("Error while making GET request", ex);
@@ -75,6 +126,23 @@ public class WebClientHelper {
         }
     }
 
+    /**
+     * Runs several blocking GET requests concurrently on the client call executor
+     * (virtual threads when enabled) and waits for all of them.
+     *
+     * @param requests The requests to run.
+     * @param clazz    The class type to map each response to.
+     * @param <T>      The response type.
+     * @return One result per request, in input order, holding either the parsed response or its error.
+     */
+    public <T> List<CallResult<T>> getAll(List<RequestSpec> requests, Class<T> clazz) {
+        List<Callable<T>> calls = requests.stream()
+                .<Callable<T>>map(spec -> () -> get(spec.baseUrl(), spec.uriPath(), clazz, spec.headers(),
+                        spec.pathVariables(), spec.queryParams()))
+                .toList();
+        return fanOutExecutor.invokeAll(calls);
+    }
+
     /**
      * Blocking GET request to retrieve a list of entities.
      *
@@ -89,20 +157,24 @@ public class WebClientHelper {
      */
     public <T> List<T> getList(String baseUrl, String uriPath, Class<T> clazz, Map<String, String> headers,
                                Map<String, String> pathVariables, MultiValueMap<String, String> queryParams) {
+        trafficRecorder.record(CLIENT, HttpMethod.GET, baseUrl, uriPath, headers, pathVariables, queryParams, null,
+                clazz.arrayType());
         try {
             URI finalUri = constructUri(baseUrl, uriPath, pathVariables, queryParams);
-            String response = webClient.get()
+            List<T> response = clientMetrics.timed(CLIENT, "GET", uriPath, webClient.get()
                     .uri(finalUri)
-                    .headers(httpHeaders -> httpHeaders.setAll(getOrDefaultHeaders(headers))) // Set custom headers
+                    .headers(httpHeaders -> negotiate(finalUri, httpHeaders, headers)) // Set custom headers
                     .retrieve()
                     .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> Mono.error(new RuntimeException("HTTP error: " + clientResponse.statusCode())))
-                    .bodyToMono(String.class) // Get the response body as a String
-                    .retryWhen(Retry.backoff(3, Duration.ofSeconds(2)).jitter(0.75)) // Retry logic
+                            WebClientHelper::httpError)
+                    .toEntity(DataBuffer.class) // Get the raw response bytes and their format
+                    .transform(attempt -> guard(finalUri, attempt)) // Per-host rate limit, breaker and bulkhead
+                    .retryWhen(retryPolicies.retry(CLIENT, "GET", uriPath, finalUri)) // Retry logic
+                    // Handle and parse the response bytes using the ResponseHandler
+                    .flatMap(entity -> ResponseHandler.handleListResponse(entity, clazz, codecRegistry)))
                     .block(); // Block to wait for the response
 
-            // Handle and parse the response using the ResponseHandler
-            return ResponseHandler.handleListResponse(response, clazz, objectMapper).block();
+            return response;
         } catch (WebClientResponseException ex) {
             LOGGER.error("Error while making GET request for list: {}", ex.getMessage());
             throw new RuntimeException("Error while making GET request for list", ex);
@@ -112,6 +184,50 @@ public class WebClientHelper {
         }
     }
 
+    /**
+     * Streaming GET request for a JSON array. Elements are decoded one by one as their bytes arrive,
+     * so the full response is never buffered and the 16 MB in-memory limit only applies per element.
+     * Downstream demand is propagated to the connection, keeping heap usage flat for large catalogs.
+     *
+     * @param baseUrl      Base URL of the API.
+     * @param uriPath      Path to append to the base URL.
+     * @param clazz        The class type of each array element.
+     * @param headers      Any headers to send with the request.
+     * @param pathVariables Path variables to be replaced in the URI.
+     * @param queryParams  Query parameters to append to the URI.
+     * @param <T>          The element type.
+     * @return A Flux emitting each parsed element.
+     */
+    public <T> Flux<T> streamList(String baseUrl, String uriPath, Class<T> clazz, Map<String, String> headers,
+                                  Map<String, String> pathVariables, MultiValueMap<String, String> queryParams) {
+        trafficRecorder.record(CLIENT, HttpMethod.GET, baseUrl, uriPath, headers, pathVariables, queryParams, null,
+                clazz.arrayType());
+        URI finalUri;
+        try {
+            finalUri = constructUri(baseUrl, uriPath, pathVariables, queryParams);
+        } catch (URISyntaxException ex) {
+            LOGGER.error("Error in URI syntax: {}", ex.getMessage());
+            return Flux.error(new RuntimeException("Error in URI syntax", ex));
+        } catch (IllegalArgumentException ex) {
+            // A missing path variable or base URL scheme, signalled like any other failure of the stream
+            LOGGER.error("Invalid URI: {}", ex.getMessage());
+            return Flux.error(ex);
+        }
+        return clientMetrics.timed(CLIENT, "GET", uriPath, webClient.get()
+                .uri(finalUri)
+                .headers(httpHeaders -> {
+                    httpHeaders.setAll(getOrDefaultHeaders(headers)); // Set custom headers
+                    contentNegotiation.negotiateStreaming(finalUri, httpHeaders);
+                })
+                .retrieve()
+                .bodyToFlux(clazz) // Decode array elements incrementally
+                .transform(attempt -> guard(finalUri, attempt)) // Per-host rate limit, breaker and bulkhead
+                // Status errors surface before any element is emitted, so only those are safe to retry
+                .retryWhen(retryPolicies.retry(CLIENT, "GET", uriPath, finalUri,
+                        throwable -> throwable instanceof WebClientResponseException)))
+                .doOnError(error -> LOGGER.error("Error while streaming GET request for list: {}", error.getMessage()));
+    }
+
     /**
      * Blocking POST request to send data and receive a response.
      *
@@ -127,21 +243,14 @@ public class WebClientHelper {
      */
     public <T, R> T post(String baseUrl, String uriPath, Class<T> clazz, Map<String, String> headers,
                          Map<String, String> pathVariables, R body) {
+        trafficRecorder.record(CLIENT, HttpMethod.POST, baseUrl, uriPath, headers, pathVariables, null, body, clazz);
         try {
             URI finalUri = constructUri(baseUrl, uriPath, pathVariables, null); // No query params for POST
 
-            String response = webClient.post()
-                    .uri(finalUri)
-                    .headers(httpHeaders -> httpHeaders.setAll(getOrDefaultHeaders(headers))) // Set custom headers
-                    .bodyValue(body) // Set the request body
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> Mono.error(new RuntimeException("HTTP error: " + clientResponse.statusCode())))
-                    .bodyToMono(String.class) // Get the response body as a String
+            T response = send(HttpMethod.POST, finalUri, uriPath, body, clazz, headers)
                     .block(); // Block to wait for the response
 
-            // Handle and parse the response using the ResponseHandler
-            return ResponseHandler.handleResponse(response, clazz, objectMapper).block();
+            return response;
         } catch (WebClientResponseException ex) {
             LOGGER.error("Error while making POST request: {}", ex.getMessage());
             throw new RuntimeException("Error while making POST request", ex);
@@ -166,20 +275,13 @@ public class WebClientHelper {
      */
     public <T, R> T put(String baseUrl, String uriPath, Class<T> clazz, Map<String, String> headers,
                         Map<String, String> pathVariables, R body) {
+        trafficRecorder.record(CLIENT, HttpMethod.PUT, baseUrl, uriPath, headers, pathVariables, null, body, clazz);
         try {
             URI finalUri = constructUri(baseUrl, uriPath, pathVariables, null);
-            String response = webClient.put()
-                    .uri(finalUri)
-                    .headers(httpHeaders -> httpHeaders.setAll(getOrDefaultHeaders(headers))) // Set custom headers
-                    .bodyValue(body) // Set the request body
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> Mono.error(new RuntimeException("HTTP error: " + clientResponse.statusCode())))
-                    .bodyToMono(String.class) // Get the response body as a String
+            T response = send(HttpMethod.PUT, finalUri, uriPath, body, clazz, headers)
                     .block(); // Block to wait for the response
 
-            // Handle and parse the response using the ResponseHandler
-            return ResponseHandler.handleResponse(response, clazz, objectMapper).block();
+            return response;
         } catch (WebClientResponseException ex) {
             LOGGER.error("Error while making PUT request: {}", ex.getMessage());
             throw new RuntimeException("Error while making PUT request", ex);
@@ -198,15 +300,10 @@ public class WebClientHelper {
      * @param pathVariables Path variables to be replaced in the URI.
      */
     public void delete(String baseUrl, String uriPath, Map<String, String> headers, Map<String, String> pathVariables) {
+        trafficRecorder.record(CLIENT, HttpMethod.DELETE, baseUrl, uriPath, headers, pathVariables, null, null, null);
         try {
             URI finalUri = constructUri(baseUrl, uriPath, pathVariables, null);
-            webClient.delete()
-                    .uri(finalUri)
-                    .headers(httpHeaders -> httpHeaders.setAll(getOrDefaultHeaders(headers))) // Set custom headers
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> Mono.error(new RuntimeException("HTTP error: " + clientResponse.statusCode())))
-                    .bodyToMono(Void.class) // No body in DELETE request
+            delete(finalUri, uriPath, headers)
                     .block(); // Block to wait for the response
 
         } catch (WebClientResponseException ex) {
@@ -218,59 +315,163 @@ public class WebClientHelper {
         }
     }
 
+    /**
+     * Blocking bulk POST of every body to the same URI. Requests are pipelined over the non-blocking client
+     * with at most {@code webclient.bulk.concurrency} in flight instead of one blocked thread each.
+     *
+     * @param baseUrl  Base URL of the API.
+     * @param uriPath  Path to append to the base URL.
+     * @param bodies   The request bodies.
+     * @param clazz    The class type to map each response to.
+     * @param headers  Any headers to send with each request.
+     * @param <T>      The response type.
+     * @param <R>      The request body type.
+     * @return One result per body, in input order, holding either the parsed response or its error.
+     */
+    public <T, R> List<CallResult<T>> postAll(String baseUrl, String uriPath, List<R> bodies, Class<T> clazz,
+                                              Map<String, String> headers) {
+        return bulk(bodies, body -> send(HttpMethod.POST,
+                constructUri(baseUrl, uriPath, null, null), uriPath, body, clazz, headers));
+    }
 
     /**
-     * Constructs the final URI by combining the base URL, URI path, path variables, and query parameters.
+     * Blocking bulk PUT, each body to the URI template expanded with its own path variables (e.g. its id).
      *
-     * @param baseUrl       The base URL (including scheme, e.g., http://example.com).
-     * @param uriPath       The URI path to be appended to the base URL.
-     * @param pathVariables A map of path variables to replace placeholders in the URI.
-     * @param queryParams   A map of query parameters to append to the URI.
-     * @return The constructed URI.
-     * @throws URISyntaxException if the constructed URI is invalid.
+     * @param baseUrl       Base URL of the API.
+     * @param uriPath       Path to append to the base URL.
+     * @param bodies        The request bodies.
+     * @param pathVariables Derives the path variables of a body.
+     * @param clazz         The class type to map each response to.
+     * @param headers       Any headers to send with each request.
+     * @param <T>           The response type.
+     * @param <R>           The request body type.
+     * @return One result per body, in input order, holding either the parsed response or its error.
      */
-    public URI constructUri(String baseUrl, String uriPath, Map<String, String> pathVariables,
-                            MultiValueMap<String, String> queryParams) throws URISyntaxException {
-        StringBuilder uriBuilder = buildUriPath(baseUrl, uriPath, pathVariables);
-        if (queryParams != null && !queryParams.isEmpty()) {
-            uriBuilder.append("?");
-            queryParams.forEach((key, values) -> {
-                values.forEach(value -> {
-                    uriBuilder.append(key).append("=").append(value).append("&");
-                });
-            });
-            // Remove the trailing "&"
-            uriBuilder.deleteCharAt(uriBuilder.length() - 1);
-        }
+    public <T, R> List<CallResult<T>> putAll(String baseUrl, String uriPath, List<R> bodies,
+                                             Function<R, Map<String, String>> pathVariables, Class<T> clazz,
+                                             Map<String, String> headers) {
+        return bulk(bodies, body -> send(HttpMethod.PUT,
+                constructUri(baseUrl, uriPath, pathVariables.apply(body), null), uriPath, body, clazz, headers));
+    }
+
+    /**
+     * Blocking bulk DELETE, one request per set of path variables.
+     *
+     * @param baseUrl       Base URL of the API.
+     * @param uriPath       Path to append to the base URL.
+     * @param pathVariables The path variables of each entity to delete.
+     * @param headers       Any headers to send with each request.
+     * @return One result per entity, in input order.
+     */
+    public List<CallResult<Void>> deleteAll(String baseUrl, String uriPath, List<Map<String, String>> pathVariables,
+                                            Map<String, String> headers) {
+        return bulk(pathVariables, variables -> delete(constructUri(baseUrl, uriPath, variables, null), uriPath, headers));
+    }
+
+    private <I, T> List<CallResult<T>> bulk(List<I> items, BulkCall<I, T> call) {
+        return bulkExecutor.execute(Flux.fromIterable(items), item -> {
+                    try {
+                        return call.apply(item);
+                    } catch (URISyntaxException ex) {
+                        return Mono.error(new RuntimeException("Error in URI syntax", ex));
+                    }
+                })
+                // Results arrive in the configured order; the blocking API always answers in input order
+                .collectSortedList(Comparator.comparingLong(BulkResult::index))
+                .map(results -> results.stream().map(BulkResult::result).toList())
+                .block(); // Block until every item has its result
+    }
+
+    /**
+     * One guarded and timed request with a body (POST or PUT).
+     */
+    private <T> Mono<T> send(HttpMethod method, URI finalUri, String uriPath, Object body, Class<T> clazz,
+                             Map<String, String> headers) {
+        return clientMetrics.timed(CLIENT, method.name(), uriPath, webClient.method(method)
+                .uri(finalUri)
+                .headers(httpHeaders -> negotiate(finalUri, httpHeaders, headers)) // Set custom headers
+                // Set the request body in the host's format, content-coded if large
+                .body(contentNegotiation.body(CLIENT, finalUri, body))
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        WebClientHelper::httpError)
+                .toEntity(DataBuffer.class) // Get the raw response bytes and their format
+                .transform(attempt -> guard(finalUri, attempt)) // Per-host rate limit, breaker and bulkhead
+                // Handle and parse the response bytes using the ResponseHandler
+                .flatMap(entity -> ResponseHandler.handleResponse(entity, clazz, codecRegistry)));
+    }
+
+    private Mono<Void> delete(URI finalUri, String uriPath, Map<String, String> headers) {
+        return clientMetrics.timed(CLIENT, "DELETE", uriPath, webClient.delete()
+                .uri(finalUri)
+                .headers(httpHeaders -> httpHeaders.setAll(getOrDefaultHeaders(headers))) // Set custom headers
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        WebClientHelper::httpError)
+                .bodyToMono(Void.class) // No body in DELETE request
+                .transform(attempt -> guard(finalUri, attempt))); // Per-host rate limit, breaker and bulkhead
+    }
+
+    /**
+     * Creates the call of one bulk item; URI construction may fail per item.
+     */
+    @FunctionalInterface
+    private interface BulkCall<I, T> {
+        Mono<T> apply(I item) throws URISyntaxException;
+    }
+
+    /**
+     * Guards one attempt: the host's rate limit first, so waiting for a permit holds no bulkhead slot,
+     * then its circuit breaker and bulkhead.
+     */
+    private <T> Mono<T> guard(URI uri, Mono<T> attempt) {
+        return rateLimiters.limit(uri, hostResilience.guard(uri, attempt));
+    }
 
-        return new URI(uriBuilder.toString());
+    private <T> Flux<T> guard(URI uri, Flux<T> attempt) {
+        return rateLimiters.limit(uri, hostResilience.guard(uri, attempt));
     }
 
     /**
-     * Builds the path part of the URI by appending the base URL and replacing path variables.
+     * Maps an error status to the helper's RuntimeException, keeping the {@link WebClientResponseException}
+     * (status and body) as its cause.
+     *
+     * @param clientResponse The error response.
+     * @return A Mono failing with the mapped exception.
+     */
+    private static Mono<? extends Throwable> httpError(ClientResponse clientResponse) {
+        return clientResponse.createException()
+                .map(ex -> new RuntimeException("HTTP error: " + clientResponse.statusCode(), ex));
+    }
+
+    /**
+     * Constructs the final URI by combining the base URL, URI path, path variables, and query parameters.
      *
      * @param baseUrl       The base URL (including scheme, e.g., http://example.com).
      * @param uriPath       The URI path to be appended to the base URL.
      * @param pathVariables A map of path variables to replace placeholders in the URI.
-     * @return A StringBuilder containing the constructed URI path.
-     * @throws IllegalArgumentException if the base URL doesn't contain a valid scheme (http:// or https://).
+     * @param queryParams   A map of query parameters to append to the URI.
+     * @return The constructed URI.
+     * @throws URISyntaxException if the constructed URI is invalid.
+     * @throws IllegalArgumentException if a placeholder in the URI path has no path variable.
      */
-    private static StringBuilder buildUriPath(String baseUrl, String uriPath, Map<String, String> pathVariables) {
+    public URI constructUri(String baseUrl, String uriPath, Map<String, String> pathVariables,
+                            MultiValueMap<String, String> queryParams) throws URISyntaxException {
         // Validate base URL
         if (!baseUrl.startsWith("http://") && !baseUrl.startsWith("https://")) {
             throw new IllegalArgumentException("Base URL must include the scheme (http:// or https://).");
         }
 
-        String fullUri = baseUrl + uriPath;
-
-        // Replace path variables in URI path
-        if (Objects.nonNull(pathVariables)) {
-            for (Map.Entry<String, String> entry : pathVariables.entrySet()) {
-                fullUri = fullUri.replace("{" + entry.getKey() + "}", entry.getValue());
-            }
-        }
+        // Expand the cached template in a single pass, encoding path variables and query parameters
+        return new URI(uriTemplateEngine.expand(baseUrl, uriPath, pathVariables, queryParams));
+    }
 
-        return new StringBuilder(fullUri);
+    /**
+     * Sets the custom headers, then the {@code Accept} header for hosts served in a binary format.
+     */
+    private void negotiate(URI uri, HttpHeaders httpHeaders, Map<String, String> headers) {
+        httpHeaders.setAll(getOrDefaultHeaders(headers));
+        contentNegotiation.negotiate(uri, httpHeaders);
     }
 
     /**
@@ -0,0 +1,151 @@
+package com.srv.sumit.webclient_demo.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.srv.sumit.webclient_demo.codec.CodecRegistry;
+import com.srv.sumit.webclient_demo.codec.PayloadFormat;
+import com.srv.sumit.webclient_demo.dto.ProductDTO;
+import com.srv.sumit.webclient_demo.dto.ProductData;
+import com.srv.sumit.webclient_demo.dto.ProductRequestDTO;
+import com.srv.sumit.webclient_demo.dto.ProductResponseDTO;
+import com.srv.sumit.webclient_demo.util.ResponseHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the JSON codec paths of all client stacks on synthetic product payloads before the application reports
+ * ready, so the JIT has compiled Jackson's (de)serializers for the DTOs by the time real responses arrive.
+ * <p>
+ * Covers request serialization, the byte and DataBuffer paths of {@link ResponseHandler} with the readers the
+ * helpers get from the {@link CodecRegistry}, and the streaming WebFlux codecs behind
+ * {@code bodyToFlux}/{@code bodyValue}, all on the shared ObjectMapper. {@code 0} iterations disables the warm-up.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class CodecWarmer implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CodecWarmer.class);
+    private static final int LIST_SIZE = 50;
+    private static final Map<String, Object> NO_HINTS = Map.of();
+
+    private final ObjectMapper objectMapper;
+    private final CodecRegistry codecRegistry;
+    private final int iterations;
+
+    public CodecWarmer(ObjectMapper objectMapper, CodecRegistry codecRegistry,
+                       @Value("${client.warmup.codec-iterations:2000}") int iterations) {
+        this.objectMapper = objectMapper;
+        this.codecRegistry = codecRegistry;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (iterations <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Jackson2JsonDecoder decoder = new Jackson2JsonDecoder(objectMapper);
+            Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper);
+            ResolvableType productType = ResolvableType.forClass(ProductDTO.class);
+            ResolvableType requestType = ResolvableType.forClass(ProductRequestDTO.class);
+            ObjectWriter requestWriter = codecRegistry.writer(PayloadFormat.JSON, ProductRequestDTO.class);
+            ObjectReader productReader = codecRegistry.reader(PayloadFormat.JSON, ProductDTO.class);
+            ObjectReader responseReader = codecRegistry.reader(PayloadFormat.JSON, ProductResponseDTO.class);
+            ObjectReader listReader = codecRegistry.listReader(PayloadFormat.JSON, ProductDTO.class);
+
+            ProductRequestDTO request = productRequest();
+            byte[] productBytes = objectMapper.writeValueAsBytes(product(0));
+            byte[] listBytes = objectMapper.writeValueAsBytes(products());
+            byte[] responseBytes = objectMapper.writeValueAsBytes(productResponse());
+
+            for (int i = 0; i < iterations; i++) {
+                requestWriter.writeValueAsBytes(request);
+                ResponseHandler.readValue(productBytes, productReader);
+                ResponseHandler.handleResponse(wrap(responseBytes), responseReader).block();
+                ResponseHandler.handleListResponse(wrap(listBytes), listReader).block();
+
+                decoder.decode(Flux.just(wrap(listBytes)), productType, MediaType.APPLICATION_JSON, NO_HINTS)
+                        .blockLast();
+                DataBufferUtils.release(encoder.encodeValue(request, DefaultDataBufferFactory.sharedInstance,
+                        requestType, MediaType.APPLICATION_JSON, NO_HINTS));
+            }
+            LOGGER.info("Warmed up JSON codecs with {} iterations in {} ms", iterations,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception ex) {
+            // A warm-up failure only costs early latency; it must never prevent startup
+            LOGGER.warn("JSON codec warm-up failed: {}", ex.getMessage());
+        }
+    }
+
+    private static DataBuffer wrap(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    private static ProductDTO product(int index) {
+        ProductData data = new ProductData();
+        data.setColor(index % 2 == 0 ? "Silver" : "Space Gray");
+        data.setCapacity("512 GB");
+        data.setYear(2015 + index % 10);
+        data.setPrice(499.99 + index);
+        data.setCpuModel("Intel Core i9");
+        data.setHardDiskSize("1 TB");
+
+        ProductDTO product = new ProductDTO();
+        product.setId(String.valueOf(index + 1));
+        product.setName("Apple MacBook Pro 16");
+        product.setData(data);
+        return product;
+    }
+
+    private static List<ProductDTO> products() {
+        List<ProductDTO> products = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    private static ProductRequestDTO productRequest() {
+        ProductRequestDTO.ProductDataDTO productDataDTO = new ProductRequestDTO.ProductDataDTO();
+        productDataDTO.setCpuModel("Intel Core i9");
+        productDataDTO.setPrice(1849.99);
+        productDataDTO.setYear(2019);
+        productDataDTO.setHardDiskSize("1 TB");
+        ProductRequestDTO requestDTO = new ProductRequestDTO();
+        requestDTO.setData(productDataDTO);
+        requestDTO.setName("Apple MacBook Pro 16");
+        return requestDTO;
+    }
+
+    private static ProductResponseDTO productResponse() {
+        ProductResponseDTO response = new ProductResponseDTO();
+        response.setId("ff808181932badb60193d1dd2fdf0b9a");
+        response.setName("Apple MacBook Pro 16");
+        response.setData(new ProductResponseDTO.ProductDataDTO());
+        response.setCreatedAt(LocalDateTime.now());
+        return response;
+    }
+}
@@ -0,0 +1,141 @@
+package com.srv.sumit.webclient_demo.warmup;
+
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.classic.methods.HttpHead;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opens pooled connections to the known upstream hosts before the application reports ready.
+ * <p>
+ * Spring Boot publishes the {@code ACCEPTING_TRAFFIC} readiness state only after all runners have completed,
+ * so the DNS lookup, TCP connect and TLS handshake are paid here instead of by the first real calls. For every
+ * host in {@code client.prewarm.hosts} each stack (WebClient, httpclient5 classic and async, RestClient) sends
+ * {@code connections-per-host} concurrent {@code HEAD} requests to {@code path}, which leave up to that many
+ * keep-alive connections in its pool (one multiplexed connection with HTTP/2). The response status is ignored.
+ * Prewarming never fails startup: errors are logged and the phase is abandoned after {@code timeout}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionPrewarmer implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPrewarmer.class);
+
+    private final WebClient webClient;
+    private final CloseableHttpClient httpClient;
+    private final CloseableHttpAsyncClient httpAsyncClient;
+    private final RestClient restClient;
+    private final ExecutorService executor;
+    private final List<URI> hosts;
+    private final String path;
+    private final int connectionsPerHost;
+    private final Duration timeout;
+
+    public ConnectionPrewarmer(WebClient.Builder webClientBuilder, CloseableHttpClient httpClient,
+                               CloseableHttpAsyncClient httpAsyncClient, RestClient.Builder restClientBuilder,
+                               @Qualifier("clientCallExecutor") ExecutorService executor,
+                               @Value("${client.prewarm.hosts:}") List<URI> hosts,
+                               @Value("${client.prewarm.path:/}") String path,
+                               @Value("${client.prewarm.connections-per-host:4}") int connectionsPerHost,
+                               @Value("${client.prewarm.timeout:10s}") Duration timeout) {
+        this.webClient = webClientBuilder.build();
+        this.httpClient = httpClient;
+        this.httpAsyncClient = httpAsyncClient;
+        this.restClient = restClientBuilder.build();
+        this.executor = executor;
+        this.hosts = hosts;
+        this.path = path;
+        this.connectionsPerHost = connectionsPerHost;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (hosts.isEmpty() || connectionsPerHost <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> warmups = new ArrayList<>();
+        for (URI host : hosts) {
+            URI uri = host.resolve(path);
+            warmups.add(prewarm("webclient", uri, () -> webClient.head()
+                    .uri(uri)
+                    .exchangeToMono(response -> response.releaseBody())
+                    .block(timeout)));
+            warmups.add(prewarm("httpclient", uri, () -> {
+                httpClient.execute(new HttpHead(uri), response -> null);
+                return null;
+            }));
+            warmups.add(prewarm("httpclient-async", uri, () -> httpAsyncClient
+                    .execute(SimpleRequestBuilder.head(uri).build(), null)
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS)));
+            warmups.add(prewarm("restclient", uri, () -> restClient.head()
+                    .uri(uri)
+                    .exchange((request, response) -> response.getStatusCode())));
+        }
+
+        try {
+            CompletableFuture.allOf(warmups.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            LOGGER.info("Prewarmed {} connection(s) per client to {} host(s) in {} ms", connectionsPerHost,
+                    hosts.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException ex) {
+            LOGGER.warn("Connection prewarming did not finish within {}, continuing startup", timeout);
+        } catch (ExecutionException ex) {
+            LOGGER.warn("Connection prewarming failed: {}", ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends {@code connectionsPerHost} concurrent requests so that each needs a connection of its own.
+     * A failure is logged once per client and host and never completes the result exceptionally.
+     */
+    private CompletableFuture<Void> prewarm(String client, URI uri, WarmupRequest request) {
+        List<CompletableFuture<Object>> calls = new ArrayList<>(connectionsPerHost);
+        for (int i = 0; i < connectionsPerHost; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return request.send();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex.getMessage(), ex);
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        LOGGER.warn("Could not prewarm {} connections to {}: {}", client, uri.getAuthority(),
+                                error.getMessage());
+                    }
+                    return null;
+                });
+    }
+
+    @FunctionalInterface
+    private interface WarmupRequest {
+        Object send() throws Exception;
+    }
+}
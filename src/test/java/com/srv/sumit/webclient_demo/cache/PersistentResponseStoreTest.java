@@ -0,0 +1,268 @@
+package com.srv.sumit.webclient_demo.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistentResponseStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int SEGMENT_HEADER_SIZE = 12;
+    // With a 2 character key and no metadata, three records fill a segment
+    private static final int BODY_SIZE = 1000;
+    private static final long FRESH = Long.MAX_VALUE;
+
+    @TempDir
+    Path directory;
+
+    private final List<PersistentResponseStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() throws Exception {
+        for (PersistentResponseStore store : opened) {
+            store.destroy();
+        }
+    }
+
+    /**
+     * Opens the store and waits for the compaction it runs on opening.
+     */
+    private PersistentResponseStore open(long maxSize, double compactionThreshold) throws Exception {
+        PersistentResponseStore store = new PersistentResponseStore(true, directory, DataSize.ofBytes(SEGMENT_SIZE),
+                DataSize.ofBytes(maxSize), Duration.ofDays(7), Duration.ofDays(1), compactionThreshold);
+        opened.add(store);
+        store.flush();
+        return store;
+    }
+
+    private PersistentResponseStore open() throws Exception {
+        return open(64 * SEGMENT_SIZE, 0.5);
+    }
+
+    private static StoredResponse response(char fill, long expiresAt) {
+        byte[] body = new byte[BODY_SIZE];
+        Arrays.fill(body, (byte) fill);
+        return new StoredResponse(body, null, 200, null, null, expiresAt, false, false);
+    }
+
+    private static String body(PersistentResponseStore store, String key) {
+        StoredResponse stored = store.get(key);
+        return stored == null ? null : new String(stored.body(), StandardCharsets.US_ASCII).substring(0, 1);
+    }
+
+    private Path segment(int id) {
+        return directory.resolve(String.format("segment-%08d.dat", id));
+    }
+
+    @Test
+    void reopenRestoresEntriesWithTheirMetadata() throws Exception {
+        PersistentResponseStore store = open();
+        StoredResponse response = new StoredResponse("{\"id\":1}".getBytes(StandardCharsets.UTF_8),
+                "application/json", 200, "\"v1\"", "Wed, 21 Oct 2015 07:28:00 GMT", 4_000_000_000_000L, true, true);
+        store.put("https://api.example.com/objects/1", response);
+        store.put("https://api.example.com/objects/2", response('b', FRESH));
+        store.destroy();
+
+        PersistentResponseStore reopened = open();
+
+        assertThat(reopened.size()).isEqualTo(2);
+        assertThat(reopened.get("https://api.example.com/objects/1")).usingRecursiveComparison().isEqualTo(response);
+        assertThat(body(reopened, "https://api.example.com/objects/2")).isEqualTo("b");
+    }
+
+    @Test
+    void reopenRebuildsTheIndexFromTheSegmentsWhenItIsMissing() throws Exception {
+        PersistentResponseStore store = open();
+        store.put("k1", response('a', FRESH));
+        store.put("k1", response('b', FRESH));
+        store.put("k2", response('c', FRESH));
+        store.destroy();
+        Files.delete(directory.resolve("index.dat"));
+
+        PersistentResponseStore reopened = open();
+
+        assertThat(reopened.size()).isEqualTo(2);
+        assertThat(body(reopened, "k1")).isEqualTo("b");
+        assertThat(body(reopened, "k2")).isEqualTo("c");
+    }
+
+    @Test
+    void cutsOffACorruptRecordAppendedAfterTheCheckpoint() throws Exception {
+        PersistentResponseStore store = open();
+        store.put("k1", response('a', FRESH));
+        store.destroy();
+        Path checkpoint = Files.copy(directory.resolve("index.dat"), directory.resolve("index.bak"));
+        PersistentResponseStore crashed = open();
+        crashed.put("k2", response('b', FRESH));
+        crashed.destroy();
+        // A crash before the next checkpoint, with the last record only partly on disk
+        Files.move(checkpoint, directory.resolve("index.dat"), StandardCopyOption.REPLACE_EXISTING);
+        int secondRecord = SEGMENT_HEADER_SIZE + recordLength(segment(1), SEGMENT_HEADER_SIZE);
+        overwrite(segment(1), secondRecord + 100, new byte[]{0, 0, 0, 0});
+
+        PersistentResponseStore recovered = open();
+        assertThat(recovered.size()).isEqualTo(1);
+        assertThat(body(recovered, "k1")).isEqualTo("a");
+        assertThat(recovered.get("k2")).isNull();
+
+        // New records go where the corrupt one was cut off
+        recovered.put("k3", response('c', FRESH));
+        recovered.destroy();
+        Files.delete(directory.resolve("index.dat"));
+        PersistentResponseStore reopened = open();
+        assertThat(body(reopened, "k1")).isEqualTo("a");
+        assertThat(body(reopened, "k3")).isEqualTo("c");
+        assertThat(reopened.get("k2")).isNull();
+    }
+
+    @Test
+    void ignoresATornWritePastTheCommittedPosition() throws Exception {
+        PersistentResponseStore store = open();
+        store.put("k1", response('a', FRESH));
+        store.destroy();
+        int committed = SEGMENT_HEADER_SIZE + recordLength(segment(1), SEGMENT_HEADER_SIZE);
+        // A record length and some bytes written before the crash, but never committed
+        overwrite(segment(1), committed, ByteBuffer.allocate(64).putInt(1043).putInt(42).array());
+        Files.delete(directory.resolve("index.dat"));
+
+        PersistentResponseStore reopened = open();
+        assertThat(reopened.size()).isEqualTo(1);
+        reopened.put("k2", response('b', FRESH));
+        reopened.destroy();
+
+        PersistentResponseStore again = open();
+        assertThat(body(again, "k1")).isEqualTo("a");
+        assertThat(body(again, "k2")).isEqualTo("b");
+    }
+
+    @Test
+    void tombstoneKeepsAnEntryRemovedAcrossRestarts() throws Exception {
+        PersistentResponseStore store = open();
+        store.put("k1", response('a', FRESH));
+        store.put("k2", response('b', FRESH));
+        store.destroy();
+        PersistentResponseStore invalidating = open();
+        invalidating.invalidate("k1");
+        invalidating.destroy();
+
+        PersistentResponseStore reopened = open();
+        assertThat(reopened.get("k1")).isNull();
+        assertThat(body(reopened, "k2")).isEqualTo("b");
+        reopened.destroy();
+
+        // Replaying the segments without the index meets the record and then its tombstone
+        Files.delete(directory.resolve("index.dat"));
+        PersistentResponseStore rebuilt = open();
+        assertThat(rebuilt.size()).isEqualTo(1);
+        assertThat(rebuilt.get("k1")).isNull();
+        assertThat(body(rebuilt, "k2")).isEqualTo("b");
+    }
+
+    /**
+     * Segment 1 full of fresh entries, segment 2 with two expired entries and one fresh, segment 3 full and active.
+     */
+    private void fillThreeSegments(PersistentResponseStore store) throws Exception {
+        long expired = System.currentTimeMillis() - 60_000;
+        store.put("a1", response('a', FRESH));
+        store.put("a2", response('a', FRESH));
+        store.put("a3", response('a', FRESH));
+        store.put("x1", response('x', expired));
+        store.put("x2", response('x', expired));
+        store.put("b1", response('b', FRESH));
+        store.put("c1", response('c', FRESH));
+        store.put("c2", response('c', FRESH));
+        store.put("c3", response('c', FRESH));
+        store.destroy();
+        assertThat(segment(3)).exists();
+        assertThat(segment(4)).doesNotExist();
+    }
+
+    @Test
+    void compactionDropsExpiredEntriesAndReclaimsSparseSegments() throws Exception {
+        fillThreeSegments(open());
+
+        open().destroy();
+
+        assertThat(segment(1)).exists();
+        assertThat(segment(2)).doesNotExist();
+        PersistentResponseStore reopened = open();
+        assertThat(reopened.size()).isEqualTo(7);
+        assertThat(reopened.get("x1")).isNull();
+        assertThat(reopened.get("x2")).isNull();
+        assertThat(body(reopened, "b1")).isEqualTo("b");
+    }
+
+    @Test
+    void compactionNeedingAnExtraSegmentDoesNotDropLiveSegments() throws Exception {
+        fillThreeSegments(open(3 * SEGMENT_SIZE, 0.5));
+
+        // Copying b1 out of segment 2 rolls to a fourth segment, one over the maximum until segment 2 is gone
+        open(3 * SEGMENT_SIZE, 0.5).destroy();
+
+        assertThat(segment(1)).exists();
+        assertThat(segment(2)).doesNotExist();
+        assertThat(segment(4)).exists();
+        PersistentResponseStore reopened = open(3 * SEGMENT_SIZE, 0.5);
+        assertThat(reopened.size()).isEqualTo(7);
+        for (String key : List.of("a1", "a2", "a3")) {
+            assertThat(body(reopened, key)).isEqualTo("a");
+        }
+        assertThat(body(reopened, "b1")).isEqualTo("b");
+        assertThat(body(reopened, "c3")).isEqualTo("c");
+    }
+
+    @Test
+    void compactionKeepsATombstoneWhileAnOlderSegmentHoldsTheEntry() throws Exception {
+        long expired = System.currentTimeMillis() - 60_000;
+        PersistentResponseStore store = open();
+        store.put("a1", response('a', FRESH));
+        store.put("a2", response('a', FRESH));
+        store.put("k1", response('k', FRESH));
+        store.put("x1", response('x', expired));
+        store.invalidate("k1");
+        store.put("x2", response('x', expired));
+        store.put("b1", response('b', FRESH));
+        store.put("c1", response('c', FRESH));
+        store.destroy();
+
+        // Segment 2 is compacted away with its tombstone for k1, while segment 1 still holds k1
+        open().destroy();
+        assertThat(segment(1)).exists();
+        assertThat(segment(2)).doesNotExist();
+
+        Files.delete(directory.resolve("index.dat"));
+        PersistentResponseStore rebuilt = open();
+        assertThat(rebuilt.get("k1")).isNull();
+        assertThat(rebuilt.size()).isEqualTo(4);
+        assertThat(body(rebuilt, "b1")).isEqualTo("b");
+    }
+
+    private static int recordLength(Path segment, int offset) throws Exception {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, offset);
+            return length.getInt(0);
+        }
+    }
+
+    private static void overwrite(Path segment, int offset, byte[] bytes) throws Exception {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), offset);
+        }
+    }
+}
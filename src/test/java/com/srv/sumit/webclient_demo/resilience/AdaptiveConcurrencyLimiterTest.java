@@ -0,0 +1,186 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import com.srv.sumit.webclient_demo.exception.CallNotPermittedException;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+import reactor.test.util.RaceTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final Duration MAX_WAIT = Duration.ofSeconds(1);
+    private static final long BASELINE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong nanos = new AtomicLong(5_000_000_000L);
+    private final VirtualTimeScheduler timer = VirtualTimeScheduler.create();
+
+    /**
+     * Between 1 and {@code maxLimit} slots, starting at {@code initialLimit}, with room for two waiting calls.
+     */
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxLimit) {
+        AdaptiveConcurrencyLimiter.Settings settings =
+                new AdaptiveConcurrencyLimiter.Settings(initialLimit, 1, maxLimit, 1.5, 2, MAX_WAIT);
+        return new AdaptiveConcurrencyLimiter("api.example.com:443", settings, nanos::get, timer);
+    }
+
+    /**
+     * Runs {@code calls} concurrent calls that all succeed after the round-trip time.
+     */
+    private void round(AdaptiveConcurrencyLimiter limiter, int calls, long rttNanos) {
+        List<AdaptiveConcurrencyLimiter.Listener> listeners = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            listeners.add(limiter.acquire().block());
+        }
+        nanos.addAndGet(rttNanos);
+        for (AdaptiveConcurrencyLimiter.Listener listener : listeners) {
+            listener.onSuccess();
+            listener.release();
+        }
+    }
+
+    @Test
+    void acquiresImmediatelyBelowTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 10);
+
+        AdaptiveConcurrencyLimiter.Listener first = limiter.acquire().block();
+        AdaptiveConcurrencyLimiter.Listener second = limiter.acquire().block();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(limiter.getQueued()).isZero();
+        first.release();
+        first.release();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void queuesCallsOverTheLimitAndGrantsThemInArrivalOrder() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1);
+        AdaptiveConcurrencyLimiter.Listener holder = limiter.acquire().block();
+        List<String> granted = new ArrayList<>();
+        List<AdaptiveConcurrencyLimiter.Listener> listeners = new ArrayList<>();
+        for (String name : List.of("second", "third")) {
+            limiter.acquire().subscribe(listener -> {
+                granted.add(name);
+                listeners.add(listener);
+            });
+        }
+        assertThat(limiter.getQueued()).isEqualTo(2);
+        assertThat(granted).isEmpty();
+
+        holder.release();
+        assertThat(granted).containsExactly("second");
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+
+        listeners.get(0).release();
+        assertThat(granted).containsExactly("second", "third");
+        assertThat(limiter.getQueued()).isZero();
+    }
+
+    @Test
+    void rejectsACallWhenTheQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1);
+        limiter.acquire().block();
+        limiter.acquire().subscribe();
+        limiter.acquire().subscribe();
+
+        StepVerifier.create(limiter.acquire())
+                .expectError(CallNotPermittedException.class)
+                .verify(Duration.ofSeconds(1));
+        assertThat(limiter.getQueued()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsAQueuedCallAfterMaxWait() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1);
+        AdaptiveConcurrencyLimiter.Listener holder = limiter.acquire().block();
+
+        StepVerifier.create(limiter.acquire())
+                .expectSubscription()
+                .then(() -> timer.advanceTimeBy(MAX_WAIT.minusMillis(1)))
+                .expectNoEvent(Duration.ZERO)
+                .then(() -> timer.advanceTimeBy(Duration.ofMillis(1)))
+                .expectError(CallNotPermittedException.class)
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(limiter.getQueued()).isZero();
+        holder.release();
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void cancellingAQueuedCallLeavesTheQueue() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1);
+        AdaptiveConcurrencyLimiter.Listener holder = limiter.acquire().block();
+        Disposable waiting = limiter.acquire().subscribe();
+        assertThat(limiter.getQueued()).isEqualTo(1);
+
+        waiting.dispose();
+        assertThat(limiter.getQueued()).isZero();
+
+        // The freed slot is not handed to the cancelled call
+        holder.release();
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void cancellingAsTheSlotIsGrantedNeverLeaksIt() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1);
+        for (int i = 0; i < 10_000; i++) {
+            AdaptiveConcurrencyLimiter.Listener holder = limiter.acquire().block();
+            Disposable waiting = limiter.acquire().subscribe(AdaptiveConcurrencyLimiter.Listener::release);
+
+            RaceTestUtils.race(holder::release, waiting::dispose);
+
+            assertThat(limiter.getQueued()).isZero();
+            assertThat(limiter.getInFlight()).as("slots in flight after round %d", i).isZero();
+        }
+    }
+
+    @Test
+    void raisesTheLimitWhileLatencyStaysAtTheBaseline() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 100);
+
+        for (int i = 0; i < 5; i++) {
+            round(limiter, 10, BASELINE_RTT);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void lowersTheLimitWhenLatencyRisesAboveTheBaseline() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 20);
+        for (int i = 0; i < 5; i++) {
+            round(limiter, 20, BASELINE_RTT);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+
+        round(limiter, 20, 10 * BASELINE_RTT);
+
+        assertThat(limiter.getLimit()).isLessThan(20);
+    }
+
+    @Test
+    void backsOffByATenthOnADrop() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 20);
+
+        AdaptiveConcurrencyLimiter.Listener listener = limiter.acquire().block();
+        listener.onDropped();
+        listener.onDropped();
+        listener.release();
+
+        assertThat(limiter.getLimit()).isEqualTo(18);
+    }
+}
@@ -0,0 +1,211 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+    private static final Duration SLOW_CALL_DURATION = Duration.ofSeconds(5);
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+
+    private CircuitBreaker breaker(int windowSize, int minimumCalls, int halfOpenCalls) {
+        CircuitBreaker.Settings settings = new CircuitBreaker.Settings(windowSize, minimumCalls, 50, 80,
+                SLOW_CALL_DURATION, OPEN_DURATION, halfOpenCalls);
+        return new CircuitBreaker(settings, nanos::get);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static void call(CircuitBreaker breaker, boolean failed) {
+        CircuitBreaker.Permission permission = breaker.tryAcquirePermission();
+        assertThat(permission).isNotNull();
+        breaker.onResult(permission, failed);
+    }
+
+    private CircuitBreaker openBreaker(int halfOpenCalls) {
+        CircuitBreaker breaker = breaker(4, 4, halfOpenCalls);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = breaker(10, 5, 2);
+
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isEqualTo(100.0);
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = breaker(10, 4, 2);
+
+        call(breaker, false);
+        call(breaker, false);
+        call(breaker, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // 2 failures out of 4 calls is the 50% threshold
+        call(breaker, true);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    @Test
+    void ratesCoverOnlyTheSlidingWindow() {
+        CircuitBreaker breaker = breaker(4, 4, 2);
+
+        call(breaker, true);
+        for (int i = 0; i < 6; i++) {
+            call(breaker, false);
+        }
+
+        assertThat(breaker.getFailureRate()).isZero();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensWhenSlowCallRateReachesThreshold() {
+        CircuitBreaker breaker = breaker(5, 5, 2);
+
+        for (int i = 0; i < 4; i++) {
+            CircuitBreaker.Permission permission = breaker.tryAcquirePermission();
+            advance(SLOW_CALL_DURATION);
+            breaker.onResult(permission, false);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        call(breaker, false);
+
+        // 4 slow calls out of 5 is the 80% threshold
+        assertThat(breaker.getSlowCallRate()).isEqualTo(80.0);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void becomesHalfOpenOnlyAfterOpenDuration() {
+        CircuitBreaker breaker = openBreaker(2);
+
+        advance(OPEN_DURATION.minusNanos(1));
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        advance(Duration.ofNanos(1));
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void permitsExactlyTheConfiguredNumberOfTrialCalls() {
+        CircuitBreaker breaker = openBreaker(3);
+        advance(OPEN_DURATION);
+
+        List<CircuitBreaker.Permission> trials = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            trials.add(breaker.tryAcquirePermission());
+        }
+
+        assertThat(trials).doesNotContainNull();
+        assertThat(breaker.tryAcquirePermission()).isNull();
+
+        breaker.onResult(trials.get(0), false);
+        breaker.onResult(trials.get(1), false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onResult(trials.get(2), false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isZero();
+    }
+
+    @Test
+    void failedTrialReopens() {
+        CircuitBreaker breaker = openBreaker(2);
+        advance(OPEN_DURATION);
+
+        CircuitBreaker.Permission first = breaker.tryAcquirePermission();
+        CircuitBreaker.Permission second = breaker.tryAcquirePermission();
+        breaker.onResult(first, true);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        // The other trial completing afterwards does not count against the new open period
+        breaker.onResult(second, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    @Test
+    void ignoredTrialReturnsItsPermit() {
+        CircuitBreaker breaker = openBreaker(1);
+        advance(OPEN_DURATION);
+
+        CircuitBreaker.Permission trial = breaker.tryAcquirePermission();
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        breaker.onIgnored(trial);
+
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+    }
+
+    @Test
+    void lateResultsOfCallsPermittedWhileClosedAreNotTrials() {
+        CircuitBreaker breaker = breaker(4, 4, 2);
+        List<CircuitBreaker.Permission> inFlight = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            inFlight.add(breaker.tryAcquirePermission());
+        }
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+        advance(OPEN_DURATION);
+        CircuitBreaker.Permission trial = breaker.tryAcquirePermission();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        // Calls let through before the breaker opened complete now: they must not close it
+        for (CircuitBreaker.Permission permission : inFlight) {
+            breaker.onResult(permission, false);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        // Nor hand their permits back to the half-open state when they are ignored
+        breaker.onIgnored(inFlight.get(0));
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+        assertThat(breaker.tryAcquirePermission()).isNull();
+
+        breaker.onResult(trial, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void lateResultsOfEarlierTrialsDoNotCountOnceClosed() {
+        CircuitBreaker breaker = openBreaker(2);
+        advance(OPEN_DURATION);
+        CircuitBreaker.Permission failing = breaker.tryAcquirePermission();
+        CircuitBreaker.Permission late = breaker.tryAcquirePermission();
+        breaker.onResult(failing, true);
+        advance(OPEN_DURATION);
+        call(breaker, false);
+        call(breaker, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onResult(late, true);
+
+        assertThat(breaker.getFailureRate()).isZero();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,128 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import com.srv.sumit.webclient_demo.exception.CallNotPermittedException;
+import com.srv.sumit.webclient_demo.exception.HttpClientException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HostResilienceTest {
+
+    private static final String URL = "http://api.example.com:8080/objects/1";
+    private static final String HOST = "api.example.com:8080";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HostResilience hostResilience(int minimumCalls, int maxConcurrentCalls) {
+        return new HostResilience(meterRegistry, true, 10, minimumCalls, 50, 100, Duration.ofSeconds(5),
+                Duration.ofMinutes(1), 2, maxConcurrentCalls);
+    }
+
+    private static <T> T fail(RuntimeException error) {
+        throw error;
+    }
+
+    private static void callIgnoringError(HostResilience hostResilience, RuntimeException error) {
+        assertThatThrownBy(() -> hostResilience.execute(URL, () -> fail(error))).isSameAs(error);
+    }
+
+    @Test
+    void opensOnServerErrorsAndRejectsWithoutCalling() {
+        HostResilience hostResilience = hostResilience(3, 10);
+        RuntimeException serverError = WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable", HttpHeaders.EMPTY, new byte[0], null);
+        for (int i = 0; i < 3; i++) {
+            callIgnoringError(hostResilience, serverError);
+        }
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> hostResilience.execute(URL, calls::incrementAndGet))
+                .isInstanceOf(CallNotPermittedException.class)
+                .satisfies(ex -> assertThat(((CallNotPermittedException) ex).getHost()).isEqualTo(HOST));
+        assertThat(calls).hasValue(0);
+        assertThat(hostResilience.getCircuitBreaker(HOST).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.get("http.client.rejected").tag("reason", "circuit_open").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void countsIoErrorsButNotClientErrorsAsFailures() {
+        HostResilience hostResilience = hostResilience(4, 10);
+        RuntimeException notFound = WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found",
+                HttpHeaders.EMPTY, new byte[0], null);
+        RuntimeException ioError = new HttpClientException("I/O error during GET request", 500,
+                new IOException("Connection reset"));
+
+        for (int i = 0; i < 4; i++) {
+            callIgnoringError(hostResilience, notFound);
+        }
+        assertThat(hostResilience.getCircuitBreaker(HOST).getFailureRate()).isZero();
+
+        for (int i = 0; i < 4; i++) {
+            callIgnoringError(hostResilience, ioError);
+        }
+        assertThat(hostResilience.getCircuitBreaker(HOST).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void bulkheadRejectsCallsOverTheLimitUntilOneCompletes() {
+        HostResilience hostResilience = hostResilience(100, 2);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        hostResilience.guardAsync(URL, () -> first);
+        hostResilience.guardAsync(URL, () -> second);
+
+        CompletableFuture<String> rejected =
+                hostResilience.guardAsync(URL, () -> CompletableFuture.completedFuture("x"));
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(meterRegistry.get("http.client.rejected").tag("reason", "bulkhead_full").counter().count())
+                .isEqualTo(1);
+
+        first.complete("done");
+        assertThat(hostResilience.guardAsync(URL, () -> CompletableFuture.completedFuture("x"))).isCompleted();
+        second.cancel(true);
+    }
+
+    @Test
+    void reactiveGuardTakesAPermissionPerSubscription() {
+        HostResilience hostResilience = hostResilience(2, 10);
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Mono.error(new HttpClientException("I/O error during GET request", 500,
+                    new IOException("Connection refused")));
+        });
+
+        Mono<String> guarded = hostResilience.guard(URI.create(URL), failing);
+
+        assertThatThrownBy(guarded::block).isExactlyInstanceOf(HttpClientException.class);
+        assertThatThrownBy(guarded::block).isExactlyInstanceOf(HttpClientException.class);
+        assertThatThrownBy(guarded::block).isInstanceOf(CallNotPermittedException.class);
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    @Test
+    void passesCallsThroughWhenDisabled() {
+        HostResilience hostResilience = new HostResilience(meterRegistry, false, 10, 1, 1, 1, Duration.ofSeconds(5),
+                Duration.ofMinutes(1), 1, 1);
+
+        for (int i = 0; i < 3; i++) {
+            callIgnoringError(hostResilience, new HttpClientException("Server error", 500, null));
+        }
+
+        assertThat(hostResilience.execute(URL, () -> "ok")).isEqualTo("ok");
+        assertThat(hostResilience.getCircuitBreaker(HOST)).isNull();
+    }
+}
@@ -0,0 +1,165 @@
+package com.srv.sumit.webclient_demo.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private final AtomicLong nanos = new AtomicLong(5_000_000_000L);
+
+    /**
+     * 10 permits per second (one per 100 ms), never slower than 1 per second, bursts of 3.
+     */
+    private RateLimiter rateLimiter() {
+        return new RateLimiter(10, 1, 3, nanos::get);
+    }
+
+    private void advance(long nanosToAdvance) {
+        nanos.addAndGet(nanosToAdvance);
+    }
+
+    @Test
+    void grantsBurstImmediatelyThenSpacesPermitsByInterval() {
+        RateLimiter rateLimiter = rateLimiter();
+
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isZero();
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isZero();
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isZero();
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isEqualTo(INTERVAL);
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isEqualTo(2 * INTERVAL);
+    }
+
+    @Test
+    void freesOnePermitPerIntervalOnceBurstIsUsed() {
+        RateLimiter rateLimiter = rateLimiter();
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.reserve(NO_LIMIT);
+        }
+
+        advance(INTERVAL);
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isZero();
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isEqualTo(INTERVAL);
+
+        advance(INTERVAL / 2);
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isEqualTo(INTERVAL + INTERVAL / 2);
+    }
+
+    @Test
+    void refillsBurstAfterIdlePeriodButNoMore() {
+        RateLimiter rateLimiter = rateLimiter();
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.reserve(NO_LIMIT);
+        }
+
+        advance(TimeUnit.SECONDS.toNanos(10));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.reserve(NO_LIMIT)).isZero();
+        }
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void refusesWithoutReservingWhenWaitExceedsMaximum() {
+        RateLimiter rateLimiter = rateLimiter();
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.reserve(NO_LIMIT);
+        }
+
+        assertThat(rateLimiter.reserve(INTERVAL - 1)).isEqualTo(-1);
+        assertThat(rateLimiter.reserve(INTERVAL - 1)).isEqualTo(-1);
+        assertThat(rateLimiter.reserve(INTERVAL)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void halvesRateWhenThrottledDownToMinimum() {
+        RateLimiter rateLimiter = rateLimiter();
+
+        rateLimiter.onThrottled(null);
+        assertThat(rateLimiter.getRate()).isEqualTo(5.0);
+        rateLimiter.onThrottled(null);
+        assertThat(rateLimiter.getRate()).isEqualTo(2.5);
+        rateLimiter.onThrottled(null);
+        assertThat(rateLimiter.getRate()).isEqualTo(1.25);
+        rateLimiter.onThrottled(null);
+        assertThat(rateLimiter.getRate()).isEqualTo(1.0);
+        rateLimiter.onThrottled(null);
+        assertThat(rateLimiter.getRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    void throttledRateSpacesPermitsFurther() {
+        RateLimiter rateLimiter = rateLimiter();
+        rateLimiter.onThrottled(null);
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.reserve(NO_LIMIT)).isZero();
+        }
+
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isEqualTo(2 * INTERVAL);
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isEqualTo(4 * INTERVAL);
+    }
+
+    @Test
+    void recoversConfiguredRateGraduallyOnSuccess() {
+        RateLimiter rateLimiter = rateLimiter();
+        rateLimiter.onThrottled(null);
+
+        rateLimiter.onSuccess();
+        double afterOneSuccess = rateLimiter.getRate();
+        assertThat(afterOneSuccess).isGreaterThan(5.0).isLessThan(10.0);
+        rateLimiter.onSuccess();
+        assertThat(rateLimiter.getRate()).isGreaterThan(afterOneSuccess);
+
+        for (int i = 0; i < 1_000; i++) {
+            rateLimiter.onSuccess();
+        }
+        assertThat(rateLimiter.getRate()).isEqualTo(10.0);
+    }
+
+    @Test
+    void successAtConfiguredRateChangesNothing() {
+        RateLimiter rateLimiter = rateLimiter();
+
+        rateLimiter.onSuccess();
+
+        assertThat(rateLimiter.getRate()).isEqualTo(10.0);
+    }
+
+    @Test
+    void retryAfterPushesNextPermitPastThePause() {
+        RateLimiter rateLimiter = rateLimiter();
+
+        rateLimiter.onThrottled(Duration.ofSeconds(2));
+
+        assertThat(rateLimiter.reserve(TimeUnit.SECONDS.toNanos(1))).isEqualTo(-1);
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isEqualTo(TimeUnit.SECONDS.toNanos(2));
+
+        advance(TimeUnit.SECONDS.toNanos(2));
+        // The halved rate applies after the pause: 200 ms between permits
+        assertThat(rateLimiter.reserve(NO_LIMIT)).isEqualTo(2 * INTERVAL);
+    }
+
+    @Test
+    void retryAfterNeverPullsNextPermitForward() {
+        RateLimiter withRetryAfter = rateLimiter();
+        RateLimiter withoutRetryAfter = rateLimiter();
+        for (int i = 0; i < 30; i++) {
+            withRetryAfter.reserve(NO_LIMIT);
+            withoutRetryAfter.reserve(NO_LIMIT);
+        }
+
+        // Permits are already reserved for the next 2.7 s; a shorter pause leaves them where they are
+        withRetryAfter.onThrottled(Duration.ofMillis(1));
+        withoutRetryAfter.onThrottled(null);
+
+        assertThat(withRetryAfter.reserve(NO_LIMIT)).isEqualTo(withoutRetryAfter.reserve(NO_LIMIT));
+    }
+}
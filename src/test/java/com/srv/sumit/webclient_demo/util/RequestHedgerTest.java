@@ -0,0 +1,157 @@
+package com.srv.sumit.webclient_demo.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestHedgerTest {
+
+    private static final String ENDPOINT = "https://api.example.com/objects/{id}";
+    private static final Duration FIXED_DELAY = Duration.ofMillis(200);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final List<Integer> cancelled = new CopyOnWriteArrayList<>();
+    private VirtualTimeScheduler scheduler;
+
+    @BeforeEach
+    void installVirtualTime() {
+        scheduler = VirtualTimeScheduler.getOrSet();
+    }
+
+    @AfterEach
+    void resetVirtualTime() {
+        VirtualTimeScheduler.reset();
+    }
+
+    /**
+     * Hedges after the p95 latency once 32 samples exist, with a budget of 5% extra requests.
+     */
+    private RequestHedger hedger(double percentile) {
+        return new RequestHedger(meterRegistry, true, FIXED_DELAY, percentile, 0.05,
+                () -> scheduler.now(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * An attempt whose n-th subscription answers after the n-th latency, or fails if that latency is negative.
+     */
+    private Mono<String> attempt(Duration... latencies) {
+        return Mono.defer(() -> {
+            int n = subscriptions.incrementAndGet();
+            Duration latency = latencies[Math.min(n, latencies.length) - 1];
+            Mono<String> answer = latency.isNegative()
+                    ? Mono.delay(latency.negated()).then(Mono.error(new IllegalStateException("attempt-" + n)))
+                    : Mono.delay(latency).thenReturn("attempt-" + n);
+            return answer.doOnCancel(() -> cancelled.add(n));
+        });
+    }
+
+    private double hedges(String event) {
+        return meterRegistry.get("http.client.hedges").tag("event", event).counter().count();
+    }
+
+    @Test
+    void hedgesAfterTheObservedPercentileLatency() {
+        RequestHedger hedger = hedger(0.95);
+        // 30 fast samples, then the 95th percentile (the 31st of 32) and a slower maximum
+        for (int i = 0; i < 32; i++) {
+            Duration latency = Duration.ofMillis(i < 30 ? 20 : i == 30 ? 60 : 150);
+            hedger.hedge(ENDPOINT, Mono.delay(latency)).subscribe();
+            scheduler.advanceTimeBy(latency);
+        }
+        assertThat(hedges("sent")).isZero();
+
+        StepVerifier.withVirtualTime(() -> hedger.hedge(ENDPOINT, attempt(Duration.ofSeconds(1))),
+                        () -> scheduler, Long.MAX_VALUE)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(59))
+                .then(() -> assertThat(subscriptions).hasValue(1))
+                .thenAwait(Duration.ofMillis(1))
+                .then(() -> assertThat(subscriptions).hasValue(2))
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNext("attempt-1")
+                .verifyComplete();
+        assertThat(hedges("sent")).isEqualTo(1);
+    }
+
+    @Test
+    void firstSuccessWinsAndCancelsTheOtherAttempt() {
+        RequestHedger hedger = hedger(0.95);
+
+        StepVerifier.withVirtualTime(() -> hedger.hedge(ENDPOINT,
+                                attempt(Duration.ofSeconds(1), Duration.ofMillis(100))),
+                        () -> scheduler, Long.MAX_VALUE)
+                .expectSubscription()
+                .expectNoEvent(FIXED_DELAY.plusMillis(99))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext("attempt-2")
+                .verifyComplete();
+
+        assertThat(cancelled).containsExactly(1);
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresAFailedHedge() {
+        RequestHedger hedger = hedger(0.95);
+
+        StepVerifier.withVirtualTime(() -> hedger.hedge(ENDPOINT,
+                                attempt(Duration.ofSeconds(1), Duration.ofMillis(-100))),
+                        () -> scheduler, Long.MAX_VALUE)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(999))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext("attempt-1")
+                .verifyComplete();
+
+        assertThat(subscriptions).hasValue(2);
+        assertThat(hedges("won")).isZero();
+    }
+
+    @Test
+    void propagatesAFailedOriginalAttemptAndCancelsTheHedge() {
+        RequestHedger hedger = hedger(0.95);
+
+        StepVerifier.withVirtualTime(() -> hedger.hedge(ENDPOINT,
+                                attempt(Duration.ofMillis(-300), Duration.ofSeconds(1))),
+                        () -> scheduler, Long.MAX_VALUE)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(299))
+                .then(() -> assertThat(subscriptions).hasValue(2))
+                .thenAwait(Duration.ofMillis(1))
+                .expectErrorMessage("attempt-1")
+                .verify();
+
+        assertThat(cancelled).containsExactly(2);
+    }
+
+    @Test
+    void capsHedgesAtTheBudget() {
+        // A fixed delay throughout, so every request is slow enough to be hedged
+        RequestHedger hedger = hedger(0);
+
+        StepVerifier.withVirtualTime(() -> Flux.range(0, 100)
+                                .concatMap(i -> hedger.hedge(ENDPOINT, Mono.delay(Duration.ofSeconds(1)))),
+                        () -> scheduler, Long.MAX_VALUE)
+                .thenAwait(Duration.ofSeconds(100))
+                .expectNextCount(100)
+                .verifyComplete();
+
+        // The initial burst of 10, then one per 20 requests (5%) as the budget refills
+        assertThat(hedges("sent")).isEqualTo(14);
+        assertThat(hedges("denied")).isEqualTo(86);
+    }
+}
@@ -0,0 +1,128 @@
+package com.srv.sumit.webclient_demo.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class UriTemplateEngineTest {
+
+    private static final String BASE_URL = "https://api.example.com";
+
+    private final UriTemplateEngine engine = new UriTemplateEngine();
+
+    @Test
+    void expandsPathVariablesAndQueryParameters() {
+        MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+        queryParams.add("page", "2");
+        queryParams.add("tag", "a");
+        queryParams.add("tag", "b");
+
+        String uri = engine.expand(BASE_URL, "/objects/{id}", Map.of("id", "7"), queryParams);
+
+        assertThat(uri).isEqualTo("https://api.example.com/objects/7?page=2&tag=a&tag=b");
+    }
+
+    @Test
+    void encodesReservedCharactersInPathVariables() {
+        String uri = engine.expand(BASE_URL, "/objects/{id}", Map.of("id", "a/b c?d#e%f"), null);
+
+        assertThat(uri).isEqualTo("https://api.example.com/objects/a%2Fb%20c%3Fd%23e%25f");
+    }
+
+    @Test
+    void keepsSubDelimitersAndEncodesNonAsciiAsUtf8InPathVariables() {
+        String uri = engine.expand(BASE_URL, "/objects/{id}", Map.of("id", "a:b@c;d=é"), null);
+
+        assertThat(uri).isEqualTo("https://api.example.com/objects/a:b@c;d%3D%C3%A9");
+    }
+
+    @Test
+    void encodesQuerySeparatorsInQueryParameters() {
+        MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+        queryParams.add("q", "a&b=c+d#e;f/g?h");
+
+        String uri = engine.expand(BASE_URL, "/search", null, queryParams);
+
+        assertThat(uri).isEqualTo("https://api.example.com/search?q=a%26b%3Dc%2Bd%23e%3Bf/g?h");
+    }
+
+    @Test
+    void appendsQueryParametersToTemplateQuery() {
+        MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+        queryParams.add("flag", null);
+        queryParams.add("page", "1");
+
+        String uri = engine.expand(BASE_URL, "/objects?sort={field}", Map.of("field", "name"), queryParams);
+
+        assertThat(uri).isEqualTo("https://api.example.com/objects?sort=name&flag&page=1");
+    }
+
+    @Test
+    void expandsRepeatedVariableAtEveryOccurrence() {
+        String uri = engine.expand(BASE_URL, "/users/{id}/friends/{id}/{other}",
+                Map.of("id", "42", "other", "x y"), null);
+
+        assertThat(uri).isEqualTo("https://api.example.com/users/42/friends/42/x%20y");
+    }
+
+    @Test
+    void encodesIllegalCharactersInTemplateLiterals() {
+        String uri = engine.expand(BASE_URL, "/a b/{}/{id}", Map.of("id", "1"), null);
+
+        assertThat(uri).isEqualTo("https://api.example.com/a%20b/%7B%7D/1");
+    }
+
+    @Test
+    void rejectsPlaceholderWithoutValue() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> engine.expand(BASE_URL, "/objects/{id}/{part}", Map.of("id", "1"), null))
+                .withMessageContaining("'part'");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> engine.expand(BASE_URL, "/objects/{id}", null, null))
+                .withMessageContaining("'id'");
+    }
+
+    @Test
+    void rejectsNullPathVariableValue() {
+        Map<String, String> pathVariables = new HashMap<>();
+        pathVariables.put("id", null);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> engine.expand(BASE_URL, "/objects/{id}", pathVariables, null));
+    }
+
+    @Test
+    void ignoresUnusedPathVariables() {
+        String uri = engine.expand(BASE_URL, "/objects", Map.of("id", "1"), null);
+
+        assertThat(uri).isEqualTo("https://api.example.com/objects");
+    }
+
+    @Test
+    void reusesCompiledTemplate() {
+        UriTemplateEngine.CompiledTemplate first = engine.compile("/objects/{id}");
+
+        assertThat(engine.compile("/objects/{id}")).isSameAs(first);
+        assertThat(engine.compile("/objects/{other}")).isNotSameAs(first);
+    }
+
+    @Test
+    void stopsCachingBeyondBoundButStillExpands() {
+        for (int i = 0; i < 1024; i++) {
+            engine.compile("/cached/" + i + "/{id}");
+        }
+
+        UriTemplateEngine.CompiledTemplate uncached = engine.compile("/uncached/{id}");
+
+        assertThat(engine.compile("/uncached/{id}")).isNotSameAs(uncached);
+        assertThat(engine.compile("/cached/0/{id}")).isSameAs(engine.compile("/cached/0/{id}"));
+        assertThat(engine.expand(BASE_URL, "/uncached/{id}", Map.of("id", "1"), null))
+                .isEqualTo("https://api.example.com/uncached/1");
+    }
+}